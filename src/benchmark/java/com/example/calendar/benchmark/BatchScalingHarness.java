@@ -0,0 +1,81 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CalendarCalculations;
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.batch.BatchScheduler;
+import com.example.calendar.dto.BatchReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Measures how the batch mode scales with the number of threads.
+ * Arguments: users (5000), events per user (200), horizon in days (365).
+ * Runs the same generated dump on 1, 2, 4, ... up to all cores and prints users/s and the speedup.
+ */
+public final class BatchScalingHarness {
+
+    private BatchScalingHarness() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int users = (args.length > 0) ? Integer.parseInt(args[0]) : 5000;
+        int eventsPerUser = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+        int horizonDays = (args.length > 2) ? Integer.parseInt(args[2]) : 365;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Path dump = Files.createTempFile("users", ".jsonl");
+        Path output = Files.createTempFile("schedules", ".jsonl");
+        try {
+            writeDump(dump, users, eventsPerUser, horizonDays);
+            int cores = Runtime.getRuntime().availableProcessors();
+            double singleThread = 0;
+            // The first run warms the JIT up.
+            run(dump, output, 1);
+            for (int parallelism = 1; parallelism <= cores; parallelism = (parallelism == cores) ? cores + 1 : Math.min(cores, parallelism * 2)) {
+                BatchReport report = run(dump, output, parallelism);
+                if (parallelism == 1) {
+                    singleThread = report.getUsersPerSecond();
+                }
+                console.printf("%3d threads: %10.1f users/s, speedup %.2f%n",
+                        parallelism, report.getUsersPerSecond(), report.getUsersPerSecond() / singleThread);
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static BatchReport run(Path dump, Path output, int parallelism) throws IOException {
+        return new BatchScheduler(new CollectCalendarData(), new CalendarCalculations(), parallelism).run(dump, output);
+    }
+
+    private static void writeDump(Path dump, int users, int eventsPerUser, int horizonDays) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        OffsetDateTime firstDay = SyntheticCalendar.START_DATE.atStartOfDay().atOffset(ZoneOffset.ofHours(2));
+        try (BufferedWriter writer = Files.newBufferedWriter(dump, StandardCharsets.UTF_8)) {
+            for (int user = 0; user < users; user++) {
+                writer.write("{\"userId\":\"student-" + user + "\",\"startDate\":\"" + SyntheticCalendar.START_DATE
+                        + "\",\"submissionDate\":\"" + SyntheticCalendar.START_DATE.plusDays(horizonDays - 1)
+                        + "\",\"workOnSunday\":" + random.nextBoolean()
+                        + ",\"hoursToCompleteTheWork\":" + (50 + random.nextInt(400)) + ",\"events\":[");
+                for (int event = 0; event < eventsPerUser; event++) {
+                    OffsetDateTime start = firstDay.plusDays(random.nextInt(horizonDays)).plusMinutes(6 * 60 + random.nextInt(64) * 15);
+                    OffsetDateTime end = start.plusMinutes(15 + random.nextInt(16) * 15);
+                    writer.write(((event > 0) ? "," : "") + "{\"summary\":\"Event " + event + "\",\"start\":\"" + start + ":00\",\"end\":\"" + end + ":00\"}");
+                }
+                writer.write("]}");
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CalendarCalculations;
+import com.example.calendar.ScheduleTimeline;
+import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.WorkDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the calendar calculations over synthetic plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarCalculationsBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int events;
+
+    @Param({"7", "365", "1825"})
+    public int horizonDays;
+
+    private final CalendarCalculations calendarCalculations = new CalendarCalculations();
+    private List<InitialData> plans;
+    private ScheduleTimeline timeline;
+    private LocalDate submissionDate;
+    private int hoursToCompleteTheWork;
+
+    @Setup
+    public void setUp() {
+        // The calculations report through System.out; measure the work, not the console.
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        plans = SyntheticCalendar.plans(events, horizonDays, 42);
+        submissionDate = SyntheticCalendar.START_DATE.plusDays(horizonDays - 1);
+        hoursToCompleteTheWork = horizonDays * 4;
+        timeline = calendarCalculations.generateNewCalendarWithPlans(plans, SyntheticCalendar.START_DATE, submissionDate, false, hoursToCompleteTheWork);
+    }
+
+    @Benchmark
+    public ScheduleTimeline generateNewCalendarWithPlans() {
+        return calendarCalculations.generateNewCalendarWithPlans(plans, SyntheticCalendar.START_DATE, submissionDate, false, hoursToCompleteTheWork);
+    }
+
+    @Benchmark
+    public ScheduleTimeline generateWorkCalendar() {
+        calendarCalculations.generateWorkCalendar(timeline, hoursToCompleteTheWork);
+        return timeline;
+    }
+
+    @Benchmark
+    public WorkDistribution distributeWork() {
+        return calendarCalculations.distributeWork(timeline, hoursToCompleteTheWork);
+    }
+
+    @Benchmark
+    public ScheduleTimeline calculateWorkLoadSituation() {
+        calendarCalculations.calculateWorkLoadSituation(timeline);
+        return timeline;
+    }
+}
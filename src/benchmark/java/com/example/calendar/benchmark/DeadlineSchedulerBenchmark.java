@@ -0,0 +1,69 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.DeadlineScheduler;
+import com.example.calendar.PlansIndex;
+import com.example.calendar.ScheduleTimeline;
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablePlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules hundreds of deliverables over a calendar of several years, with about a tenth of them not fitting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeadlineSchedulerBenchmark {
+    @Param({"100", "500"})
+    public int deliverables;
+
+    @Param({"1095"})
+    public int horizonDays;
+
+    private final DeadlineScheduler scheduler = new DeadlineScheduler(Duration.ofMinutes(30), 10);
+    private PlansIndex plansIndex;
+    private List<Deliverable> work;
+
+    @Setup
+    public void setUp() {
+        LocalDate submissionDate = SyntheticCalendar.START_DATE.plusDays(horizonDays - 1);
+        plansIndex = new PlansIndex(new CollectCalendarData().makePlans(SyntheticCalendar.events(horizonDays * 3, horizonDays, 42)),
+                SyntheticCalendar.START_DATE, submissionDate);
+        Random random = new Random(42);
+        // about 1.1 times the free time of the work days in total
+        double meanHours = 1.1 * 8 * horizonDays * 6 / 7 / deliverables;
+        work = new ArrayList<>(deliverables);
+        for (int i = 0; i < deliverables; i++) {
+            LocalDate deadline = SyntheticCalendar.START_DATE.plusDays(random.nextInt(horizonDays));
+            LocalDate earliestStart = random.nextBoolean() ? null : deadline.minusDays(random.nextInt(120));
+            work.add(new Deliverable("Deliverable " + i, Math.ceil(meanHours * 2 * random.nextDouble()), deadline,
+                    random.nextInt(5), earliestStart));
+        }
+    }
+
+    @Benchmark
+    public List<DeliverablePlan> schedule() {
+        return scheduler.schedule(ScheduleTimeline.of(plansIndex, false), 16, work);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.EventTimeConverter;
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the conversion of calendar events to plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventConversionBenchmark {
+    private static final int BATCH = 1024;
+
+    @Param({"100", "10000", "1000000"})
+    public int events;
+
+    @Param({"7", "1825"})
+    public int horizonDays;
+
+    private final CollectCalendarData collectCalendarData = new CollectCalendarData();
+    private final EventTimeConverter converter = EventTimeConverter.of(ZoneId.of("Europe/Vilnius"));
+    private List<Event> calendarEvents;
+    private DateTime[] starts;
+    private DateTime[] ends;
+
+    @Setup
+    public void setUp() {
+        calendarEvents = SyntheticCalendar.events(events, horizonDays, 42);
+        starts = new DateTime[BATCH];
+        ends = new DateTime[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            Event event = calendarEvents.get(i % calendarEvents.size());
+            starts[i] = event.getStart().getDateTime();
+            ends[i] = event.getEnd().getDateTime();
+        }
+    }
+
+    @Benchmark
+    public List<InitialData> makePlans() {
+        return collectCalendarData.makePlans(calendarEvents);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void calculateDuration(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(CollectCalendarData.calculateDuration(starts[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void getJustDateFromDateTIme(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(CollectCalendarData.getJustDateFromDateTIme(starts[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void epochDay(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(converter.epochDay(starts[i].getValue()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void startOfDay(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(converter.startOfDay(EventTimeConverter.epochDayOf(starts[i])));
+        }
+    }
+}
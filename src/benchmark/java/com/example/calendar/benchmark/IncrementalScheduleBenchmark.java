@@ -0,0 +1,78 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CalendarCalculations;
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.IncrementalSchedule;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.WorkDistribution;
+import com.google.api.services.calendar.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares moving one event in an incremental schedule with rebuilding the schedule from all events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalScheduleBenchmark {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    @Param({"10000"})
+    public int events;
+
+    @Param({"365", "1825"})
+    public int horizonDays;
+
+    private final CalendarCalculations calendarCalculations = new CalendarCalculations();
+    private final CollectCalendarData collectCalendarData = new CollectCalendarData();
+    private List<Event> calendarEvents;
+    private IncrementalSchedule incrementalSchedule;
+    private LocalDate submissionDate;
+    private int hoursToCompleteTheWork;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        calendarEvents = SyntheticCalendar.events(events, horizonDays, 42);
+        submissionDate = SyntheticCalendar.START_DATE.plusDays(horizonDays - 1);
+        hoursToCompleteTheWork = horizonDays * 4;
+        incrementalSchedule = calendarCalculations.incrementalSchedule(calendarEvents, ZoneId.systemDefault(),
+                SyntheticCalendar.START_DATE, submissionDate, false, hoursToCompleteTheWork);
+    }
+
+    /**
+     * Moves the events one by one a day later and back, so the schedule stays the same size.
+     */
+    @Benchmark
+    public WorkDistribution moveEvent() {
+        Event event = calendarEvents.get(next++ % calendarEvents.size());
+        long shift = ((next / calendarEvents.size()) % 2 == 0) ? MILLIS_PER_DAY : 0;
+        incrementalSchedule.move(event.getId(), event.getStart().getDateTime().getValue() + shift,
+                event.getEnd().getDateTime().getValue() + shift);
+        return incrementalSchedule.getDistribution();
+    }
+
+    @Benchmark
+    public Schedule rebuildSchedule() {
+        return calendarCalculations.computeSchedule(collectCalendarData.makePlans(calendarEvents),
+                SyntheticCalendar.START_DATE, submissionDate, false, hoursToCompleteTheWork);
+    }
+}
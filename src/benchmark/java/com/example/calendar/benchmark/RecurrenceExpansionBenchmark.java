@@ -0,0 +1,115 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.BusyTimeSweep;
+import com.example.calendar.CalendarClient;
+import com.example.calendar.RecurrenceExpander;
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting the instances of recurring events, as fetched with singleEvents=true,
+ * with expanding the recurring events locally, as fetched with singleEvents=false.
+ * The setup prints the JSON size of both responses; the parse benchmarks include reading the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrenceExpansionBenchmark {
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final String[] RULES = {
+            "RRULE:FREQ=DAILY", "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR", "RRULE:FREQ=WEEKLY;BYDAY=TU,TH", "RRULE:FREQ=MONTHLY;BYDAY=1MO"};
+
+    @Param({"20"})
+    public int recurringEvents;
+
+    @Param({"365", "730"})
+    public int horizonDays;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/Vilnius");
+    private List<Event> recurring;
+    private List<Event> instances;
+    private String instancesJson;
+    private String recurringJson;
+    private long windowStart;
+    private long windowEnd;
+
+    @Setup
+    public void setUp() throws IOException {
+        windowStart = SyntheticCalendar.START_DATE.atStartOfDay(zoneId).toInstant().toEpochMilli();
+        windowEnd = SyntheticCalendar.START_DATE.plusDays(horizonDays).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        recurring = new ArrayList<>(recurringEvents);
+        instances = new ArrayList<>();
+        RecurrenceExpander expander = new RecurrenceExpander(zoneId);
+        for (int i = 0; i < recurringEvents; i++) {
+            long start = windowStart + (8 + i % 10) * MILLIS_PER_HOUR;
+            Event event = new Event().setId("series" + i).setSummary("Series " + i).setStatus("confirmed")
+                    .setStart(new EventDateTime().setDateTime(new DateTime(start)).setTimeZone(zoneId.getId()))
+                    .setEnd(new EventDateTime().setDateTime(new DateTime(start + MILLIS_PER_HOUR / 2)).setTimeZone(zoneId.getId()))
+                    .setRecurrence(List.of(RULES[i % RULES.length]));
+            recurring.add(event);
+            expander.expand(event, List.of(), windowStart, windowEnd, (instanceStart, instanceEnd) -> instances.add(new Event()
+                    .setId(event.getId() + "_" + instanceStart).setSummary(event.getSummary()).setStatus("confirmed")
+                    .setRecurringEventId(event.getId())
+                    .setOriginalStartTime(new EventDateTime().setDateTime(new DateTime(instanceStart)).setTimeZone(zoneId.getId()))
+                    .setStart(new EventDateTime().setDateTime(new DateTime(instanceStart)).setTimeZone(zoneId.getId()))
+                    .setEnd(new EventDateTime().setDateTime(new DateTime(instanceEnd)).setTimeZone(zoneId.getId()))));
+        }
+        instancesJson = CalendarClient.JSON_FACTORY.toString(new Events().setItems(instances));
+        recurringJson = CalendarClient.JSON_FACTORY.toString(new Events().setItems(recurring));
+        System.out.printf("%n%d instances: %d bytes of JSON, %d recurring events: %d bytes%n",
+                instances.size(), instancesJson.length(), recurring.size(), recurringJson.length());
+    }
+
+    @Benchmark
+    public List<InitialData> convertInstances() {
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId, instances.size());
+        busyTime.addAll(instances, windowStart, windowEnd);
+        return busyTime.busyDays();
+    }
+
+    @Benchmark
+    public List<InitialData> expandRecurringEvents() {
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId);
+        busyTime.addAll(recurring, windowStart, windowEnd);
+        return busyTime.busyDays();
+    }
+
+    @Benchmark
+    public List<InitialData> parseAndConvertInstances() throws IOException {
+        List<Event> events = CalendarClient.JSON_FACTORY.fromString(instancesJson, Events.class).getItems();
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId, events.size());
+        busyTime.addAll(events, windowStart, windowEnd);
+        return busyTime.busyDays();
+    }
+
+    @Benchmark
+    public List<InitialData> parseAndExpandRecurringEvents() throws IOException {
+        List<Event> events = CalendarClient.JSON_FACTORY.fromString(recurringJson, Events.class).getItems();
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId);
+        busyTime.addAll(events, windowStart, windowEnd);
+        return busyTime.busyDays();
+    }
+}
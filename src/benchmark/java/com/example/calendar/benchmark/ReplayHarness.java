@@ -0,0 +1,178 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CalendarCalculations;
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.FakeCalendarServer;
+import com.example.calendar.FakeServerEventSource;
+import com.example.calendar.PagedEventFetcher;
+import com.example.calendar.SnapshotEventSource;
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Drives the whole pipeline (fetching the pages over HTTP, converting the events and scheduling the work)
+ * against recorded calendars served by the embedded fake Calendar server, without network access.
+ * Arguments: a directory of .jsonl snapshots recorded with --record, or "synthetic" for 8 generated calendars
+ * of 2000 events; concurrent clients (4); runs (400); latency per request in ms (20);
+ * share of 503 errors (0.01); share of 429 rate limits (0.02); events per page (250).
+ * Prints the throughput and the p50/p99/p999 latencies of one run, so regressions show up between commits.
+ */
+public final class ReplayHarness {
+
+    private ReplayHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String calendars = (args.length > 0) ? args[0] : "synthetic";
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int runs = (args.length > 2) ? Integer.parseInt(args[2]) : 400;
+        Duration latency = Duration.ofMillis((args.length > 3) ? Long.parseLong(args[3]) : 20);
+        double errorRate = (args.length > 4) ? Double.parseDouble(args[4]) : 0.01;
+        double rateLimitRate = (args.length > 5) ? Double.parseDouble(args[5]) : 0.02;
+        int pageSize = (args.length > 6) ? Integer.parseInt(args[6]) : 250;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<Replay> replays = new ArrayList<>();
+        for (List<Event> events : load(calendars)) {
+            FakeCalendarServer server = new FakeCalendarServer();
+            server.putAll(events);
+            server.setLatency(latency);
+            server.setPageSize(pageSize);
+            server.setErrorRate(errorRate);
+            server.setRateLimitRate(rateLimitRate);
+            replays.add(new Replay(new FakeServerEventSource(server, new PagedEventFetcher(pageSize), Duration.ofMillis(50)), events));
+        }
+        CollectCalendarData collectCalendarData = new CollectCalendarData();
+        CalendarCalculations calendarCalculations = new CalendarCalculations();
+
+        // The first pass over the calendars warms the JIT and the connections up.
+        for (Replay replay : replays) {
+            replay.run(collectCalendarData, calendarCalculations);
+        }
+
+        long[] latencies = new long[runs];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger events = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long startedAt = System.nanoTime();
+        for (int client = 0; client < clients; client++) {
+            executor.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < runs) {
+                    Replay replay = replays.get(i % replays.size());
+                    long runStartedAt = System.nanoTime();
+                    try {
+                        events.addAndGet(replay.run(collectCalendarData, calendarCalculations));
+                        latencies[succeeded.getAndIncrement()] = System.nanoTime() - runStartedAt;
+                    } catch (IOException | RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        int rateLimits = 0;
+        int errors = 0;
+        for (Replay replay : replays) {
+            rateLimits += replay.source.getServer().getRateLimitsServed();
+            errors += replay.source.getServer().getErrorsServed();
+            replay.source.close();
+        }
+        long[] sorted = Arrays.copyOf(latencies, succeeded.get());
+        Arrays.sort(sorted);
+        console.printf("%d runs (%d failed) of %d calendars by %d clients in %.2f s: %.1f runs/s, %.0f events/s%n",
+                runs, failed.get(), replays.size(), clients, seconds, runs / seconds, events.get() / seconds);
+        console.printf("latency p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+        console.printf("injected %d rate limits and %d errors, all retried%n", rateLimits, errors);
+    }
+
+    private static List<List<Event>> load(String calendars) throws IOException {
+        List<List<Event>> loaded = new ArrayList<>();
+        if ("synthetic".equals(calendars)) {
+            for (int seed = 0; seed < 8; seed++) {
+                loaded.add(SyntheticCalendar.events(2000, 365, seed));
+            }
+            return loaded;
+        }
+        try (Stream<Path> snapshots = Files.list(Path.of(calendars))) {
+            for (Path snapshot : snapshots.filter(path -> path.toString().endsWith(".jsonl")).sorted().toList()) {
+                loaded.add(SnapshotEventSource.load(snapshot).getEvents());
+            }
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("No .jsonl snapshots in " + calendars);
+        }
+        return loaded;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * One recorded calendar, replayed over the range of its events.
+     */
+    private static final class Replay {
+        private final FakeServerEventSource source;
+        private final DateTime timeMin;
+        private final DateTime timeMax;
+        private final LocalDate startDate;
+        private final LocalDate submissionDate;
+
+        private Replay(FakeServerEventSource source, List<Event> events) {
+            this.source = source;
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (Event event : events) {
+                first = Math.min(first, millis(event.getStart()));
+                last = Math.max(last, millis(event.getEnd()));
+            }
+            this.timeMin = new DateTime(first);
+            this.timeMax = new DateTime(last);
+            this.startDate = LocalDate.ofInstant(Instant.ofEpochMilli(first), ZoneId.systemDefault());
+            this.submissionDate = LocalDate.ofInstant(Instant.ofEpochMilli(last), ZoneId.systemDefault());
+        }
+
+        private int run(CollectCalendarData collectCalendarData, CalendarCalculations calendarCalculations) throws IOException {
+            List<Event> events = source.fetchEvents(timeMin, timeMax);
+            List<InitialData> plans = collectCalendarData.makePlans(events);
+            calendarCalculations.computeSchedule(plans, startDate, submissionDate, false, 500);
+            return events.size();
+        }
+
+        private static long millis(EventDateTime eventDateTime) {
+            return (eventDateTime.getDateTime() != null) ? eventDateTime.getDateTime().getValue() : eventDateTime.getDate().getValue();
+        }
+    }
+}
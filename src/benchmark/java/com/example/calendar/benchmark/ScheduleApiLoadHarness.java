@@ -0,0 +1,79 @@
+package com.example.calendar.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the schedule HTTP API of a running application.
+ * Arguments: base URL (http://localhost:8080), concurrent clients (32), requests (2000), horizon in days (365).
+ * Prints the throughput and the p50/p99 latencies of the successful requests.
+ */
+public final class ScheduleApiLoadHarness {
+
+    private ScheduleApiLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = (args.length > 0) ? args[0] : "http://localhost:8080";
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 32;
+        int requests = (args.length > 2) ? Integer.parseInt(args[2]) : 2000;
+        int horizonDays = (args.length > 3) ? Integer.parseInt(args[3]) : 365;
+
+        URI uri = URI.create(baseUrl + "/api/schedule?submissionDate=" + LocalDate.now().plusDays(horizonDays)
+                + "&workOnSunday=false&hours=" + horizonDays * 2);
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long startedAt = System.nanoTime();
+        for (int client = 0; client < clients; client++) {
+            executor.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long sentAt = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            latencies[succeeded.getAndIncrement()] = System.nanoTime() - sentAt;
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        long[] sorted = Arrays.copyOf(latencies, succeeded.get());
+        Arrays.sort(sorted);
+        System.out.printf("%d requests (%d failed) by %d clients in %.2f s: %.1f requests/s%n",
+                requests, failed.get(), clients, seconds, requests / seconds);
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.CalendarClient;
+import com.example.calendar.SlotBitmap;
+import com.example.calendar.WorkSlotPlacer;
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.Events;
+import com.google.api.services.calendar.model.FreeBusyCalendar;
+import com.google.api.services.calendar.model.FreeBusyResponse;
+import com.google.api.services.calendar.model.TimePeriod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the busy time from the events with reading it from a FreeBusy response of the same calendar,
+ * and measures placing a day's work into the free slots of every day.
+ * The setup prints the JSON size of both responses; the parse benchmarks include reading the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotBitmapBenchmark {
+    @Param({"1000", "10000"})
+    public int eventCount;
+
+    @Param({"365"})
+    public int horizonDays;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/Vilnius");
+    private final Duration slot = Duration.ofMinutes(15);
+    private final WorkSlotPlacer placer = new WorkSlotPlacer();
+    private String eventsJson;
+    private String freeBusyJson;
+    private SlotBitmap busy;
+    private List<CalendarWithPlans> days;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Event> events = SyntheticCalendar.events(eventCount, horizonDays, 42);
+        eventsJson = CalendarClient.JSON_FACTORY.toString(new Events().setItems(events));
+        List<long[]> intervals = new ArrayList<>();
+        for (Event event : events) {
+            intervals.add(new long[]{event.getStart().getDateTime().getValue(), event.getEnd().getDateTime().getValue()});
+        }
+        intervals.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<TimePeriod> periods = new ArrayList<>();
+        for (long[] interval : intervals) {
+            TimePeriod last = periods.isEmpty() ? null : periods.get(periods.size() - 1);
+            if (last != null && interval[0] <= last.getEnd().getValue()) {
+                last.setEnd(new DateTime(Math.max(interval[1], last.getEnd().getValue())));
+            } else {
+                periods.add(new TimePeriod().setStart(new DateTime(interval[0])).setEnd(new DateTime(interval[1])));
+            }
+        }
+        freeBusyJson = CalendarClient.JSON_FACTORY.toString(new FreeBusyResponse()
+                .setCalendars(Map.of("primary", new FreeBusyCalendar().setBusy(periods))));
+        System.out.printf("%n%d events: %d bytes of JSON, %d busy periods: %d bytes%n",
+                events.size(), eventsJson.length(), periods.size(), freeBusyJson.length());
+        busy = newBitmap();
+        busy.markBusy(events);
+        days = new ArrayList<>(horizonDays);
+        for (int day = 0; day < horizonDays; day++) {
+            days.add(new CalendarWithPlans(SyntheticCalendar.START_DATE.plusDays(day), busy.busyHours(day), 4,
+                    SyntheticCalendar.START_DATE.plusDays(day).getDayOfWeek()));
+        }
+    }
+
+    @Benchmark
+    public SlotBitmap parseAndMarkEvents() throws IOException {
+        SlotBitmap bitmap = newBitmap();
+        bitmap.markBusy(CalendarClient.JSON_FACTORY.fromString(eventsJson, Events.class).getItems());
+        return bitmap;
+    }
+
+    @Benchmark
+    public SlotBitmap parseAndMarkFreeBusy() throws IOException {
+        SlotBitmap bitmap = newBitmap();
+        FreeBusyResponse response = CalendarClient.JSON_FACTORY.fromString(freeBusyJson, FreeBusyResponse.class);
+        for (TimePeriod period : response.getCalendars().get("primary").getBusy()) {
+            bitmap.markBusy(period.getStart().getValue(), period.getEnd().getValue());
+        }
+        return bitmap;
+    }
+
+    @Benchmark
+    public List<WorkBlock> placeWork() {
+        SlotBitmap bitmap = newBitmap();
+        for (int slotIndex = busy.nextOccupied(0, busy.size()); slotIndex < busy.size(); ) {
+            int end = busy.nextFree(slotIndex, busy.size());
+            end = (end < 0) ? busy.size() : end;
+            bitmap.occupy(slotIndex, end);
+            slotIndex = busy.nextOccupied(end, busy.size());
+        }
+        return placer.place(bitmap, days);
+    }
+
+    private SlotBitmap newBitmap() {
+        return new SlotBitmap(SyntheticCalendar.START_DATE, SyntheticCalendar.START_DATE.plusDays(horizonDays - 1), slot, zoneId);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.SnapshotEventSource;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time to result of a schedule computed by a fresh JVM, from launch to exit.
+ * The web mode boots the servlet context eagerly, as every run did before the headless mode;
+ * the other modes run --headless, then add an AppCDS archive and C1-only compilation,
+ * and Spring AOT when the classes were built with mvn -Paot package.
+ * Arguments: runs per mode (3), events in the replayed calendar (2000).
+ * Prints the median, min and max time of each mode.
+ */
+public final class StartupHarness {
+    private static final String MAIN = "com.example.calendar.WorkScheduleCalendarApplication";
+
+    private StartupHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+        int events = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+
+        Path workDirectory = Files.createTempDirectory("startup");
+        Path snapshot = workDirectory.resolve("calendar.jsonl");
+        SnapshotEventSource.save(shiftedToToday(SyntheticCalendar.events(events, 90, 1)), snapshot);
+        Path classes = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(Path::of)
+                .filter(path -> path.endsWith("classes") && Files.isDirectory(path))
+                .findFirst().orElseThrow();
+        // AppCDS only archives classes loaded from jars
+        Path applicationJar = jar(classes, workDirectory.resolve("application.jar"));
+        String classpath = applicationJar + File.pathSeparator + Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> entry.endsWith(".jar"))
+                .reduce((first, second) -> first + File.pathSeparator + second).orElse("");
+        Path archive = workDirectory.resolve("application.jsa");
+
+        List<String> schedule = List.of(MAIN, "--headless", "--submission-date=" + LocalDate.now().plusDays(90), "--hours=200",
+                "--calendar.source=snapshot", "--calendar.source.snapshot=" + snapshot);
+        List<String> web = new ArrayList<>(schedule);
+        web.addAll(List.of("--spring.main.web-application-type=servlet", "--spring.main.lazy-initialization=false", "--server.port=0"));
+
+        measure("web context (before)", List.of(), web, classpath, runs);
+        measure("headless", List.of(), schedule, classpath, runs);
+        launch(List.of("-XX:ArchiveClassesAtExit=" + archive), schedule, classpath);
+        measure("headless + AppCDS", List.of("-XX:SharedArchiveFile=" + archive), schedule, classpath, runs);
+        measure("headless + AppCDS + C1", List.of("-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1"), schedule, classpath, runs);
+        if (Files.exists(classes.resolve("com/example/calendar/WorkScheduleCalendarApplication__ApplicationContextInitializer.class"))) {
+            measure("headless + AOT + AppCDS + C1", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive,
+                    "-XX:TieredStopAtLevel=1"), schedule, classpath, runs);
+        }
+    }
+
+    private static void measure(String mode, List<String> jvmOptions, List<String> arguments, String classpath, int runs)
+            throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = launch(jvmOptions, arguments, classpath);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-30s median %6d ms, min %6d ms, max %6d ms%n", mode, millis[runs / 2], millis[0], millis[runs - 1]);
+    }
+
+    private static long launch(List<String> jvmOptions, List<String> arguments, String classpath) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.addAll(arguments);
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!process.waitFor(5, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("The schedule run did not finish in 5 minutes: " + command);
+        }
+        long millis = (System.nanoTime() - startedAt) / 1_000_000;
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("The schedule run failed with exit code " + process.exitValue() + ": " + command);
+        }
+        return millis;
+    }
+
+    /**
+     * Moves the synthetic events from their fixed start date to today, so the schedule from today finds them.
+     */
+    private static List<Event> shiftedToToday(List<Event> events) {
+        long shift = (LocalDate.now().toEpochDay() - SyntheticCalendar.START_DATE.toEpochDay()) * 86_400_000L;
+        for (Event event : events) {
+            event.setStart(shifted(event.getStart(), shift));
+            event.setEnd(shifted(event.getEnd(), shift));
+        }
+        return events;
+    }
+
+    private static EventDateTime shifted(EventDateTime eventDateTime, long shift) {
+        DateTime dateTime = eventDateTime.getDateTime();
+        return new EventDateTime().setDateTime(new DateTime(dateTime.getValue() + shift, dateTime.getTimeZoneShift()));
+    }
+
+    private static Path jar(Path classes, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(path -> !path.equals(classes)).sorted().toList()) {
+                String name = classes.relativize(file).toString().replace(File.separatorChar, '/');
+                // the directory entries let the component scan find the packages
+                out.putNextEntry(new JarEntry(Files.isDirectory(file) ? name + "/" : name));
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.calendar.benchmark;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible calendars for the benchmarks.
+ */
+public final class SyntheticCalendar {
+    public static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+    private static final int TZ_SHIFT_MINUTES = 180;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private SyntheticCalendar() {
+    }
+
+    /**
+     * Generates events spread uniformly over the horizon, between 15 minutes and 4 hours long,
+     * starting between 06:00 and 22:00.
+     *
+     * @param count The number of events.
+     * @param horizonDays The number of days from {@link #START_DATE}.
+     * @param seed The seed of the random generator.
+     * @return List of Event objects.
+     */
+    public static List<Event> events(int count, int horizonDays, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long firstDayMillis = START_DATE.atStartOfDay().toInstant(ZoneOffset.ofTotalSeconds(TZ_SHIFT_MINUTES * 60)).toEpochMilli();
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = firstDayMillis
+                    + random.nextInt(horizonDays) * 24 * 60 * MILLIS_PER_MINUTE
+                    + (6 * 60 + random.nextInt(16 * 4) * 15) * MILLIS_PER_MINUTE;
+            long end = start + (15 + random.nextInt(16) * 15) * MILLIS_PER_MINUTE;
+            events.add(new Event()
+                    .setId("event" + i)
+                    .setSummary("Event " + i)
+                    .setStart(new EventDateTime().setDateTime(new DateTime(start, TZ_SHIFT_MINUTES)))
+                    .setEnd(new EventDateTime().setDateTime(new DateTime(end, TZ_SHIFT_MINUTES))));
+        }
+        return events;
+    }
+
+    /**
+     * Generates plans spread uniformly over the horizon, between 15 minutes and 4 hours long.
+     *
+     * @param count The number of plans.
+     * @param horizonDays The number of days from {@link #START_DATE}.
+     * @param seed The seed of the random generator.
+     * @return List of InitialData objects.
+     */
+    public static List<InitialData> plans(int count, int horizonDays, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<InitialData> plans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            plans.add(new InitialData("Plan " + i, START_DATE.plusDays(random.nextInt(horizonDays)), 0.25 + random.nextInt(16) * 0.25));
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes busy hours per day from event intervals with a sweep line.
+ * The start and end instants are sorted separately, so overlapping events are merged
+ * into one busy interval, and every busy interval is split at the midnights of the
+ * user's time zone. Events spanning several days are spread over all of them.
+ * The whole computation is O(n log n) and works on primitive arrays only.
+ * Recurring events fetched with singleEvents=false are expanded by {@link #addAll(List, long, long)}
+ * straight into the arrays, one interval per instance.
+ */
+@Log4j2
+public class BusyTimeSweep {
+    /**
+     * The summary of the plans produced by the sweep, one per busy day.
+     */
+    public static final String BUSY_SUMMARY = "Busy";
+
+    private final EventTimeConverter converter;
+    private final RecurrenceExpander recurrenceExpander;
+    private long[] starts;
+    private long[] ends;
+    private int size;
+
+    /**
+     * @param zoneId The time zone whose midnights split the busy intervals.
+     */
+    public BusyTimeSweep(ZoneId zoneId) {
+        this(zoneId, 16);
+    }
+
+    /**
+     * @param zoneId The time zone whose midnights split the busy intervals.
+     * @param expectedEvents The number of events expected, used to size the arrays.
+     */
+    public BusyTimeSweep(ZoneId zoneId, int expectedEvents) {
+        this.converter = EventTimeConverter.of(zoneId);
+        this.recurrenceExpander = new RecurrenceExpander(zoneId);
+        this.starts = new long[Math.max(1, expectedEvents)];
+        this.ends = new long[starts.length];
+    }
+
+    /**
+     * Adds the busy interval of an event.
+     * Cancelled events and events marked as free (transparent) do not block time and are skipped.
+     * All-day events block the whole days from their start date up to the end date (exclusive).
+     *
+     * @param event The event.
+     * @return Whether the event blocks any time.
+     */
+    public boolean add(Event event) {
+        return blocksTime(event) && add(startMillis(event, converter), endMillis(event, converter));
+    }
+
+    /**
+     * Adds the busy intervals of events which may include recurring events and their exceptions,
+     * as returned by the Calendar API with singleEvents=false.
+     * The instances of the recurring events within the window are added, except those replaced by an exception;
+     * changed instances are added like single events and cancelled ones are skipped.
+     * A recurring event whose rule cannot be expanded only adds its first instance.
+     *
+     * @param events List of Event objects.
+     * @param windowStart The start of the window in epoch milliseconds.
+     * @param windowEnd The end of the window in epoch milliseconds, exclusive.
+     * @return The number of busy intervals added.
+     */
+    public int addAll(List<Event> events, long windowStart, long windowEnd) {
+        int sizeBefore = size;
+        forEachInterval(events, converter, recurrenceExpander, windowStart, windowEnd, this::add);
+        return size - sizeBefore;
+    }
+
+    /**
+     * Hands the busy interval of each event and of each instance of the recurring events to the consumer,
+     * the way {@link #addAll(List, long, long)} adds them.
+     *
+     * @param events List of Event objects.
+     * @param converter The converter of the time zone whose midnight starts an all-day event.
+     * @param recurrenceExpander Expands the recurring events.
+     * @param windowStart The start of the window in epoch milliseconds.
+     * @param windowEnd The end of the window in epoch milliseconds, exclusive.
+     * @param consumer Receives the start and the end of each busy interval, possibly empty.
+     */
+    static void forEachInterval(List<Event> events, EventTimeConverter converter, RecurrenceExpander recurrenceExpander,
+                                long windowStart, long windowEnd, RecurrenceExpander.IntervalConsumer consumer) {
+        Map<String, List<EventDateTime>> replacedStarts = new HashMap<>();
+        List<Event> recurringEvents = new ArrayList<>();
+        for (Event event : events) {
+            if (RecurrenceExpander.isException(event)) {
+                replacedStarts.computeIfAbsent(event.getRecurringEventId(), id -> new ArrayList<>()).add(event.getOriginalStartTime());
+            }
+            if (!blocksTime(event)) {
+                continue;
+            }
+            if (RecurrenceExpander.isRecurring(event)) {
+                recurringEvents.add(event);
+            } else {
+                consumer.accept(startMillis(event, converter), endMillis(event, converter));
+            }
+        }
+        for (Event event : recurringEvents) {
+            try {
+                recurrenceExpander.expand(event, replacedStarts.getOrDefault(event.getId(), List.of()), windowStart, windowEnd, consumer);
+            } catch (IllegalArgumentException e) {
+                log.warn("Only the first instance of " + event.getSummary() + " is counted: " + e.getMessage());
+                consumer.accept(startMillis(event, converter), endMillis(event, converter));
+            }
+        }
+    }
+
+    /**
+     * @param event The event.
+     * @return Whether the event is neither cancelled nor marked as free (transparent).
+     */
+    static boolean blocksTime(Event event) {
+        return !"cancelled".equals(event.getStatus()) && !"transparent".equals(event.getTransparency())
+                && event.getStart() != null;
+    }
+
+    /**
+     * @param event The event.
+     * @param converter The converter of the time zone whose midnight starts an all-day event.
+     * @return The start of the event in epoch milliseconds.
+     */
+    static long startMillis(Event event, EventTimeConverter converter) {
+        return converter.toEpochMillis(event.getStart());
+    }
+
+    /**
+     * @param event The event.
+     * @param converter The converter of the time zone whose midnight ends an all-day event.
+     * @return The end of the event in epoch milliseconds; an all-day event without an end lasts one day.
+     */
+    static long endMillis(Event event, EventTimeConverter converter) {
+        if (event.getEnd() != null) {
+            return converter.toEpochMillis(event.getEnd());
+        }
+        long start = startMillis(event, converter);
+        return (event.getStart().getDateTime() == null) ? start + EventTimeConverter.MILLIS_PER_DAY : start;
+    }
+
+    /**
+     * Adds a busy interval.
+     *
+     * @param startMillis The start of the interval in epoch milliseconds (inclusive).
+     * @param endMillis The end of the interval in epoch milliseconds (exclusive).
+     * @return Whether the interval is not empty.
+     */
+    public boolean add(long startMillis, long endMillis) {
+        if (endMillis <= startMillis) {
+            return false;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = startMillis;
+        ends[size] = endMillis;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return The number of busy intervals added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Merges the overlapping intervals and sums the busy time of each day.
+     *
+     * @return One InitialData object per busy day, ordered by date.
+     */
+    public List<InitialData> busyDays() {
+        List<InitialData> busyDays = new ArrayList<>();
+        Arrays.sort(starts, 0, size);
+        Arrays.sort(ends, 0, size);
+
+        DaySplitter splitter = new DaySplitter(busyDays);
+        int nextStart = 0;
+        int nextEnd = 0;
+        int depth = 0;
+        long busyFrom = 0;
+        while (nextEnd < size) {
+            if (nextStart < size && starts[nextStart] < ends[nextEnd]) {
+                if (depth++ == 0) {
+                    busyFrom = starts[nextStart];
+                }
+                nextStart++;
+            } else {
+                if (--depth == 0) {
+                    splitter.split(busyFrom, ends[nextEnd]);
+                }
+                nextEnd++;
+            }
+        }
+        return busyDays;
+    }
+
+    /**
+     * Splits the merged busy intervals, which come in ascending order, at the midnights.
+     * The bounds of the current day are kept, so the offsets are only looked up once per day.
+     */
+    private class DaySplitter {
+        private final List<InitialData> busyDays;
+        private long day;
+        private long dayStart = Long.MAX_VALUE;
+        private long dayEnd = Long.MIN_VALUE;
+        private InitialData busyDay;
+
+        DaySplitter(List<InitialData> busyDays) {
+            this.busyDays = busyDays;
+        }
+
+        void split(long from, long to) {
+            while (from < to) {
+                if (from < dayStart || from >= dayEnd) {
+                    day = converter.epochDay(from);
+                    dayStart = converter.startOfDay(day);
+                    dayEnd = converter.startOfDay(day + 1);
+                }
+                long until = Math.min(to, dayEnd);
+                if (busyDay == null || busyDay.getDate().toEpochDay() != day) {
+                    busyDay = new InitialData(BUSY_SUMMARY, LocalDate.ofEpochDay(day), 0);
+                    busyDays.add(busyDay);
+                }
+                busyDay.setDuration(busyDay.getDuration() + EventTimeConverter.exactHoursBetween(from, until));
+                from = until;
+            }
+        }
+    }
+}
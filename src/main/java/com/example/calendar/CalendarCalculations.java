@@ -1,19 +1,68 @@
 package com.example.calendar;
 
 import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablePlan;
+import com.example.calendar.dto.DeliverablesSchedule;
 import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.WorkDistribution;
+import com.google.api.services.calendar.model.Event;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Log4j2
+@Component
 public class CalendarCalculations {
     ShowMessages showMessages = new ShowMessages();
     public final int HOURS_PER_DAY = 24;
     public final int SLEEPING_HOURS = 8;
+    private final WorkDistributor workDistributor;
+    private final DeadlineScheduler deadlineScheduler;
+
+    public CalendarCalculations() {
+        this(new WorkDistributor());
+    }
+
+    /**
+     * @param granularity The smallest slot of work.
+     * @param minDailyHours The hours worked on each work day with free time, while there is work left.
+     * @param maxDailyHours The most hours worked on one day.
+     * @param weekdayWeights Seven weights from Monday to Sunday, the share of work of each weekday.
+     */
+    @Autowired
+    public CalendarCalculations(@Value("${schedule.granularity:60m}") Duration granularity,
+                                @Value("${schedule.min-daily-hours:0}") double minDailyHours,
+                                @Value("${schedule.max-daily-hours:16}") double maxDailyHours,
+                                @Value("${schedule.weekday-weights:1,1,1,1,1,1,1}") double[] weekdayWeights) {
+        this(new WorkDistributor(granularity, minDailyHours, maxDailyHours, weekdayWeights),
+                new DeadlineScheduler(granularity, maxDailyHours));
+    }
+
+    /**
+     * @param workDistributor Distributes the work over the free time of the days.
+     */
+    public CalendarCalculations(WorkDistributor workDistributor) {
+        this(workDistributor, new DeadlineScheduler());
+    }
+
+    /**
+     * @param workDistributor Distributes the work over the free time of the days.
+     * @param deadlineScheduler Schedules several deliverables over the free time of the days.
+     */
+    public CalendarCalculations(WorkDistributor workDistributor, DeadlineScheduler deadlineScheduler) {
+        this.workDistributor = workDistributor;
+        this.deadlineScheduler = deadlineScheduler;
+    }
 
     /**
      * Generates a new calendar with plans based on the provided parameters.
@@ -22,26 +71,198 @@ public class CalendarCalculations {
      * @param submissionDate The submission date up to which the calendar should be generated.
      * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
      * @param hoursToCompleteTheWork The total number of hours required to complete the work.
-     * @return A list of CalendarWithPlans representing the generated calendar with plans.
+     * @return A timeline representing the generated calendar with plans.
      */
-    public List<CalendarWithPlans> generateNewCalendarWithPlans(List<InitialData> plans, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork){
-        List<CalendarWithPlans> calendarWithPlans = new ArrayList<>();
-        LocalDate currentDate = LocalDate.now();
-        double plannedHoursOfTheDay;
-        double allPlannedHours = 0;
-        while (!currentDate.isAfter(submissionDate)) {
-            if (!workOnSunday && currentDate.getDayOfWeek().equals(DayOfWeek.SUNDAY)){
-                currentDate = currentDate.plusDays(1);
+    public ScheduleTimeline generateNewCalendarWithPlans(List<InitialData> plans, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork){
+        return generateNewCalendarWithPlans(plans, LocalDate.now(), submissionDate, workOnSunday, hoursToCompleteTheWork);
+    }
+
+    /**
+     * Generates a new calendar with plans starting from the given date.
+     *
+     * @param plans List of objects of InitialData.
+     * @param startDate The first date of the calendar.
+     * @param submissionDate The submission date up to which the calendar should be generated.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return A timeline representing the generated calendar with plans.
+     */
+    public ScheduleTimeline generateNewCalendarWithPlans(List<InitialData> plans, LocalDate startDate, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork){
+        long startedAt = System.nanoTime();
+        ScheduleTimeline timeline = buildTimeline(plans, startDate, submissionDate, workOnSunday);
+        showMessages.willFinnishTheWorkOntime(availableHoursToWork(timeline), hoursToCompleteTheWork, timeline.workDays());
+        CalendarMetrics.record(CalendarMetrics.GENERATE_CALENDAR, startedAt);
+
+        return timeline;
+    }
+
+    /**
+     * Computes the whole schedule without printing anything:
+     * the calendar with plans, the available hours, the overloaded days and the hours to work on each day.
+     *
+     * @param plans List of objects of InitialData.
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return The computed schedule.
+     */
+    public Schedule computeSchedule(List<InitialData> plans, LocalDate startDate, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork){
+        long startedAt = System.nanoTime();
+        ScheduleTimeline timeline = buildTimeline(plans, startDate, submissionDate, workOnSunday);
+        WorkDistribution distribution = distributeWork(timeline, hoursToCompleteTheWork);
+        Schedule schedule = toSchedule(timeline, submissionDate, hoursToCompleteTheWork, distribution);
+        CalendarMetrics.OVERLOADED_DAYS.increment(schedule.getOverloadedDays().size());
+        CalendarMetrics.record(CalendarMetrics.COMPUTE_SCHEDULE, startedAt);
+        return schedule;
+    }
+
+    /**
+     * Computes the whole schedule as above, with the free hours of each day given instead of the hours
+     * left after sleeping and plans, e.g. the free time within the working hours where the work can be placed.
+     *
+     * @param plans List of objects of InitialData.
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @param freeHours The free hours of each day from the start date on.
+     * @return The computed schedule.
+     */
+    public Schedule computeSchedule(List<InitialData> plans, LocalDate startDate, LocalDate submissionDate, boolean workOnSunday,
+                                    int hoursToCompleteTheWork, double[] freeHours){
+        long startedAt = System.nanoTime();
+        ScheduleTimeline timeline = buildTimeline(plans, startDate, submissionDate, workOnSunday);
+        WorkDistribution distribution = workDistributor.distribute(timeline, freeHours, hoursToCompleteTheWork);
+        Schedule schedule = toSchedule(timeline, submissionDate, hoursToCompleteTheWork, distribution);
+        CalendarMetrics.OVERLOADED_DAYS.increment(schedule.getOverloadedDays().size());
+        CalendarMetrics.record(CalendarMetrics.COMPUTE_SCHEDULE, startedAt);
+        return schedule;
+    }
+
+    /**
+     * Builds the calendar view of a computed timeline.
+     *
+     * @param timeline The timeline with the hours to work set.
+     * @param submissionDate The submission date.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @param distribution The scheduled hours and the hours which do not fit.
+     * @return The schedule.
+     */
+    public Schedule toSchedule(ScheduleTimeline timeline, LocalDate submissionDate, int hoursToCompleteTheWork, WorkDistribution distribution){
+        return new Schedule(submissionDate, timeline.isWorkOnSunday(), hoursToCompleteTheWork, availableHoursToWork(timeline),
+                distribution.getScheduledHours(), distribution.getShortfallHours(),
+                timeline.toCalendarWithPlans(), toCalendarWithPlans(timeline, findOverloadedDays(timeline)));
+    }
+
+    /**
+     * Computes the schedule of several deliverables without printing anything.
+     * The calendar runs up to the last deadline; the deliverables share its free time.
+     *
+     * @param plans List of objects of InitialData.
+     * @param startDate The first date of the schedule.
+     * @param deliverables The deliverables, each with its own hours, deadline and priority.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @return The computed schedule with the plan of each deliverable.
+     */
+    public DeliverablesSchedule computeDeliverablesSchedule(List<InitialData> plans, LocalDate startDate,
+                                                            List<Deliverable> deliverables, boolean workOnSunday){
+        long startedAt = System.nanoTime();
+        LocalDate lastDeadline = lastDeadline(deliverables, startDate);
+        ScheduleTimeline timeline = buildTimeline(plans, startDate, lastDeadline, workOnSunday);
+        List<DeliverablePlan> deliverablePlans = scheduleDeliverables(timeline, deliverables);
+        double scheduledHours = 0;
+        double shortfallHours = 0;
+        List<String> infeasible = new ArrayList<>();
+        for (DeliverablePlan plan : deliverablePlans){
+            scheduledHours += plan.getScheduledHours();
+            shortfallHours += plan.getShortfallHours();
+            if (!plan.isFeasible()) {
+                infeasible.add(plan.getName());
             }
-            plannedHoursOfTheDay = sumEventsDurationInDay(currentDate, plans);
-            calendarWithPlans.add(new CalendarWithPlans(currentDate, plannedHoursOfTheDay, 0, currentDate.getDayOfWeek()));
-            allPlannedHours += plannedHoursOfTheDay;
-            currentDate = currentDate.plusDays(1);
         }
-        double availableHoursToWork = (HOURS_PER_DAY - SLEEPING_HOURS) * calendarWithPlans.size() - allPlannedHours;
-        showMessages.willFinnishTheWorkOntime(availableHoursToWork, hoursToCompleteTheWork, calendarWithPlans.size());
+        int[] overloadedDays = findOverloadedDays(timeline);
+        CalendarMetrics.OVERLOADED_DAYS.increment(overloadedDays.length);
+        CalendarMetrics.INFEASIBLE_DELIVERABLES.increment(infeasible.size());
+        DeliverablesSchedule schedule = new DeliverablesSchedule(lastDeadline, workOnSunday, availableHoursToWork(timeline),
+                scheduledHours, shortfallHours, timeline.toCalendarWithPlans(), toCalendarWithPlans(timeline, overloadedDays),
+                deliverablePlans, infeasible);
+        CalendarMetrics.record(CalendarMetrics.COMPUTE_SCHEDULE, startedAt);
+        return schedule;
+    }
 
-        return calendarWithPlans;
+    /**
+     * Sets the hours to work of each work day to the work of all deliverables, earliest deadline first.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param deliverables The deliverables, each with its own hours, deadline and priority.
+     * @return The plan of each deliverable, in the order of the deliverables.
+     */
+    public List<DeliverablePlan> scheduleDeliverables(ScheduleTimeline timeline, List<Deliverable> deliverables){
+        return deadlineScheduler.schedule(timeline, HOURS_PER_DAY - SLEEPING_HOURS, deliverables);
+    }
+
+    /**
+     * @param deliverables The deliverables.
+     * @param startDate The first date of the schedule, used when there are no deliverables.
+     * @return The latest deadline of the deliverables.
+     */
+    public static LocalDate lastDeadline(List<Deliverable> deliverables, LocalDate startDate){
+        LocalDate lastDeadline = startDate;
+        for (Deliverable deliverable : deliverables){
+            if (deliverable.getDeadline().isAfter(lastDeadline)) {
+                lastDeadline = deliverable.getDeadline();
+            }
+        }
+        return lastDeadline;
+    }
+
+    /**
+     * Builds a schedule which is updated event by event, for trying out changes of the calendar.
+     *
+     * @param events List of Event objects.
+     * @param zoneId The user's time zone, its midnights split the events into days.
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return The schedule with the events added and the work distributed.
+     */
+    public IncrementalSchedule incrementalSchedule(List<Event> events, ZoneId zoneId, LocalDate startDate, LocalDate submissionDate,
+                                                   boolean workOnSunday, int hoursToCompleteTheWork){
+        IncrementalSchedule schedule = new IncrementalSchedule(workDistributor, HOURS_PER_DAY - SLEEPING_HOURS, zoneId,
+                startDate, submissionDate, workOnSunday, hoursToCompleteTheWork);
+        schedule.addAll(events);
+        return schedule;
+    }
+
+    /**
+     * Builds the timeline with the plans without printing anything.
+     *
+     * @param plans List of objects of InitialData.
+     * @param startDate The first date of the calendar.
+     * @param submissionDate The submission date up to which the calendar should be generated.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @return The timeline with planned hours for each day.
+     */
+    public ScheduleTimeline buildTimeline(List<InitialData> plans, LocalDate startDate, LocalDate submissionDate, boolean workOnSunday){
+        return ScheduleTimeline.of(new PlansIndex(plans, startDate, submissionDate), workOnSunday);
+    }
+
+    /**
+     * Calculates how many hours are left for the work after sleeping and plans.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @return The total number of available hours to work.
+     */
+    public double availableHoursToWork(ScheduleTimeline timeline){
+        double allPlannedHours = 0;
+        for (int day = 0; day < timeline.size(); day++){
+            if (timeline.isWorkDay(day)) {
+                allPlannedHours += timeline.hoursPlanned(day);
+            }
+        }
+        return (HOURS_PER_DAY - SLEEPING_HOURS) * timeline.workDays() - allPlannedHours;
     }
 
     /**
@@ -52,65 +273,120 @@ public class CalendarCalculations {
      * @return The total duration of events for the given date.
      */
     public double sumEventsDurationInDay(LocalDate currentDate, List<InitialData> plans){
-        double busyHoursOfTheDay = 0;
-        for (InitialData plan : plans){
-            if(currentDate.isEqual(plan.getDate())){
-                busyHoursOfTheDay = busyHoursOfTheDay + plan.getDuration();
-            }
-        }
-        return (busyHoursOfTheDay > 0) ? busyHoursOfTheDay : 0;
+        return sumEventsDurationInDay(currentDate, new PlansIndex(plans, currentDate, currentDate));
     }
 
     /**
-     * Generates a work calendar based on the provided list of CalendarWithPlans
+     * Looks up the total duration of events for a given date in the index of plans.
+     *
+     * @param currentDate The date for which to calculate the total duration of events.
+     * @param plansIndex Daily totals of the plans.
+     * @return The total duration of events for the given date.
+     */
+    public double sumEventsDurationInDay(LocalDate currentDate, PlansIndex plansIndex){
+        return plansIndex.hoursPlanned(currentDate);
+    }
+
+    /**
+     * Generates a work calendar based on the provided timeline
      * and the total hours needed to complete the work.
      *
-     * @param calendarWithPlans The list representing the calendar with planned hours for each day.
+     * @param timeline The timeline with planned hours for each day.
      * @param hoursToCompleteTheWork The total number of hours needed to complete the work.
      */
-    public void generateWorkCalendar(List<CalendarWithPlans> calendarWithPlans, int hoursToCompleteTheWork){
-        int hoursToWorkInDay;
-        int calculatedWorkedHours = 0;
-        int hoursLeftToCompleteTheWork = hoursToCompleteTheWork;
-        int dailyWork;
-        for (int i = 0; i < calendarWithPlans.size(); i++){
-            hoursToWorkInDay = hoursLeftToCompleteTheWork / ((calendarWithPlans.size()-i)); // we will work by average hours per day
-            dailyWork = (int)(HOURS_PER_DAY - SLEEPING_HOURS - calendarWithPlans.get(i).getHoursPlanned()) - hoursToWorkInDay;
-            if (dailyWork < 0){
-                hoursToWorkInDay = (int)(HOURS_PER_DAY - SLEEPING_HOURS - calendarWithPlans.get(i).getHoursPlanned());
-            }
-            if (hoursToWorkInDay < 0){
-                hoursToWorkInDay = 0;
+    public void generateWorkCalendar(ScheduleTimeline timeline, int hoursToCompleteTheWork){
+        long startedAt = System.nanoTime();
+        WorkDistribution distribution = distributeWork(timeline, hoursToCompleteTheWork);
+        double workedHours = 0;
+        for (int day = 0; day < timeline.size(); day++){
+            if (!timeline.isWorkDay(day)) {
+                continue;
             }
-            calendarWithPlans.get(i).setHoursToWork(hoursToWorkInDay);
-            hoursLeftToCompleteTheWork -= hoursToWorkInDay;
-            calculatedWorkedHours += hoursToWorkInDay;
-            System.out.printf("Hours to work %s, workedHours %s, %s hours to complete the work \n",hoursToWorkInDay, calculatedWorkedHours, hoursLeftToCompleteTheWork);
-            if(calculatedWorkedHours >= hoursToCompleteTheWork) {
+            workedHours += timeline.hoursToWork(day);
+            System.out.printf("Hours to work %s, workedHours %s, %s hours to complete the work \n", timeline.hoursToWork(day), workedHours, hoursToCompleteTheWork - workedHours);
+            if (workedHours >= hoursToCompleteTheWork) {
                 break;
             }
         }
-        showMessages.showList(calendarWithPlans, "\nCalculated worked hours: " + calculatedWorkedHours);
+        if (distribution.getShortfallHours() > 0) {
+            System.out.println("\n" + distribution.getShortfallHours() + " hours of work do not fit in your free time!!");
+        }
+        showMessages.showList(timeline.toCalendarWithPlans(), "\nCalculated worked hours: " + distribution.getScheduledHours());
+        CalendarMetrics.record(CalendarMetrics.GENERATE_WORK_CALENDAR, startedAt);
+    }
+
+    /**
+     * Sets the hours to work of each work day without printing anything.
+     * The work is spread as evenly as the free time of the days allows.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param hoursToCompleteTheWork The total number of hours needed to complete the work.
+     * @return The scheduled hours and the hours which do not fit in the free time.
+     */
+    public WorkDistribution distributeWork(ScheduleTimeline timeline, int hoursToCompleteTheWork){
+        return workDistributor.distribute(timeline, HOURS_PER_DAY - SLEEPING_HOURS, hoursToCompleteTheWork);
     }
 
     /**
      * Checks if there is enough time to sleep and to finish plans in a day.
      *
-     * @param calendarWithPlans The list representing the calendar with planned hours for each day.
+     * @param timeline The timeline with planned hours for each day.
+     */
+    public void calculateWorkLoadSituation(ScheduleTimeline timeline){
+        int[] overloadedDays = findOverloadedDays(timeline);
+        CalendarMetrics.OVERLOADED_DAYS.increment(overloadedDays.length);
+        if (overloadedDays.length > 0){
+            showMessages.showList(toCalendarWithPlans(timeline, overloadedDays), "\nYour schedule has impossible situation!! You have "+ overloadedDays.length + " overloaded day(s):");
+        }
+    }
+
+    /**
+     * Checks the days as above and also reports the deliverables which do not fit before their deadlines.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param deliverablePlans The plans of the deliverables scheduled on the timeline.
      */
-    public void calculateWorkLoadSituation(List<CalendarWithPlans> calendarWithPlans){
-        List<CalendarWithPlans> workLoadCalendar = new ArrayList<>();
-        int workLoadSituations = 0;
-        for (CalendarWithPlans day : calendarWithPlans){
-            if ((HOURS_PER_DAY - SLEEPING_HOURS - day.getHoursPlanned()<0)){
-                workLoadSituations += 1;
-                workLoadCalendar.add(day);
+    public void calculateWorkLoadSituation(ScheduleTimeline timeline, List<DeliverablePlan> deliverablePlans){
+        calculateWorkLoadSituation(timeline);
+        int infeasible = 0;
+        for (DeliverablePlan plan : deliverablePlans){
+            if (!plan.isFeasible()) {
+                infeasible++;
+                System.out.printf("%s (due %s) misses its deadline by %s hours%n", plan.getName(), plan.getDeadline(), plan.getShortfallHours());
             }
         }
-        if (workLoadSituations > 0){
-            ShowMessages showMessages = new ShowMessages();
-            showMessages.showList(workLoadCalendar, "\nYour schedule has impossible situation!! You have "+ workLoadSituations + " overloaded day(s):");
+        CalendarMetrics.INFEASIBLE_DELIVERABLES.increment(infeasible);
+        if (infeasible > 0){
+            System.out.println("\nYour deliverables have impossible situation!! " + infeasible + " of " + deliverablePlans.size() + " deliverable(s) miss their deadline.");
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Finds the work days which leave not enough time to sleep and to finish plans.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @return The indexes of the overloaded days in the timeline.
+     */
+    public int[] findOverloadedDays(ScheduleTimeline timeline){
+        int[] overloadedDays = new int[16];
+        int count = 0;
+        for (int day = 0; day < timeline.size(); day++){
+            if (timeline.isWorkDay(day) && HOURS_PER_DAY - SLEEPING_HOURS - timeline.hoursPlanned(day) < 0){
+                if (count == overloadedDays.length) {
+                    overloadedDays = Arrays.copyOf(overloadedDays, count * 2);
+                }
+                overloadedDays[count++] = day;
+            }
+        }
+        return Arrays.copyOf(overloadedDays, count);
+    }
+
+    private static List<CalendarWithPlans> toCalendarWithPlans(ScheduleTimeline timeline, int[] days){
+        List<CalendarWithPlans> calendarWithPlans = new ArrayList<>(days.length);
+        for (int day : days){
+            calendarWithPlans.add(timeline.toCalendarWithPlans(day));
+        }
+        return calendarWithPlans;
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.example.calendar;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
+import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.store.DataStoreFactory;
+import com.google.api.client.util.store.FileDataStoreFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.CalendarScopes;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-lived Calendar API client shared by all callers.
+ * The transport, the client secrets and the authorized credential are created once, on first use,
+ * and the access token is refreshed in the background before it expires.
+ * The calendar service is safe to use from many threads at once.
+ */
+@Log4j2
+@Component
+public class CalendarClient implements DisposableBean {
+    /**
+     * Application name.
+     */
+    private static final String APPLICATION_NAME = "Google Calendar API Java Quickstart";
+    /**
+     * Global instance of the JSON factory.
+     */
+    public static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    /**
+     * Directory to store authorization tokens for this application.
+     */
+    private static final String TOKENS_DIRECTORY_PATH = "tokens";
+
+    /**
+     * Global instance of the scopes required by this quickstart.
+     * If modifying these scopes, delete your previously saved tokens/ folder.
+     */
+    private static final List<String> SCOPES =
+            Collections.singletonList(CalendarScopes.CALENDAR_READONLY);
+    /**
+     * The scopes of the write-back mode, which also creates, updates and deletes the work blocks.
+     * Its token is stored under its own user, so switching the mode does not reuse a read-only token.
+     */
+    private static final List<String> WRITE_SCOPES =
+            Collections.singletonList(CalendarScopes.CALENDAR);
+    private static final String CREDENTIALS_FILE_PATH = "/credentials.json";
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final Duration DEFAULT_TOKEN_REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    private final int maxConnections;
+    private final Duration tokenRefreshMargin;
+    private final boolean writeAccess;
+
+    private volatile Calendar service;
+    private HttpTransport transport;
+    private DataStoreFactory dataStoreFactory;
+    private Credential credential;
+    private ScheduledExecutorService tokenRefresher;
+    private Duration buildTime;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder callNanos = new LongAdder();
+    private final LongAccumulator maxCallNanos = new LongAccumulator(Long::max, 0);
+
+    public CalendarClient() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_TOKEN_REFRESH_MARGIN);
+    }
+
+    /**
+     * @param maxConnections The size of the connection pool.
+     * @param tokenRefreshMargin How long before its expiry the access token is refreshed.
+     */
+    public CalendarClient(int maxConnections, Duration tokenRefreshMargin) {
+        this(maxConnections, tokenRefreshMargin, false);
+    }
+
+    /**
+     * @param maxConnections The size of the connection pool.
+     * @param tokenRefreshMargin How long before its expiry the access token is refreshed.
+     * @param writeAccess Whether the user is asked for access to write events, needed by the write-back mode.
+     */
+    @Autowired
+    public CalendarClient(@Value("${calendar.client.max-connections:20}") int maxConnections,
+                          @Value("${calendar.client.token-refresh-margin:5m}") Duration tokenRefreshMargin,
+                          @Value("${calendar.write-back.enabled:false}") boolean writeAccess) {
+        this.maxConnections = maxConnections;
+        this.tokenRefreshMargin = tokenRefreshMargin;
+        this.writeAccess = writeAccess;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public Duration getTokenRefreshMargin() {
+        return tokenRefreshMargin;
+    }
+
+    /**
+     * Returns the authorized calendar service, building it on the first call.
+     *
+     * @return The calendar service.
+     * @throws IOException If the credentials.json file cannot be found or the authorization fails.
+     */
+    public Calendar getService() throws IOException {
+        Calendar calendar = service;
+        if (calendar == null) {
+            synchronized (this) {
+                calendar = service;
+                if (calendar == null) {
+                    calendar = build();
+                    service = calendar;
+                }
+            }
+        }
+        return calendar;
+    }
+
+    /**
+     * Returns the data store of the authorization tokens, which also keeps the synced events.
+     *
+     * @return The data store factory.
+     * @throws IOException If the tokens directory cannot be created.
+     */
+    public DataStoreFactory getDataStoreFactory() throws IOException {
+        getService();
+        return dataStoreFactory;
+    }
+
+    /**
+     * @return How long it took to build the service or null if it was not built yet.
+     */
+    public synchronized Duration getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * @return The number of HTTP calls answered by the calendar service.
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * @return The average latency of the HTTP calls.
+     */
+    public Duration getAverageCallLatency() {
+        long count = calls.sum();
+        return (count == 0) ? Duration.ZERO : Duration.ofNanos(callNanos.sum() / count);
+    }
+
+    /**
+     * @return The longest latency of the HTTP calls.
+     */
+    public Duration getMaxCallLatency() {
+        return Duration.ofNanos(maxCallNanos.get());
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (tokenRefresher != null) {
+            tokenRefresher.shutdownNow();
+        }
+        if (transport != null) {
+            transport.shutdown();
+        }
+    }
+
+    private Calendar build() throws IOException {
+        long startedAt = System.nanoTime();
+        transport = new ApacheHttpTransport(ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .build());
+        dataStoreFactory = new FileDataStoreFactory(new java.io.File(TOKENS_DIRECTORY_PATH));
+        long credentialsStartedAt = System.nanoTime();
+        credential = getCredentials();
+        CalendarMetrics.record(CalendarMetrics.CREDENTIALS_LOAD, credentialsStartedAt);
+        Calendar calendar = new Calendar.Builder(transport, JSON_FACTORY, this::initializeRequest)
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+
+        tokenRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calendar-token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tokenRefresher.scheduleWithFixedDelay(this::refreshTokenIfExpiring, 0, 1, TimeUnit.MINUTES);
+
+        buildTime = Duration.ofNanos(System.nanoTime() - startedAt);
+        log.info("Calendar client built in " + buildTime.toMillis() + " ms");
+        return calendar;
+    }
+
+    /**
+     * Creates an authorized Credential object.
+     *
+     * @return An authorized Credential object.
+     * @throws IOException If the credentials.json file cannot be found.
+     */
+    private Credential getCredentials() throws IOException {
+        // Load client secrets.
+        InputStream in = CalendarClient.class.getResourceAsStream(CREDENTIALS_FILE_PATH);
+        if (in == null) {
+            throw new FileNotFoundException("Resource not found: " + CREDENTIALS_FILE_PATH);
+        }
+        GoogleClientSecrets clientSecrets =
+                GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
+
+        // Build flow and trigger user authorization request.
+        GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
+                transport, JSON_FACTORY, clientSecrets, writeAccess ? WRITE_SCOPES : SCOPES)
+                .setDataStoreFactory(dataStoreFactory)
+                .setAccessType("offline")
+                .build();
+        LocalServerReceiver receiver = new LocalServerReceiver.Builder().setPort(8888).build();
+        //returns an authorized Credential object.
+        return new AuthorizationCodeInstalledApp(flow, receiver).authorize(writeAccess ? "user-write" : "user");
+    }
+
+    /**
+     * Authorizes the request, retries it when it is rate limited and measures the latency of the call.
+     */
+    private void initializeRequest(HttpRequest request) throws IOException {
+        credential.initialize(request);
+        RateLimitBackOff.install(request, RateLimitBackOff.DEFAULT_INITIAL_INTERVAL);
+        HttpExecuteInterceptor authorization = request.getInterceptor();
+        long[] sentAt = new long[1];
+        request.setInterceptor(httpRequest -> {
+            authorization.intercept(httpRequest);
+            sentAt[0] = System.nanoTime();
+        });
+        request.setResponseInterceptor(response -> {
+            long latency = System.nanoTime() - sentAt[0];
+            calls.increment();
+            callNanos.add(latency);
+            maxCallNanos.accumulate(latency);
+            if (response.getStatusCode() == HttpStatusCodes.STATUS_CODE_UNAUTHORIZED) {
+                // the credential refreshes the access token and the request is sent again
+                CalendarMetrics.apiRetry("unauthorized");
+            }
+        });
+    }
+
+    private void refreshTokenIfExpiring() {
+        Long expiresInSeconds = credential.getExpiresInSeconds();
+        if (expiresInSeconds == null || expiresInSeconds > tokenRefreshMargin.toSeconds()) {
+            return;
+        }
+        try {
+            if (credential.refreshToken()) {
+                log.info("Access token refreshed, it expires in " + credential.getExpiresInSeconds() + " s");
+            }
+        } catch (IOException e) {
+            log.warn("Access token refresh failed, it will be retried: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.SyncedEvents;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.store.DataStore;
+import com.google.api.client.util.store.DataStoreFactory;
+
+import java.io.IOException;
+
+/**
+ * Persists the synced events of each calendar in the same data store as the authorization tokens.
+ */
+public class CalendarEventStore {
+    private static final String DATA_STORE_ID = "CalendarEvents";
+
+    private final DataStore<String> dataStore;
+    private final JsonFactory jsonFactory;
+
+    public CalendarEventStore(DataStoreFactory dataStoreFactory, JsonFactory jsonFactory) throws IOException {
+        this.dataStore = dataStoreFactory.getDataStore(DATA_STORE_ID);
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Loads the stored events of a calendar.
+     *
+     * @param calendarId The calendar ID.
+     * @return Stored events or null if the calendar was never synced.
+     * @throws IOException If the data store cannot be read.
+     */
+    public SyncedEvents load(String calendarId) throws IOException {
+        String json = dataStore.get(calendarId);
+        return (json == null) ? null : jsonFactory.fromString(json, SyncedEvents.class);
+    }
+
+    /**
+     * Replaces the stored events of a calendar.
+     *
+     * @param calendarId The calendar ID.
+     * @param syncedEvents Events and the next sync token.
+     * @throws IOException If the data store cannot be written.
+     */
+    public void save(String calendarId, SyncedEvents syncedEvents) throws IOException {
+        dataStore.set(calendarId, jsonFactory.toString(syncedEvents));
+    }
+
+    /**
+     * Removes the stored events of a calendar, so the next sync is a full one.
+     *
+     * @param calendarId The calendar ID.
+     * @throws IOException If the data store cannot be written.
+     */
+    public void clear(String calendarId) throws IOException {
+        dataStore.delete(calendarId);
+    }
+}
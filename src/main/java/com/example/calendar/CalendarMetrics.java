@@ -0,0 +1,80 @@
+package com.example.calendar;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the phases of a schedule: authorization, fetching, converting and calculating.
+ * The meters live in Micrometer's global registry. Spring Boot adds its Prometheus registry to it,
+ * so they are served at /actuator/prometheus; without a registry (batch mode, benchmarks) recording does nothing.
+ * Recording a phase costs two System.nanoTime() calls and a lock-free update, cheap enough to stay on in production.
+ */
+public final class CalendarMetrics {
+    public static final Timer CREDENTIALS_LOAD = Timer.builder("calendar.credentials.load")
+            .description("Loading the client secrets and authorizing the user")
+            .register(Metrics.globalRegistry);
+    public static final Timer PAGE_FETCH = Timer.builder("calendar.api.page")
+            .description("Fetching one page of events from the Calendar API")
+            .register(Metrics.globalRegistry);
+    public static final Timer MAKE_PLANS = Timer.builder("calendar.plans.make")
+            .description("Converting events to the busy hours of each day")
+            .register(Metrics.globalRegistry);
+    public static final Timer GENERATE_CALENDAR = Timer.builder("schedule.calendar.generate")
+            .description("Building the calendar with plans")
+            .register(Metrics.globalRegistry);
+    public static final Timer GENERATE_WORK_CALENDAR = Timer.builder("schedule.work.generate")
+            .description("Distributing the work and printing the work calendar")
+            .register(Metrics.globalRegistry);
+    public static final Timer COMPUTE_SCHEDULE = Timer.builder("schedule.compute")
+            .description("Computing a schedule without printing it")
+            .register(Metrics.globalRegistry);
+    public static final Timer BATCH_WRITE = Timer.builder("calendar.api.batch")
+            .description("Sending one batch of work block changes to the Calendar API")
+            .register(Metrics.globalRegistry);
+    public static final Timer FREE_BUSY_QUERY = Timer.builder("calendar.api.freebusy")
+            .description("Querying the busy time of the calendars from the Calendar API")
+            .register(Metrics.globalRegistry);
+    public static final Counter EVENTS_PROCESSED = Counter.builder("calendar.events.processed")
+            .description("Events converted to plans")
+            .register(Metrics.globalRegistry);
+    public static final Counter OVERLOADED_DAYS = Counter.builder("schedule.overloaded.days")
+            .description("Overloaded days found in computed schedules")
+            .register(Metrics.globalRegistry);
+    public static final Counter INFEASIBLE_DELIVERABLES = Counter.builder("schedule.deliverables.infeasible")
+            .description("Deliverables which do not fit before their deadlines")
+            .register(Metrics.globalRegistry);
+
+    private CalendarMetrics() {
+    }
+
+    /**
+     * Records the time since the start of a phase.
+     *
+     * @param timer The timer of the phase.
+     * @param startedAt The System.nanoTime() at the start of the phase.
+     */
+    public static void record(Timer timer, long startedAt) {
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a failed call to the Calendar API.
+     *
+     * @param status The HTTP status code or the kind of the failure, e.g. "io" or "timeout".
+     */
+    public static void apiError(String status) {
+        Metrics.counter("calendar.api.errors", "status", status).increment();
+    }
+
+    /**
+     * Counts a call to the Calendar API which is repeated.
+     *
+     * @param reason Why the call is repeated, e.g. "unauthorized" or "sync-token-expired".
+     */
+    public static void apiRetry(String reason) {
+        Metrics.counter("calendar.api.retries", "reason", reason).increment();
+    }
+}
@@ -1,91 +1,77 @@
 package com.example.calendar;
 
 import com.example.calendar.dto.InitialData;
-import com.google.api.client.auth.oauth2.Credential;
-import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
-import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
-import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
-import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.DateTime;
-import com.google.api.client.util.store.FileDataStoreFactory;
-import com.google.api.services.calendar.Calendar;
-import com.google.api.services.calendar.CalendarScopes;
 import com.google.api.services.calendar.model.Event;
-import com.google.api.services.calendar.model.Events;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.security.GeneralSecurityException;
 import java.time.Duration;
 
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 @Log4j2
+@Component
 public class CollectCalendarData {
 
-    private final static ArrayList<InitialData> plans = new ArrayList<>();
-
     /**
-     * Application name.
+     * Primary, account or calendar name as en.lithuanian#holiday@group.v.calendar.google.com
      */
-    private static final String APPLICATION_NAME = "Google Calendar API Java Quickstart";
+    public static final String PRIMARY_CALENDAR = "primary";
+
+    private final EventSource eventSource;
+    private final ZoneId zoneId;
+    private final boolean expandRecurrence;
+
+    public CollectCalendarData() {
+        this(new GoogleEventSource(new CalendarClient(), new PagedEventFetcher(), List.of(PRIMARY_CALENDAR),
+                new MultiCalendarFetcher(4, Duration.ofSeconds(30))), ZoneId.systemDefault());
+    }
+
     /**
-     * Global instance of the JSON factory.
+     * @param eventSource Where the events come from, see calendar.source.
+     * @param timeZone The user's time zone, the system one when empty.
+     * @param expandRecurrence Whether the event source fetches recurring events once, so {@link #collectPlans(LocalDate)}
+     *                         keeps them until the last page and expands them.
      */
-    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    @Autowired
+    public CollectCalendarData(EventSource eventSource,
+                               @Value("${calendar.time-zone:}") String timeZone,
+                               @Value("${calendar.fetch.expand-recurrence:false}") boolean expandRecurrence) {
+        this(eventSource, timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone), expandRecurrence);
+    }
+
     /**
-     * Directory to store authorization tokens for this application.
+     * @param eventSource Where the events come from: the Google Calendar API, a snapshot or the fake server.
+     * @param zoneId The user's time zone, its midnights split the events into days.
      */
-    private static final String TOKENS_DIRECTORY_PATH = "tokens";
+    public CollectCalendarData(EventSource eventSource, ZoneId zoneId) {
+        this(eventSource, zoneId, false);
+    }
 
     /**
-     * Global instance of the scopes required by this quickstart.
-     * If modifying these scopes, delete your previously saved tokens/ folder.
+     * @param eventSource Where the events come from: the Google Calendar API, a snapshot or the fake server.
+     * @param zoneId The user's time zone, its midnights split the events into days.
+     * @param expandRecurrence Whether the event source fetches recurring events once, so {@link #collectPlans(LocalDate)}
+     *                         keeps them until the last page and expands them.
      */
-    private static final List<String> SCOPES =
-            Collections.singletonList(CalendarScopes.CALENDAR_READONLY);
-    private static final String CREDENTIALS_FILE_PATH = "/credentials.json";
+    public CollectCalendarData(EventSource eventSource, ZoneId zoneId, boolean expandRecurrence) {
+        this.eventSource = eventSource;
+        this.zoneId = zoneId;
+        this.expandRecurrence = expandRecurrence;
+    }
 
     /**
-     * Creates an authorized Credential object.
-     *
-     * @param HTTP_TRANSPORT The network HTTP Transport.
-     * @return An authorized Credential object.
-     * @throws IOException If the credentials.json file cannot be found.
-     */
-    private static Credential getCredentials(final NetHttpTransport HTTP_TRANSPORT)
-            throws IOException {
-        // Load client secrets.
-        InputStream in = CollectCalendarData.class.getResourceAsStream(CREDENTIALS_FILE_PATH);
-        if (in == null) {
-            throw new FileNotFoundException("Resource not found: " + CREDENTIALS_FILE_PATH);
-        }
-        GoogleClientSecrets clientSecrets =
-                GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
-
-        // Build flow and trigger user authorization request.
-        GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
-                HTTP_TRANSPORT, JSON_FACTORY, clientSecrets, SCOPES)
-                .setDataStoreFactory(new FileDataStoreFactory(new java.io.File(TOKENS_DIRECTORY_PATH)))
-                .setAccessType("offline")
-                .build();
-        LocalServerReceiver receiver = new LocalServerReceiver.Builder().setPort(8888).build();
-        Credential credential = new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
-        //returns an authorized Credential object.
-        return credential;
+     * @return The user's time zone, its midnights split the events into days.
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
     }
 
     /**
@@ -94,26 +80,97 @@ public class CollectCalendarData {
      * @param dateOfSubmission The date by which the data will be collected
      * @return  List of Event objects
      * @throws IOException If an error occurs while communicating with the calendar service.
-     * @throws GeneralSecurityException If there is a security-related issue with the calendar service.
      */
-    public List<Event> getDataFromCalendar(LocalDate dateOfSubmission) throws IOException, GeneralSecurityException {
-        // Build a new authorized API client service.
-        final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
+    public List<Event> getDataFromCalendar(LocalDate dateOfSubmission) throws IOException {
+        List<Event> events = syncEvents(dateOfSubmission);
+
+        printEvents(events);
 
-        Calendar service = new Calendar.Builder(HTTP_TRANSPORT, JSON_FACTORY, getCredentials(HTTP_TRANSPORT))
-                .setApplicationName(APPLICATION_NAME)
-                .build();
+        return events;
+    }
+
+    /**
+     * Collects data from the event source without printing it.
+     *
+     * @param dateOfSubmission The date by which the data will be collected
+     * @return  List of Event objects ordered by the start time
+     * @throws IOException If the events cannot be fetched.
+     */
+    public List<Event> syncEvents(LocalDate dateOfSubmission) throws IOException {
+        DateTime timeMin = new DateTime(System.currentTimeMillis());
+        return eventSource.fetchEvents(timeMin, timeMax(dateOfSubmission));
+    }
+
+    /**
+     * Collects the busy time from now up to the submission date into a bitmap of slots;
+     * the Google Calendar API answers it with FreeBusy queries instead of the events.
+     *
+     * @param dateOfSubmission The date by which the busy time will be collected
+     * @param slot The length of a slot, e.g. 15 minutes.
+     * @return The bitmap of the days from today to the submission date.
+     * @throws IOException If the busy time cannot be collected.
+     */
+    public SlotBitmap collectBusySlots(LocalDate dateOfSubmission, Duration slot) throws IOException {
+        long now = System.currentTimeMillis();
+        SlotBitmap bitmap = new SlotBitmap(LocalDate.now(zoneId), dateOfSubmission, slot, zoneId);
+        eventSource.collectBusyTime(new DateTime(now), timeMax(dateOfSubmission), bitmap);
+        return bitmap;
+    }
+
+    /**
+     * The data is collected up to the start of the submission date in the user's time zone.
+     */
+    private DateTime timeMax(LocalDate dateOfSubmission) {
+        return new DateTime(EventTimeConverter.of(zoneId).startOfDay(dateOfSubmission.toEpochDay()));
+    }
+
+    /**
+     * Collects plans from the event source page by page.
+     * A source which pages a server converts each page while the next one is downloaded, so only about one page
+     * of events and the busy intervals of the previous pages are held in memory; the Google Calendar API source
+     * hands over the events of its local store instead, synced with the stored sync tokens.
+     * With calendar.fetch.expand-recurrence each recurring event comes once and its instances are expanded
+     * straight into the busy intervals; only the recurring events and their exceptions are kept until the last page.
+     *
+     * @param dateOfSubmission The date by which the data will be collected
+     * @return The list of InitialData objects, one per busy day.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public List<InitialData> collectPlans(LocalDate dateOfSubmission) throws IOException {
+        return collectPlans(dateOfSubmission, page -> { });
+    }
 
-        Events events = service.events().list("primary") // primary, account or calendar name as en.lithuanian#holiday@group.v.calendar.google.com
-                .setTimeMin(new DateTime(System.currentTimeMillis()))
-                .setTimeMax(new DateTime(java.sql.Date.valueOf(dateOfSubmission)))
-                .setOrderBy("startTime")
-                .setSingleEvents(true)
-                .execute();
+    /**
+     * Collects plans from the event source page by page, showing each page to a listener before it is converted,
+     * e.g. to print or record the events.
+     *
+     * @param dateOfSubmission The date by which the data will be collected
+     * @param pageListener Receives the events of each page; it must not keep them unless it needs all of them.
+     * @return The list of InitialData objects, one per busy day.
+     * @throws IOException If an error occurs while communicating with the calendar service or in the listener.
+     */
+    public List<InitialData> collectPlans(LocalDate dateOfSubmission, PagedEventFetcher.PageConsumer pageListener) throws IOException {
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId);
+        DateTime timeMin = new DateTime(System.currentTimeMillis());
+        DateTime timeMax = timeMax(dateOfSubmission);
+        List<Event> recurringEvents = new ArrayList<>();
 
-        printEvents(events.getItems());
+        eventSource.streamEvents(timeMin, timeMax,
+                page -> {
+                    pageListener.accept(page);
+                    for (Event event : page) {
+                        if (expandRecurrence && (RecurrenceExpander.isRecurring(event) || RecurrenceExpander.isException(event))) {
+                            recurringEvents.add(event);
+                        } else {
+                            busyTime.add(event);
+                        }
+                    }
+                    CalendarMetrics.EVENTS_PROCESSED.increment(page.size());
+                });
+        busyTime.addAll(recurringEvents, timeMin.getValue(), timeMax.getValue());
+        log.info("\nThere are " + busyTime.size() + " busy events");
 
-        return events.getItems();
+        return busyTime.busyDays();
     }
 
     /**
@@ -124,28 +181,17 @@ public class CollectCalendarData {
      * @return Duration in hours - double value.
      */
     public static double calculateDuration(DateTime eventStart, DateTime eventEnd){
-        double durationInHours;
-        double durationInMinutes;
-        Duration duration = Duration.between(
-                Instant.ofEpochMilli(eventStart.getValue()),
-                Instant.ofEpochMilli(eventEnd.getValue())
-        );
-        durationInMinutes = duration.toMinutes();
-        durationInHours = durationInMinutes/60;
-        return durationInHours;
+        return EventTimeConverter.hoursBetween(eventStart.getValue(), eventEnd.getValue());
     }
 
     /**
-     * DateTime value converts to LocalDate value.
+     * DateTime value converts to LocalDate value, the date in the DateTime's own offset.
      *
-     * @param dateTime DateTime value.
+     * @param dateTime DateTime value, a date-only value is its date.
      * @return LocalDate value.
      */
     public static LocalDate getJustDateFromDateTIme(DateTime dateTime){
-        String dataString = dateTime.toString();
-        OffsetDateTime offsetDateTime = OffsetDateTime.parse(dataString);
-        LocalDateTime localDateTime = offsetDateTime.toLocalDateTime();
-        return localDateTime.toLocalDate();
+        return LocalDate.ofEpochDay(EventTimeConverter.epochDayOf(dateTime));
     }
 
     /**
@@ -159,38 +205,93 @@ public class CollectCalendarData {
         } else {
             System.out.println("\nUpcoming events:");
             for (Event event : events) {
-                DateTime eventStart = event.getStart().getDateTime();
-                DateTime eventEnd = event.getEnd().getDateTime();
-                if (eventStart == null) {
-                    eventStart = event.getStart().getDate();
-                }
-                System.out.printf("%s (%s - %s) %5s\n", event.getSummary(), eventStart, eventEnd, calculateDuration(eventStart, eventEnd));
+                printEvent(event);
             }
         }
     }
 
     /**
-     * Generates a list of InitialData objects - adds start and end DateTime.
+     * Prints an event with its start, end and duration; a cancelled instance of a recurring event, without a start, is skipped.
+     *
+     * @param event Event object
+     */
+    public void printEvent(Event event){
+        if (event.getStart() == null) {
+            return;
+        }
+        DateTime eventStart = event.getStart().getDateTime();
+        DateTime eventEnd = event.getEnd().getDateTime();
+        if (eventStart == null) {
+            eventStart = event.getStart().getDate();
+            eventEnd = event.getEnd().getDate();
+        }
+        System.out.printf("%s (%s - %s) %5s\n", event.getSummary(), eventStart, eventEnd, calculateDuration(eventStart, eventEnd));
+    }
+
+    /**
+     * Generates a list of InitialData objects with the busy hours of each day.
+     * Overlapping events are counted once and events spanning midnight are split between the days.
+     * Recurring events are expanded without limits, so events fetched with calendar.fetch.expand-recurrence
+     * belong to {@link #makePlans(List, LocalDate)}.
      *
      * @param events List of Event objects.
-     * @return The list of InitialData objects.
+     * @return The list of InitialData objects, one per busy day.
      */
     public ArrayList<InitialData> makePlans(List<Event> events){
+        return makePlans(events, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Generates a list of InitialData objects with the busy hours of each day, from now up to the submission date.
+     * Recurring events, as fetched with calendar.fetch.expand-recurrence, are expanded within that range.
+     *
+     * @param events List of Event objects.
+     * @param dateOfSubmission The date by which the data was collected.
+     * @return The list of InitialData objects, one per busy day.
+     */
+    public ArrayList<InitialData> makePlans(List<Event> events, LocalDate dateOfSubmission){
+        return makePlans(events, System.currentTimeMillis(), timeMax(dateOfSubmission).getValue());
+    }
+
+    private ArrayList<InitialData> makePlans(List<Event> events, long windowStart, long windowEnd){
+        ArrayList<InitialData> plans = new ArrayList<>(events.size());
         if (events.isEmpty()) {
             log.info("\nNo upcoming events found.");
         } else {
             log.info("\nThere are " + events.size() + " events");
-            for (Event event : events) {
-                DateTime eventStart = event.getStart().getDateTime();
-                DateTime eventEnd = event.getEnd().getDateTime();
-                if (eventStart == null) {
-                    eventStart = event.getStart().getDate();
-                }
-                plans.add(new InitialData(event.getSummary(), getJustDateFromDateTIme(eventStart), calculateDuration(eventStart, eventEnd)));
-            }
+            addPlans(events, plans, windowStart, windowEnd);
         }
         return plans;
     }
+
+    /**
+     * Converts events to the busy hours of each day and adds them to the plans.
+     * Free (transparent) and cancelled events are skipped.
+     *
+     * @param events List of Event objects.
+     * @param plans The list the InitialData objects are added to.
+     */
+    public void addPlans(List<Event> events, List<InitialData> plans){
+        addPlans(events, plans, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Converts events to the busy hours of each day and adds them to the plans.
+     * The instances of recurring events are expanded within the window, their cancelled instances are skipped.
+     *
+     * @param events List of Event objects.
+     * @param plans The list the InitialData objects are added to.
+     * @param windowStart The start of the window in epoch milliseconds.
+     * @param windowEnd The end of the window in epoch milliseconds, exclusive.
+     */
+    public void addPlans(List<Event> events, List<InitialData> plans, long windowStart, long windowEnd){
+        long startedAt = System.nanoTime();
+        BusyTimeSweep busyTime = new BusyTimeSweep(zoneId, events.size());
+        busyTime.addAll(events, windowStart, windowEnd);
+        plans.addAll(busyTime.busyDays());
+        CalendarMetrics.EVENTS_PROCESSED.increment(events.size());
+        CalendarMetrics.record(CalendarMetrics.MAKE_PLANS, startedAt);
+    }
 }
 
 //        A list of all calendars
@@ -0,0 +1,291 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablePlan;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules several deliverables with their own deadlines over the shared free time of a timeline.
+ * <p>
+ * First the deliverables are admitted in the order of their deadlines: whenever the admitted work released in a window
+ * and due by its end exceeds the free time of the window, the least important deliverable of the window is set aside,
+ * the largest one among equals.
+ * Then the free time is handed out day by day, earliest deadline first, to the admitted deliverables which may start.
+ * Finally the deliverables set aside get the free time left, in the same order, to make as much progress as possible.
+ * Earliest deadline first finishes every deliverable in time whenever any schedule does, so the deliverables
+ * reported infeasible are the ones which cannot all fit. A schedule costs O(D + N^2) for D days and N deliverables.
+ * <p>
+ * The work is front-loaded: each day is filled up to its free time before the next one is used.
+ */
+public class DeadlineScheduler {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    /**
+     * Orders the deliverables from the least important, the largest and latest one among equals.
+     */
+    private static final Comparator<Task> LEAST_IMPORTANT = Comparator.comparingInt((Task task) -> task.priority)
+            .thenComparingInt(task -> -task.demand)
+            .thenComparingInt(task -> -task.deadline);
+
+    private final int granularityMinutes;
+    private final double maxDailyHours;
+
+    /**
+     * Schedules whole hours with no daily limit.
+     */
+    public DeadlineScheduler() {
+        this(Duration.ofHours(1), 24);
+    }
+
+    /**
+     * @param granularity The smallest slot of work, e.g. 15, 30 or 60 minutes; a day must be a multiple of it.
+     * @param maxDailyHours The most hours worked on one day, for all deliverables together.
+     */
+    public DeadlineScheduler(Duration granularity, double maxDailyHours) {
+        long minutes = granularity.toMinutes();
+        if (minutes <= 0 || MINUTES_PER_DAY % minutes != 0) {
+            throw new IllegalArgumentException("Granularity must divide a day into whole minutes: " + granularity);
+        }
+        if (maxDailyHours < 0) {
+            throw new IllegalArgumentException("maxDailyHours must not be negative: " + maxDailyHours);
+        }
+        this.granularityMinutes = (int) minutes;
+        this.maxDailyHours = maxDailyHours;
+    }
+
+    /**
+     * Sets the hours to work of each day of the timeline to the work of all deliverables on that day.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param freeHoursPerDay The hours of a day which are not spent sleeping.
+     * @param deliverables The deliverables; a deadline after the timeline counts as its last day.
+     * @return The plan of each deliverable, in the order of the deliverables.
+     */
+    public List<DeliverablePlan> schedule(ScheduleTimeline timeline, double freeHoursPerDay, List<Deliverable> deliverables) {
+        double slotsPerHour = 60d / granularityMinutes;
+        int days = timeline.size();
+        int[] capacity = new int[days];
+        long[] capacityBefore = new long[days + 1];
+        for (int day = 0; day < days; day++) {
+            if (timeline.isWorkDay(day)) {
+                double freeHours = Math.max(0, Math.min(maxDailyHours, freeHoursPerDay - timeline.hoursPlanned(day)));
+                capacity[day] = (int) Math.floor(freeHours * slotsPerHour + 1e-9);
+            }
+            capacityBefore[day + 1] = capacityBefore[day] + capacity[day];
+        }
+
+        Task[] tasks = new Task[deliverables.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            Deliverable deliverable = deliverables.get(i);
+            long deadline = deliverable.getDeadline().toEpochDay() - timeline.getFirstEpochDay();
+            long release = (deliverable.getEarliestStart() == null) ? 0 : deliverable.getEarliestStart().toEpochDay() - timeline.getFirstEpochDay();
+            tasks[i] = new Task(i, (int) Math.max(-1, Math.min(days - 1, deadline)), (int) Math.max(0, Math.min(days, release)),
+                    deliverable.getPriority(), (int) Math.max(0, Math.ceil(deliverable.getHours() * slotsPerHour - 1e-9)));
+        }
+
+        List<Task> setAside = admit(tasks, capacityBefore);
+        Allocations allocations = new Allocations();
+        List<Task> admitted = new ArrayList<>(tasks.length);
+        for (Task task : tasks) {
+            if (!task.setAside) {
+                admitted.add(task);
+            }
+        }
+        allocate(admitted, capacity, allocations);
+        allocate(setAside, capacity, allocations);
+
+        int[] slotsOfDay = new int[days];
+        List<Map<LocalDate, Double>> hoursByDate = new ArrayList<>(tasks.length);
+        for (int i = 0; i < tasks.length; i++) {
+            hoursByDate.add(new LinkedHashMap<>());
+        }
+        for (int i = 0; i < allocations.size; i++) {
+            int day = allocations.days[i];
+            slotsOfDay[day] += allocations.slots[i];
+            hoursByDate.get(allocations.tasks[i]).merge(timeline.date(day), allocations.slots[i] / slotsPerHour, Double::sum);
+        }
+        for (int day = 0; day < days; day++) {
+            timeline.setHoursToWork(day, slotsOfDay[day] / slotsPerHour);
+        }
+
+        List<DeliverablePlan> plans = new ArrayList<>(tasks.length);
+        for (Task task : tasks) {
+            Deliverable deliverable = deliverables.get(task.index);
+            boolean feasible = task.remaining == 0 && task.lastDay <= task.deadline;
+            plans.add(new DeliverablePlan(deliverable.getName(), deliverable.getDeadline(), deliverable.getPriority(),
+                    (task.demand - task.remaining) / slotsPerHour,
+                    feasible ? 0 : (task.remaining + task.slotsAfterDeadline) / slotsPerHour,
+                    (task.remaining == 0 && task.lastDay >= 0) ? timeline.date(task.lastDay) : null,
+                    feasible, hoursByDate.get(task.index)));
+        }
+        return plans;
+    }
+
+    /**
+     * Sets aside the least important deliverables until the work released in each window and due by its end
+     * fits in the free time of the window. Adding a deliverable only loads the windows ending at its deadline,
+     * from each release of the admitted deliverables.
+     */
+    private static List<Task> admit(Task[] tasks, long[] capacityBefore) {
+        Task[] byDeadline = tasks.clone();
+        Arrays.sort(byDeadline, Comparator.comparingInt((Task task) -> task.deadline).thenComparingInt(task -> -task.priority));
+        // latest release first
+        List<Task> admitted = new ArrayList<>(tasks.length);
+        List<Task> setAside = new ArrayList<>();
+        for (Task task : byDeadline) {
+            if (task.deadline < task.release
+                    || task.demand > capacityBefore[task.deadline + 1] - capacityBefore[task.release]) {
+                // due before it may start, before the timeline or too large for the time in between
+                task.setAside = true;
+                setAside.add(task);
+                continue;
+            }
+            int position = 0;
+            while (position < admitted.size() && admitted.get(position).release >= task.release) {
+                position++;
+            }
+            admitted.add(position, task);
+            int released;
+            while ((released = overloadedWindow(admitted, task.deadline, capacityBefore)) > 0) {
+                Task dropped = Collections.min(admitted.subList(0, released), LEAST_IMPORTANT);
+                admitted.remove(dropped);
+                dropped.setAside = true;
+                setAside.add(dropped);
+            }
+        }
+        return setAside;
+    }
+
+    /**
+     * Finds the shortest window ending at the deadline whose admitted work exceeds its free time.
+     *
+     * @param admitted The admitted deliverables, all due by the deadline, latest release first.
+     * @return The number of admitted deliverables released in the window, 0 if every window fits.
+     */
+    private static int overloadedWindow(List<Task> admitted, int deadline, long[] capacityBefore) {
+        long demand = 0;
+        for (int i = 0; i < admitted.size(); i++) {
+            Task task = admitted.get(i);
+            demand += task.demand;
+            boolean lastOfRelease = i + 1 == admitted.size() || admitted.get(i + 1).release < task.release;
+            if (lastOfRelease && demand > capacityBefore[deadline + 1] - capacityBefore[task.release]) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Hands out the free time day by day to the released deliverable with the earliest deadline.
+     * Deliverables past their deadline only get work when nothing else is due.
+     */
+    private static void allocate(List<Task> tasks, int[] capacity, Allocations allocations) {
+        Task[] byRelease = tasks.toArray(new Task[0]);
+        Arrays.sort(byRelease, Comparator.comparingInt(task -> task.release));
+        PriorityQueue<Task> ready = new PriorityQueue<>(Comparator.comparingInt((Task task) -> task.deadline)
+                .thenComparingInt(task -> -task.priority)
+                .thenComparingInt(task -> task.index));
+        List<Task> late = new ArrayList<>();
+        int next = 0;
+        for (int day = 0; day < capacity.length; day++) {
+            if (ready.isEmpty() && late.isEmpty()) {
+                if (next == byRelease.length) {
+                    break;
+                }
+                day = Math.max(day, byRelease[next].release);
+                if (day >= capacity.length) {
+                    break;
+                }
+            }
+            while (next < byRelease.length && byRelease[next].release <= day) {
+                if (byRelease[next].remaining > 0) {
+                    ready.add(byRelease[next]);
+                }
+                next++;
+            }
+            while (capacity[day] > 0 && !ready.isEmpty()) {
+                Task task = ready.peek();
+                if (task.deadline < day) {
+                    // missed, it waits until the work due later is done
+                    late.add(ready.poll());
+                    continue;
+                }
+                give(task, day, capacity, allocations);
+                if (task.remaining == 0) {
+                    ready.poll();
+                }
+            }
+            for (int i = 0; i < late.size() && capacity[day] > 0; i++) {
+                Task task = late.get(i);
+                give(task, day, capacity, allocations);
+                task.slotsAfterDeadline += task.lastSlots;
+            }
+            late.removeIf(task -> task.remaining == 0);
+        }
+    }
+
+    private static void give(Task task, int day, int[] capacity, Allocations allocations) {
+        int slots = Math.min(task.remaining, capacity[day]);
+        if (slots == 0) {
+            return;
+        }
+        capacity[day] -= slots;
+        task.remaining -= slots;
+        task.lastDay = day;
+        task.lastSlots = slots;
+        allocations.add(task.index, day, slots);
+    }
+
+    private static final class Task {
+        private final int index;
+        private final int deadline;
+        private final int release;
+        private final int priority;
+        private final int demand;
+        private int remaining;
+        private int lastDay = -1;
+        private int lastSlots;
+        private int slotsAfterDeadline;
+        private boolean setAside;
+
+        private Task(int index, int deadline, int release, int priority, int demand) {
+            this.index = index;
+            this.deadline = deadline;
+            this.release = release;
+            this.priority = priority;
+            this.demand = demand;
+            this.remaining = demand;
+        }
+    }
+
+    /**
+     * The slots given to the deliverables, one entry per deliverable and day, in primitive arrays.
+     */
+    private static final class Allocations {
+        private int[] tasks = new int[64];
+        private int[] days = new int[64];
+        private int[] slots = new int[64];
+        private int size;
+
+        private void add(int task, int day, int slotCount) {
+            if (size == tasks.length) {
+                tasks = Arrays.copyOf(tasks, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            tasks[size] = task;
+            days[size] = day;
+            slots[size] = slotCount;
+            size++;
+        }
+    }
+}
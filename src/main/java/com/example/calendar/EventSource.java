@@ -0,0 +1,51 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where the events of the user's calendars come from: the Google Calendar API, a recorded snapshot
+ * or the embedded fake Calendar server. It is chosen by calendar.source, see {@link EventSourceConfiguration}.
+ */
+public interface EventSource {
+
+    /**
+     * Fetches the events of the user's calendars.
+     *
+     * @param timeMin The start of the range.
+     * @param timeMax The end of the range.
+     * @return The events which end after timeMin and start before timeMax, ordered by the start time.
+     * @throws IOException If the events cannot be fetched.
+     */
+    List<Event> fetchEvents(DateTime timeMin, DateTime timeMax) throws IOException;
+
+    /**
+     * Hands the events of the user's calendars to a consumer page by page, without collecting them.
+     * By default all events are fetched and handed over as one page; sources which read pages from a server
+     * pass each page on as it arrives, so only about two pages of events are held in memory.
+     *
+     * @param timeMin The start of the range.
+     * @param timeMax The end of the range.
+     * @param pageConsumer Receives the events of each page.
+     * @throws IOException If the events cannot be fetched or the consumer fails.
+     */
+    default void streamEvents(DateTime timeMin, DateTime timeMax, PagedEventFetcher.PageConsumer pageConsumer) throws IOException {
+        pageConsumer.accept(fetchEvents(timeMin, timeMax));
+    }
+
+    /**
+     * Marks the busy time of the user's calendars in a bitmap of slots.
+     * By default the events are fetched and their intervals marked; sources which can ask for the busy time alone do so.
+     *
+     * @param timeMin The start of the range.
+     * @param timeMax The end of the range.
+     * @param bitmap Receives the busy intervals.
+     * @throws IOException If the busy time cannot be fetched.
+     */
+    default void collectBusyTime(DateTime timeMin, DateTime timeMax, SlotBitmap bitmap) throws IOException {
+        bitmap.markBusy(fetchEvents(timeMin, timeMax));
+    }
+}
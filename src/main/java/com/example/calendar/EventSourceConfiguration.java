@@ -0,0 +1,59 @@
+package com.example.calendar;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Chooses where the events come from with calendar.source:
+ * "google" (the default) asks the Google Calendar API, "snapshot" replays the recorded calendar
+ * calendar.source.snapshot, and "fake" serves that snapshot from the embedded fake Calendar server,
+ * with the latency, page size, errors and rate limits of calendar.source.fake.*.
+ * The source is chosen when the bean is created rather than by conditions, so a context processed
+ * ahead of time (Spring AOT) still follows calendar.source at run time.
+ */
+@Log4j2
+@Configuration(proxyBeanMethods = false)
+public class EventSourceConfiguration {
+
+    @Bean
+    public EventSource eventSource(@Value("${calendar.source:google}") String source, Environment environment,
+                                   CalendarClient calendarClient) throws IOException {
+        int maxResults = environment.getProperty("calendar.fetch.max-results", Integer.class, PagedEventFetcher.DEFAULT_MAX_RESULTS);
+        String snapshot = environment.getProperty("calendar.source.snapshot", "");
+        switch (source) {
+            case "google" -> {
+                String[] calendarIds = environment.getProperty("calendar.ids", String[].class, new String[]{CollectCalendarData.PRIMARY_CALENDAR});
+                return new GoogleEventSource(calendarClient, new PagedEventFetcher(maxResults), List.of(calendarIds),
+                        new MultiCalendarFetcher(environment.getProperty("calendar.fetch.parallelism", Integer.class, 4),
+                                environment.getProperty("calendar.fetch.timeout", Duration.class, Duration.ofSeconds(30))),
+                        environment.getProperty("calendar.fetch.expand-recurrence", Boolean.class, false));
+            }
+            case "snapshot" -> {
+                SnapshotEventSource snapshotSource = SnapshotEventSource.load(Path.of(snapshot));
+                log.info("Replaying " + snapshotSource.getEvents().size() + " events of " + snapshot);
+                return snapshotSource;
+            }
+            case "fake" -> {
+                FakeCalendarServer server = new FakeCalendarServer(environment.getProperty("calendar.source.fake.port", Integer.class, 0));
+                if (!snapshot.isBlank()) {
+                    server.putAll(SnapshotEventSource.load(Path.of(snapshot)).getEvents());
+                }
+                server.setLatency(environment.getProperty("calendar.source.fake.latency", Duration.class, Duration.ZERO));
+                server.setPageSize(environment.getProperty("calendar.source.fake.page-size", Integer.class, PagedEventFetcher.DEFAULT_MAX_RESULTS));
+                server.setErrorRate(environment.getProperty("calendar.source.fake.error-rate", Double.class, 0d));
+                server.setRateLimitRate(environment.getProperty("calendar.source.fake.rate-limit-rate", Double.class, 0d));
+                log.info("Fake Calendar server at " + server.rootUrl() + " serves " + server.events().size() + " events");
+                return new FakeServerEventSource(server, new PagedEventFetcher(maxResults), RateLimitBackOff.DEFAULT_INITIAL_INTERVAL);
+            }
+            default -> throw new IllegalArgumentException("calendar.source must be google, snapshot or fake: " + source);
+        }
+    }
+}
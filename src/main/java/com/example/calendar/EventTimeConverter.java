@@ -0,0 +1,187 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts event times to epoch days and durations straight from epoch milliseconds, without allocating.
+ * The offsets of the time zone are kept in a table of its transitions from 1900 to 2200,
+ * so finding the offset of an instant is a binary search over primitive arrays.
+ * Instants outside the table fall back to the zone rules.
+ * Converters are immutable and cached per time zone.
+ */
+public final class EventTimeConverter {
+    public static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+    private static final long TABLE_START = LocalDate.of(1900, 1, 1).toEpochDay() * MILLIS_PER_DAY;
+    private static final long TABLE_END = LocalDate.of(2200, 1, 1).toEpochDay() * MILLIS_PER_DAY;
+    private static final Map<ZoneId, EventTimeConverter> CONVERTERS = new ConcurrentHashMap<>();
+
+    private final ZoneId zoneId;
+    private final ZoneRules rules;
+    /**
+     * The instants at which the offset changes, ascending.
+     */
+    private final long[] transitions;
+    /**
+     * offsets[i] is the offset in milliseconds before transitions[i]; the last one is valid after the last transition.
+     */
+    private final int[] offsets;
+
+    private EventTimeConverter(ZoneId zoneId) {
+        this.zoneId = zoneId;
+        this.rules = zoneId.getRules();
+        long[] transitions = new long[16];
+        int[] offsets = new int[17];
+        int size = 0;
+        offsets[0] = rules.getOffset(Instant.ofEpochMilli(TABLE_START)).getTotalSeconds() * 1000;
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(TABLE_START));
+        while (transition != null && transition.toEpochSecond() * 1000 < TABLE_END) {
+            if (size == transitions.length) {
+                transitions = Arrays.copyOf(transitions, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            transitions[size] = transition.toEpochSecond() * 1000;
+            offsets[++size] = transition.getOffsetAfter().getTotalSeconds() * 1000;
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        this.transitions = Arrays.copyOf(transitions, size);
+        this.offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    /**
+     * @param zoneId The time zone.
+     * @return The converter of the time zone, shared by all callers.
+     */
+    public static EventTimeConverter of(ZoneId zoneId) {
+        return CONVERTERS.computeIfAbsent(zoneId, EventTimeConverter::new);
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * @param epochMillis An instant in epoch milliseconds.
+     * @return The offset of the time zone at the instant in milliseconds.
+     */
+    public int offsetMillis(long epochMillis) {
+        if (transitions.length == 0) {
+            return offsets[0];
+        }
+        if (epochMillis < TABLE_START || epochMillis >= TABLE_END) {
+            return rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000;
+        }
+        int index = Arrays.binarySearch(transitions, epochMillis);
+        return offsets[(index >= 0) ? index + 1 : -index - 1];
+    }
+
+    /**
+     * @param epochMillis An instant in epoch milliseconds.
+     * @return The epoch day of the instant in the time zone.
+     */
+    public long epochDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + offsetMillis(epochMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Finds the first instant of a day in the time zone; when midnight falls into a gap, the day starts after the gap.
+     *
+     * @param epochDay The day as counted by {@link LocalDate#toEpochDay()}.
+     * @return The start of the day in epoch milliseconds.
+     */
+    public long startOfDay(long epochDay) {
+        long midnight = epochDay * MILLIS_PER_DAY;
+        if (midnight < TABLE_START + MILLIS_PER_DAY || midnight >= TABLE_END - MILLIS_PER_DAY) {
+            return LocalDate.ofEpochDay(epochDay).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        // the offset half a day earlier first, so an overlap at midnight resolves to its earlier instant
+        long start = midnight - offsetMillis(midnight - MILLIS_PER_DAY / 2);
+        start = midnight - offsetMillis(start);
+        if (epochDay(start) < epochDay) {
+            int index = Arrays.binarySearch(transitions, start);
+            start = transitions[(index >= 0) ? index : -index - 1];
+        }
+        return start;
+    }
+
+    /**
+     * Finds the instant of a local date and time; a time in a gap moves forward by the gap,
+     * a time in an overlap resolves to its earlier instant.
+     *
+     * @param epochDay The local date as counted by {@link LocalDate#toEpochDay()}.
+     * @param millisOfDay The local time in milliseconds after midnight.
+     * @return The instant in epoch milliseconds.
+     */
+    public long toEpochMillis(long epochDay, long millisOfDay) {
+        long local = epochDay * MILLIS_PER_DAY + millisOfDay;
+        int offsetBefore = offsetMillis(local - MILLIS_PER_DAY / 2);
+        long instant = local - offsetBefore;
+        int offset = offsetMillis(instant);
+        if (offset != offsetBefore && offsetMillis(local - offset) == offset) {
+            instant = local - offset;
+        }
+        return instant;
+    }
+
+    /**
+     * Converts the start or end of an event; a date-only (all-day) value is the start of its day in the time zone.
+     *
+     * @param eventDateTime The start or end of an event.
+     * @return The instant in epoch milliseconds.
+     */
+    public long toEpochMillis(EventDateTime eventDateTime) {
+        if (eventDateTime.getDateTime() != null) {
+            return eventDateTime.getDateTime().getValue();
+        }
+        return startOfDay(dateOnlyEpochDay(eventDateTime.getDate()));
+    }
+
+    /**
+     * Finds the date of a DateTime in its own offset, the way it is written in the calendar.
+     *
+     * @param dateTime The DateTime value; a date-only value is its date.
+     * @return The epoch day.
+     */
+    public static long epochDayOf(DateTime dateTime) {
+        if (dateTime.isDateOnly()) {
+            return dateOnlyEpochDay(dateTime);
+        }
+        return Math.floorDiv(dateTime.getValue() + dateTime.getTimeZoneShift() * MILLIS_PER_MINUTE, MILLIS_PER_DAY);
+    }
+
+    /**
+     * @param startMillis The start in epoch milliseconds.
+     * @param endMillis The end in epoch milliseconds.
+     * @return The duration in hours, truncated to whole minutes.
+     */
+    public static double hoursBetween(long startMillis, long endMillis) {
+        return (Math.floorDiv(endMillis - startMillis, 1000L) / 60) / 60d;
+    }
+
+    /**
+     * @param startMillis The start in epoch milliseconds.
+     * @param endMillis The end in epoch milliseconds.
+     * @return The exact duration in hours.
+     */
+    public static double exactHoursBetween(long startMillis, long endMillis) {
+        return (endMillis - startMillis) / MILLIS_PER_HOUR;
+    }
+
+    /**
+     * A date-only value holds the UTC midnight of its date.
+     */
+    private static long dateOnlyEpochDay(DateTime date) {
+        return Math.floorDiv(date.getValue(), MILLIS_PER_DAY);
+    }
+}
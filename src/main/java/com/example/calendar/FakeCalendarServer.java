@@ -0,0 +1,520 @@
+package com.example.calendar;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import com.google.api.services.calendar.model.FreeBusyCalendar;
+import com.google.api.services.calendar.model.FreeBusyRequest;
+import com.google.api.services.calendar.model.FreeBusyRequestItem;
+import com.google.api.services.calendar.model.FreeBusyResponse;
+import com.google.api.services.calendar.model.TimePeriod;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Minimal Calendar v3 server embedded in the application. It serves the events of one in-memory calendar
+ * under any calendar ID, with paging and sync tokens, and inserts, updates and deletes events, also in batch requests.
+ * Latency, page size, server errors and 429 rate limits are configurable, so the whole pipeline can be tested
+ * and load tested repeatably and without network access. Faults are drawn from a seeded generator.
+ * Only counters are kept by default; tests turn on recording to inspect the requests it received.
+ */
+public class FakeCalendarServer implements AutoCloseable {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final String RATE_LIMIT_EXCEEDED = "{\"error\":{\"code\":429,\"message\":\"Rate Limit Exceeded\"}}";
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Event> events = new LinkedHashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    // recorded for tests only, a load test would otherwise keep every request
+    private volatile boolean recording;
+    private final List<Map<String, String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private long version;
+    private int generation;
+    private int pageSize = 250;
+    private long nextId;
+    private final Random faults = new Random(42);
+    private volatile Duration latency = Duration.ZERO;
+    private double errorRate;
+    private double rateLimitRate;
+    private double operationRateLimitRate;
+    private final AtomicInteger errorsServed = new AtomicInteger();
+    private final AtomicInteger rateLimitsServed = new AtomicInteger();
+
+    /**
+     * Starts the server on a free port of localhost.
+     *
+     * @throws IOException If the server cannot be started.
+     */
+    public FakeCalendarServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Starts the server on a port of localhost.
+     *
+     * @param port The port, 0 picks a free one.
+     * @throws IOException If the server cannot be started.
+     */
+    public FakeCalendarServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/calendar/v3/calendars/", this::handle);
+        server.createContext("/batch/calendar/v3", this::handleBatch);
+        server.createContext("/calendar/v3/freeBusy", this::handleFreeBusy);
+        // the requests wait out their latency concurrently, like they would on a real server
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-calendar-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return The root URL to set on a Calendar client.
+     */
+    public String rootUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * @param recording Whether the requests, batch sizes and writes are recorded from now on; off by default.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * @return The number of requests served, batched operations included, whether recording or not.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The query parameters of each request while recording, batched operations included.
+     */
+    public List<Map<String, String>> requests() {
+        return requests;
+    }
+
+    /**
+     * @return The number of operations of each batch request received while recording.
+     */
+    public List<Integer> batchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * @return The inserts, updates and deletes received while recording, as "METHOD eventId".
+     */
+    public List<String> writes() {
+        return writes;
+    }
+
+    /**
+     * @return Copies of the events which are not cancelled.
+     */
+    public synchronized List<Event> events() {
+        List<Event> live = new ArrayList<>();
+        for (Event event : events.values()) {
+            if (!"cancelled".equals(event.getStatus())) {
+                live.add(event.clone());
+            }
+        }
+        return live;
+    }
+
+    /**
+     * @param pageSize The most events per page, even when the client asks for more.
+     */
+    public synchronized void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param latency How long the server waits before it answers a request.
+     */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param errorRate The share of requests answered with 503 Service Unavailable, from 0 to 1.
+     */
+    public synchronized void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param rateLimitRate The share of requests answered with 429 Too Many Requests, from 0 to 1.
+     */
+    public synchronized void setRateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    /**
+     * @param operationRateLimitRate The share of the operations of a batch answered with 429 Too Many Requests
+     *                               while the batch request itself succeeds, from 0 to 1.
+     */
+    public synchronized void setOperationRateLimitRate(double operationRateLimitRate) {
+        this.operationRateLimitRate = operationRateLimitRate;
+    }
+
+    /**
+     * @return The number of requests answered with an injected 503.
+     */
+    public int getErrorsServed() {
+        return errorsServed.get();
+    }
+
+    /**
+     * @return The number of requests and batch operations answered with an injected 429.
+     */
+    public int getRateLimitsServed() {
+        return rateLimitsServed.get();
+    }
+
+    /**
+     * Adds the events, for example the ones of a recorded calendar.
+     *
+     * @param events List of Event objects.
+     */
+    public synchronized void putAll(List<Event> events) {
+        events.forEach(this::put);
+    }
+
+    /**
+     * Adds an event or replaces the event with the same id.
+     *
+     * @param event The event, its id is required.
+     */
+    public synchronized void put(Event event) {
+        events.put(event.getId(), event.clone());
+        versions.put(event.getId(), ++version);
+    }
+
+    public synchronized void cancel(String eventId) {
+        events.put(eventId, new Event().setId(eventId).setStatus("cancelled"));
+        versions.put(eventId, ++version);
+    }
+
+    /**
+     * Makes every sync token issued so far answer with 410 Gone.
+     */
+    public synchronized void expireSyncTokens() {
+        generation++;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (delayOrFail(exchange)) {
+            return;
+        }
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Response response = dispatch(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(),
+                exchange.getRequestURI().getRawQuery(), body);
+        respond(exchange, response.status(), response.body());
+    }
+
+    /**
+     * Answers a multipart/mixed batch request with one application/http part per operation.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (delayOrFail(exchange)) {
+            return;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String boundary = "--" + contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        StringBuilder answer = new StringBuilder();
+        int operations = 0;
+        for (String part : body.split(boundary)) {
+            int innerStart = part.indexOf("\r\n\r\n");
+            if (part.startsWith("--") || innerStart < 0) {
+                continue;
+            }
+            String inner = part.substring(innerStart + 4);
+            String requestLine = inner.substring(0, inner.indexOf("\r\n"));
+            int contentStart = inner.indexOf("\r\n\r\n");
+            String content = (contentStart < 0) ? "" : inner.substring(contentStart + 4).strip();
+            String[] request = requestLine.split(" ");
+            URI uri = URI.create(request[1]);
+            Response response = operationRateLimited()
+                    ? new Response(TOO_MANY_REQUESTS, RATE_LIMIT_EXCEEDED)
+                    : dispatch(request[0], uri.getRawPath(), uri.getRawQuery(), content);
+            operations++;
+            answer.append(boundary).append("\r\n")
+                    .append("Content-Type: application/http\r\n\r\n")
+                    .append("HTTP/1.1 ").append(response.status()).append(" OK\r\n")
+                    .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+                    .append(response.body()).append("\r\n");
+        }
+        answer.append(boundary).append("--\r\n");
+        if (recording) {
+            batchSizes.add(operations);
+        }
+        byte[] bytes = answer.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "multipart/mixed; boundary=" + boundary.substring(2));
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Answers a FreeBusy query with the merged busy intervals of the events, the same ones for every requested calendar.
+     */
+    private void handleFreeBusy(HttpExchange exchange) throws IOException {
+        if (delayOrFail(exchange)) {
+            return;
+        }
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            // the client compresses the content of a POST
+            body = new GZIPInputStream(body);
+        }
+        FreeBusyRequest request = JSON_FACTORY.fromInputStream(body, StandardCharsets.UTF_8, FreeBusyRequest.class);
+        long timeMin = request.getTimeMin().getValue();
+        long timeMax = request.getTimeMax().getValue();
+        List<long[]> intervals = new ArrayList<>();
+        synchronized (this) {
+            record(Map.of("freeBusy", request.getTimeMin() + "/" + request.getTimeMax(), "items", String.valueOf(request.getItems().size())));
+            for (Event event : events.values()) {
+                if (!"cancelled".equals(event.getStatus()) && !"transparent".equals(event.getTransparency())
+                        && millis(event.getStart()) < timeMax && millis(event.getEnd()) > timeMin) {
+                    intervals.add(new long[]{Math.max(timeMin, millis(event.getStart())), Math.min(timeMax, millis(event.getEnd()))});
+                }
+            }
+        }
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        List<TimePeriod> busy = new ArrayList<>();
+        for (long[] interval : intervals) {
+            TimePeriod last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+            if (last != null && interval[0] <= last.getEnd().getValue()) {
+                if (interval[1] > last.getEnd().getValue()) {
+                    last.setEnd(new DateTime(interval[1]));
+                }
+            } else {
+                busy.add(new TimePeriod().setStart(new DateTime(interval[0])).setEnd(new DateTime(interval[1])));
+            }
+        }
+        Map<String, FreeBusyCalendar> calendars = new LinkedHashMap<>();
+        for (FreeBusyRequestItem item : request.getItems()) {
+            calendars.put(item.getId(), new FreeBusyCalendar().setBusy(busy));
+        }
+        respond(exchange, 200, JSON_FACTORY.toString(new FreeBusyResponse()
+                .setTimeMin(request.getTimeMin()).setTimeMax(request.getTimeMax()).setCalendars(calendars)));
+    }
+
+    /**
+     * Waits the latency and answers with an injected fault when one is drawn.
+     */
+    private boolean delayOrFail(HttpExchange exchange) throws IOException {
+        Duration delay = latency;
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double draw;
+        double limited;
+        double failed;
+        synchronized (this) {
+            draw = faults.nextDouble();
+            limited = rateLimitRate;
+            failed = rateLimitRate + errorRate;
+        }
+        if (draw < limited) {
+            rateLimitsServed.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, TOO_MANY_REQUESTS, RATE_LIMIT_EXCEEDED);
+            return true;
+        }
+        if (draw < failed) {
+            errorsServed.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, SERVICE_UNAVAILABLE, "{\"error\":{\"code\":503,\"message\":\"Backend Error\"}}");
+            return true;
+        }
+        return false;
+    }
+
+    private void record(Map<String, String> query) {
+        requestCount.incrementAndGet();
+        if (recording) {
+            requests.add(query);
+        }
+    }
+
+    private void recordWrite(String write) {
+        if (recording) {
+            writes.add(write);
+        }
+    }
+
+    private synchronized boolean operationRateLimited() {
+        if (operationRateLimitRate == 0 || faults.nextDouble() >= operationRateLimitRate) {
+            return false;
+        }
+        rateLimitsServed.incrementAndGet();
+        return true;
+    }
+
+    private synchronized Response dispatch(String method, String path, String rawQuery, String body) throws IOException {
+        Map<String, String> query = parseQuery(rawQuery);
+        record(query);
+        String[] segments = path.split("/");
+        // /calendar/v3/calendars/{calendarId}/events[/{eventId}]
+        String eventId = (segments.length > 6) ? URLDecoder.decode(segments[6], StandardCharsets.UTF_8) : null;
+        switch (method) {
+            case "POST" -> {
+                Event event = JSON_FACTORY.fromString(body, Event.class).setId("w" + ++nextId);
+                recordWrite("POST " + event.getId());
+                put(event);
+                return new Response(200, JSON_FACTORY.toString(event));
+            }
+            case "PUT" -> {
+                if (!events.containsKey(eventId) || "cancelled".equals(events.get(eventId).getStatus())) {
+                    return notFound();
+                }
+                Event event = JSON_FACTORY.fromString(body, Event.class).setId(eventId);
+                recordWrite("PUT " + eventId);
+                put(event);
+                return new Response(200, JSON_FACTORY.toString(event));
+            }
+            case "DELETE" -> {
+                if (!events.containsKey(eventId) || "cancelled".equals(events.get(eventId).getStatus())) {
+                    return notFound();
+                }
+                recordWrite("DELETE " + eventId);
+                cancel(eventId);
+                return new Response(204, "");
+            }
+            default -> {
+                return list(query);
+            }
+        }
+    }
+
+    private Response list(Map<String, String> query) throws IOException {
+        List<Event> items = new ArrayList<>();
+        String syncToken = query.get("syncToken");
+        if (syncToken != null) {
+            String[] token = syncToken.split(":");
+            if (Integer.parseInt(token[0]) != generation) {
+                return new Response(410, "{\"error\":{\"code\":410,\"message\":\"Sync token is no longer valid, a full sync is required.\"}}");
+            }
+            long since = Long.parseLong(token[1]);
+            events.forEach((id, event) -> {
+                if (versions.get(id) > since) {
+                    items.add(event);
+                }
+            });
+        } else {
+            long timeMin = query.containsKey("timeMin") ? DateTime.parseRfc3339(query.get("timeMin")).getValue() : Long.MIN_VALUE;
+            long timeMax = query.containsKey("timeMax") ? DateTime.parseRfc3339(query.get("timeMax")).getValue() : Long.MAX_VALUE;
+            String property = query.get("privateExtendedProperty");
+            for (Event event : events.values()) {
+                if (!"cancelled".equals(event.getStatus())
+                        && millis(event.getStart()) < timeMax
+                        && millis(event.getEnd()) > timeMin
+                        && (property == null || hasPrivateProperty(event, property))) {
+                    items.add(event);
+                }
+            }
+            if ("startTime".equals(query.get("orderBy"))) {
+                items.sort(Comparator.comparingLong(event -> millis(event.getStart())));
+            }
+        }
+        int from = query.containsKey("pageToken") ? Integer.parseInt(query.get("pageToken")) : 0;
+        int size = query.containsKey("maxResults") ? Math.min(pageSize, Integer.parseInt(query.get("maxResults"))) : pageSize;
+        int to = Math.min(items.size(), from + size);
+        Events page = new Events().setItems(new ArrayList<>(items.subList(from, to)));
+        if (to < items.size()) {
+            page.setNextPageToken(String.valueOf(to));
+        } else {
+            page.setNextSyncToken(generation + ":" + version);
+        }
+        return new Response(200, JSON_FACTORY.toString(page));
+    }
+
+    /**
+     * The start or end of an event, a date-only value counts from the UTC midnight of its date.
+     */
+    private static long millis(EventDateTime eventDateTime) {
+        return (eventDateTime.getDateTime() != null) ? eventDateTime.getDateTime().getValue() : eventDateTime.getDate().getValue();
+    }
+
+    private static boolean hasPrivateProperty(Event event, String property) {
+        int separator = property.indexOf('=');
+        Map<String, String> properties = (event.getExtendedProperties() != null) ? event.getExtendedProperties().getPrivate() : null;
+        return properties != null && property.substring(separator + 1).equals(properties.get(property.substring(0, separator)));
+    }
+
+    private static Response notFound() {
+        return new Response(404, "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}");
+    }
+
+    private record Response(int status, String body) {
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, (bytes.length == 0) ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int separator = parameter.indexOf('=');
+                query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+}
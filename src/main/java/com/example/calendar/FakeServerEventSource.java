@@ -0,0 +1,68 @@
+package com.example.calendar;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fetches the events over HTTP from the embedded {@link FakeCalendarServer}, through the same Calendar client,
+ * paging and retries of rate limits and server errors as the Google source, but without authorization.
+ * Every fetch downloads the whole range, so repeated runs cost the same.
+ */
+public class FakeServerEventSource implements EventSource, AutoCloseable {
+    private final FakeCalendarServer server;
+    private final Calendar service;
+    private final PagedEventFetcher pagedEventFetcher;
+
+    /**
+     * @param server The fake server, it is closed with this source.
+     * @param pagedEventFetcher Fetches the pages of events.
+     * @param initialBackOff The wait before retrying a rate limited or failed request.
+     */
+    public FakeServerEventSource(FakeCalendarServer server, PagedEventFetcher pagedEventFetcher, Duration initialBackOff) {
+        this.server = server;
+        this.pagedEventFetcher = pagedEventFetcher;
+        this.service = new Calendar.Builder(new NetHttpTransport(), CalendarClient.JSON_FACTORY,
+                request -> RateLimitBackOff.install(request, initialBackOff))
+                .setRootUrl(server.rootUrl())
+                .setApplicationName("WorkScheduleCalendarApplication replay")
+                .build();
+    }
+
+    public FakeCalendarServer getServer() {
+        return server;
+    }
+
+    @Override
+    public List<Event> fetchEvents(DateTime timeMin, DateTime timeMax) throws IOException {
+        List<Event> events = new ArrayList<>();
+        streamEvents(timeMin, timeMax, events::addAll);
+        return events;
+    }
+
+    @Override
+    public void streamEvents(DateTime timeMin, DateTime timeMax, PagedEventFetcher.PageConsumer pageConsumer) throws IOException {
+        pagedEventFetcher.fetch(service.events().list(CollectCalendarData.PRIMARY_CALENDAR)
+                        .setTimeMin(timeMin)
+                        .setTimeMax(timeMax)
+                        .setOrderBy("startTime")
+                        .setSingleEvents(true),
+                pageConsumer);
+    }
+
+    @Override
+    public void collectBusyTime(DateTime timeMin, DateTime timeMax, SlotBitmap bitmap) throws IOException {
+        new FreeBusyFetcher(service).fetch(List.of(CollectCalendarData.PRIMARY_CALENDAR), timeMin.getValue(), timeMax.getValue(), bitmap);
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+}
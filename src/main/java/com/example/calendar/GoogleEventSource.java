@@ -0,0 +1,71 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Fetches the events from the Google Calendar API with the user's authorization.
+ * Events are kept in a local store next to the authorization tokens, so only the first run
+ * downloads all of them and later runs fetch just the changes.
+ * Several calendars are fetched concurrently and their events are merged, so an event
+ * found in several calendars is returned once.
+ * Streamed events come from the same local store, so the plans are also kept up to date with the sync tokens,
+ * and a calendar which cannot be fetched is left out instead of failing the others.
+ * The busy time alone comes from the FreeBusy query, all calendars at once.
+ * With calendar.fetch.expand-recurrence the recurring events come once with their exceptions instead of instance by instance.
+ */
+public class GoogleEventSource implements EventSource {
+    private final CalendarClient calendarClient;
+    private final PagedEventFetcher pagedEventFetcher;
+    private final List<String> calendarIds;
+    private final MultiCalendarFetcher multiCalendarFetcher;
+    private final boolean expandRecurrence;
+
+    /**
+     * @param calendarClient The shared calendar client.
+     * @param pagedEventFetcher Fetches the pages of events, its page size is tunable.
+     * @param calendarIds The calendars whose events are collected.
+     * @param multiCalendarFetcher Fetches the calendars concurrently.
+     */
+    public GoogleEventSource(CalendarClient calendarClient, PagedEventFetcher pagedEventFetcher,
+                             List<String> calendarIds, MultiCalendarFetcher multiCalendarFetcher) {
+        this(calendarClient, pagedEventFetcher, calendarIds, multiCalendarFetcher, false);
+    }
+
+    /**
+     * @param calendarClient The shared calendar client.
+     * @param pagedEventFetcher Fetches the pages of events, its page size is tunable.
+     * @param calendarIds The calendars whose events are collected.
+     * @param multiCalendarFetcher Fetches the calendars concurrently.
+     * @param expandRecurrence Whether recurring events are fetched once and expanded locally.
+     */
+    public GoogleEventSource(CalendarClient calendarClient, PagedEventFetcher pagedEventFetcher,
+                             List<String> calendarIds, MultiCalendarFetcher multiCalendarFetcher, boolean expandRecurrence) {
+        this.calendarClient = calendarClient;
+        this.pagedEventFetcher = pagedEventFetcher;
+        this.calendarIds = List.copyOf(calendarIds);
+        this.multiCalendarFetcher = multiCalendarFetcher;
+        this.expandRecurrence = expandRecurrence;
+    }
+
+    @Override
+    public List<Event> fetchEvents(DateTime timeMin, DateTime timeMax) throws IOException {
+        Calendar service = calendarClient.getService();
+        IncrementalEventSync eventSync = new IncrementalEventSync(service,
+                new CalendarEventStore(calendarClient.getDataStoreFactory(), CalendarClient.JSON_FACTORY), pagedEventFetcher, expandRecurrence);
+
+        if (calendarIds.size() == 1) {
+            return eventSync.sync(calendarIds.get(0), timeMin, timeMax);
+        }
+        return multiCalendarFetcher.fetch(calendarIds, calendarId -> eventSync.sync(calendarId, timeMin, timeMax));
+    }
+
+    @Override
+    public void collectBusyTime(DateTime timeMin, DateTime timeMax, SlotBitmap bitmap) throws IOException {
+        new FreeBusyFetcher(calendarClient.getService()).fetch(calendarIds, timeMin.getValue(), timeMax.getValue(), bitmap);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.SyncedEvents;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a local copy of calendar events up to date with the Calendar API sync tokens.
+ * The first run downloads all events of the requested range, later runs only fetch the changes.
+ * With local recurrence expansion the recurring events and their exceptions are stored instead of
+ * every instance, cancelled instances included, and {@link BusyTimeSweep#addAll} expands them.
+ */
+@Log4j2
+public class IncrementalEventSync {
+    private static final int HTTP_GONE = 410;
+    private static final String CANCELLED = "cancelled";
+    /**
+     * Serializes the read-modify-write of the stored events of each calendar.
+     */
+    private static final Map<String, Object> CALENDAR_LOCKS = new ConcurrentHashMap<>();
+
+    private final Calendar service;
+    private final CalendarEventStore eventStore;
+    private final PagedEventFetcher pagedEventFetcher;
+    private final boolean expandRecurrence;
+
+    public IncrementalEventSync(Calendar service, CalendarEventStore eventStore) {
+        this(service, eventStore, new PagedEventFetcher());
+    }
+
+    public IncrementalEventSync(Calendar service, CalendarEventStore eventStore, PagedEventFetcher pagedEventFetcher) {
+        this(service, eventStore, pagedEventFetcher, false);
+    }
+
+    /**
+     * @param service The Calendar API service.
+     * @param eventStore The local copy of the events.
+     * @param pagedEventFetcher Fetches the pages of events.
+     * @param expandRecurrence Whether recurring events are fetched once and expanded locally instead of instance by instance.
+     */
+    public IncrementalEventSync(Calendar service, CalendarEventStore eventStore, PagedEventFetcher pagedEventFetcher,
+                                boolean expandRecurrence) {
+        this.service = service;
+        this.eventStore = eventStore;
+        this.pagedEventFetcher = pagedEventFetcher;
+        this.expandRecurrence = expandRecurrence;
+    }
+
+    /**
+     * Syncs the events of a calendar and returns the ones which end after timeMin and start before timeMax.
+     *
+     * @param calendarId The calendar ID.
+     * @param timeMin The start of the range.
+     * @param timeMax The end of the range.
+     * @return List of Event objects ordered by the start time.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public List<Event> sync(String calendarId, DateTime timeMin, DateTime timeMax) throws IOException {
+        synchronized (CALENDAR_LOCKS.computeIfAbsent(calendarId, id -> new Object())) {
+            return syncLocked(calendarId, timeMin, timeMax);
+        }
+    }
+
+    private List<Event> syncLocked(String calendarId, DateTime timeMin, DateTime timeMax) throws IOException {
+        SyncedEvents syncedEvents = eventStore.load(calendarId);
+        Map<String, Event> events = null;
+        if (syncedEvents != null && syncedEvents.getSyncToken() != null && covers(syncedEvents, timeMin, timeMax)) {
+            try {
+                events = incrementalSync(calendarId, syncedEvents);
+            } catch (GoogleJsonResponseException e) {
+                if (e.getStatusCode() != HTTP_GONE) {
+                    throw e;
+                }
+                CalendarMetrics.apiRetry("sync-token-expired");
+                log.info("Sync token of " + calendarId + " is no longer valid, doing a full sync");
+                eventStore.clear(calendarId);
+            }
+        }
+        if (events == null) {
+            syncedEvents = new SyncedEvents();
+            syncedEvents.setTimeMin(timeMin);
+            syncedEvents.setTimeMax(timeMax);
+            syncedEvents.setSingleEvents(!expandRecurrence);
+            events = fullSync(calendarId, syncedEvents);
+        }
+        // Events which ended before timeMin will not be requested again, the rest of the stored range is kept.
+        syncedEvents.setTimeMin(timeMin);
+        List<Event> storedEvents = new ArrayList<>();
+        List<Event> eventsInRange = new ArrayList<>();
+        for (Event event : events.values()) {
+            // a recurring event starts with its first instance, the later ones may still be in the range
+            boolean endsAfterTimeMin = RecurrenceExpander.isRecurring(event) || endMillis(event) > timeMin.getValue();
+            if (endsAfterTimeMin && startMillis(event) < syncedEvents.getTimeMax().getValue()) {
+                storedEvents.add(event);
+                if (startMillis(event) < timeMax.getValue()) {
+                    eventsInRange.add(event);
+                }
+            }
+        }
+        syncedEvents.setItems(storedEvents);
+        eventStore.save(calendarId, syncedEvents);
+
+        eventsInRange.sort(Comparator.comparingLong(IncrementalEventSync::startMillis));
+        return eventsInRange;
+    }
+
+    private Map<String, Event> fullSync(String calendarId, SyncedEvents syncedEvents) throws IOException {
+        Map<String, Event> events = new LinkedHashMap<>();
+        Calendar.Events.List request = service.events().list(calendarId)
+                .setTimeMin(syncedEvents.getTimeMin())
+                .setTimeMax(syncedEvents.getTimeMax())
+                .setSingleEvents(!expandRecurrence);
+        syncedEvents.setSyncToken(fetchChanges(request, events));
+        log.info("Full sync of " + calendarId + " downloaded " + events.size() + " events");
+        return events;
+    }
+
+    private Map<String, Event> incrementalSync(String calendarId, SyncedEvents syncedEvents) throws IOException {
+        Map<String, Event> events = new LinkedHashMap<>();
+        if (syncedEvents.getItems() != null) {
+            for (Event event : syncedEvents.getItems()) {
+                events.put(event.getId(), event);
+            }
+        }
+        int storedEvents = events.size();
+        Calendar.Events.List request = service.events().list(calendarId)
+                .setSyncToken(syncedEvents.getSyncToken())
+                .setSingleEvents(!expandRecurrence);
+        syncedEvents.setSyncToken(fetchChanges(request, events));
+        log.info("Incremental sync of " + calendarId + " updated " + storedEvents + " stored events to " + events.size());
+        return events;
+    }
+
+    /**
+     * Applies all pages of the response to the events and returns the next sync token.
+     */
+    private String fetchChanges(Calendar.Events.List request, Map<String, Event> events) throws IOException {
+        return pagedEventFetcher.fetch(request, page -> {
+            for (Event event : page) {
+                // a cancelled instance of a recurring event is kept, so the expansion leaves it out
+                if (CANCELLED.equals(event.getStatus()) && !(expandRecurrence && RecurrenceExpander.isException(event))) {
+                    events.remove(event.getId());
+                } else {
+                    events.put(event.getId(), event);
+                }
+            }
+        });
+    }
+
+    private boolean covers(SyncedEvents syncedEvents, DateTime timeMin, DateTime timeMax) {
+        return Boolean.FALSE.equals(syncedEvents.getSingleEvents()) == expandRecurrence
+                && syncedEvents.getTimeMin() != null && syncedEvents.getTimeMax() != null
+                && syncedEvents.getTimeMin().getValue() <= timeMin.getValue()
+                && syncedEvents.getTimeMax().getValue() >= timeMax.getValue();
+    }
+
+    /**
+     * A cancelled instance has no start and end, its original start is used instead.
+     */
+    private static long startMillis(Event event) {
+        return millis((event.getStart() != null) ? event.getStart() : event.getOriginalStartTime());
+    }
+
+    private static long endMillis(Event event) {
+        return millis((event.getEnd() != null) ? event.getEnd() : event.getOriginalStartTime());
+    }
+
+    private static long millis(EventDateTime eventDateTime) {
+        DateTime dateTime = eventDateTime.getDateTime();
+        return (dateTime != null) ? dateTime.getValue() : eventDateTime.getDate().getValue();
+    }
+}
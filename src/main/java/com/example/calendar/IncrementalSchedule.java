@@ -0,0 +1,273 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkDistribution;
+import com.google.api.services.calendar.model.Event;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A schedule which is kept up to date while events are added, removed or moved.
+ * Each event is remembered in the days it touches, so a change only recomputes the busy hours
+ * of those days and their place in the overloaded days. The hours to work of the days before
+ * the first changed day stay as they are; the work left is distributed again from that day on.
+ * A change costs O(k log k) for the k events of the touched days plus the distribution of the remaining days,
+ * instead of fetching and converting all events and rebuilding the whole timeline.
+ * Not thread-safe: one instance belongs to one user's session.
+ */
+public class IncrementalSchedule {
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final WorkDistributor workDistributor;
+    private final double freeHoursPerDay;
+    private final EventTimeConverter converter;
+    private final ScheduleTimeline timeline;
+    private final int hoursToCompleteTheWork;
+    private final Map<String, Interval> events = new HashMap<>();
+    private final Map<Integer, List<Interval>> intervalsByDay = new HashMap<>();
+    private final TreeSet<Integer> overloadedDays = new TreeSet<>();
+    private double hoursPlannedOnWorkDays;
+    private double scheduledHours;
+    private double shortfallHours;
+
+    private record Interval(String eventId, long start, long end) {
+    }
+
+    /**
+     * Builds an empty schedule, all the free time is available for the work.
+     *
+     * @param workDistributor Distributes the work over the free time of the days.
+     * @param freeHoursPerDay The hours of a day which are not spent sleeping.
+     * @param zoneId The user's time zone, its midnights split the events into days.
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     */
+    public IncrementalSchedule(WorkDistributor workDistributor, double freeHoursPerDay, ZoneId zoneId,
+                               LocalDate startDate, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork) {
+        this.workDistributor = workDistributor;
+        this.freeHoursPerDay = freeHoursPerDay;
+        this.converter = EventTimeConverter.of(zoneId);
+        this.hoursToCompleteTheWork = hoursToCompleteTheWork;
+        int days = (int) Math.max(0, submissionDate.toEpochDay() - startDate.toEpochDay() + 1);
+        this.timeline = new ScheduleTimeline(startDate, new double[days], workOnSunday);
+        replanFrom(0);
+    }
+
+    /**
+     * Adds the events, for example the ones collected from the calendar, and plans the work once.
+     * Events without an id, cancelled events and free (transparent) events are skipped.
+     *
+     * @param events List of Event objects.
+     */
+    public void addAll(List<Event> events) {
+        TreeSet<Integer> changedDays = new TreeSet<>();
+        for (Event event : events) {
+            if (event.getId() != null && BusyTimeSweep.blocksTime(event)) {
+                Interval old = this.events.put(event.getId(), new Interval(event.getId(),
+                        BusyTimeSweep.startMillis(event, converter), BusyTimeSweep.endMillis(event, converter)));
+                if (old != null) {
+                    detach(old, changedDays);
+                }
+                attach(this.events.get(event.getId()), changedDays);
+            }
+        }
+        for (int day : changedDays) {
+            recompute(day);
+        }
+        replanFrom(changedDays.isEmpty() ? NONE : changedDays.first());
+    }
+
+    /**
+     * Adds an event or replaces the event with the same id.
+     * Cancelled and free (transparent) events remove the event with their id, as they do not block time.
+     *
+     * @param event The event, its id is required.
+     */
+    public void put(Event event) {
+        if (event.getId() == null) {
+            throw new IllegalArgumentException("The event has no id: " + event.getSummary());
+        }
+        if (BusyTimeSweep.blocksTime(event)) {
+            put(event.getId(), BusyTimeSweep.startMillis(event, converter), BusyTimeSweep.endMillis(event, converter));
+        } else {
+            remove(event.getId());
+        }
+    }
+
+    /**
+     * Adds an event or replaces the event with the same id.
+     *
+     * @param eventId The id of the event.
+     * @param startMillis The start of the event in epoch milliseconds.
+     * @param endMillis The end of the event in epoch milliseconds.
+     */
+    public void put(String eventId, long startMillis, long endMillis) {
+        TreeSet<Integer> changedDays = new TreeSet<>();
+        Interval old = events.put(eventId, new Interval(eventId, startMillis, endMillis));
+        if (old != null) {
+            detach(old, changedDays);
+        }
+        attach(events.get(eventId), changedDays);
+        apply(changedDays);
+    }
+
+    /**
+     * Moves an event to a new time.
+     *
+     * @param eventId The id of the event.
+     * @param startMillis The new start of the event in epoch milliseconds.
+     * @param endMillis The new end of the event in epoch milliseconds.
+     * @throws IllegalArgumentException If there is no event with the id.
+     */
+    public void move(String eventId, long startMillis, long endMillis) {
+        if (!events.containsKey(eventId)) {
+            throw new IllegalArgumentException("Unknown event: " + eventId);
+        }
+        put(eventId, startMillis, endMillis);
+    }
+
+    /**
+     * Removes an event.
+     *
+     * @param eventId The id of the event.
+     * @return Whether the event was in the schedule.
+     */
+    public boolean remove(String eventId) {
+        Interval old = events.remove(eventId);
+        if (old == null) {
+            return false;
+        }
+        TreeSet<Integer> changedDays = new TreeSet<>();
+        detach(old, changedDays);
+        apply(changedDays);
+        return true;
+    }
+
+    public ScheduleTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * @return The indexes of the work days which leave not enough time to sleep and to finish plans, in order.
+     */
+    public int[] getOverloadedDays() {
+        return overloadedDays.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return The total number of available hours to work.
+     */
+    public double availableHoursToWork() {
+        return freeHoursPerDay * timeline.workDays() - hoursPlannedOnWorkDays;
+    }
+
+    /**
+     * @return The scheduled hours and the hours which do not fit in the free time.
+     */
+    public WorkDistribution getDistribution() {
+        return new WorkDistribution(scheduledHours, shortfallHours);
+    }
+
+    private void apply(TreeSet<Integer> changedDays) {
+        for (int day : changedDays) {
+            recompute(day);
+        }
+        if (!changedDays.isEmpty()) {
+            replanFrom(changedDays.first());
+        }
+    }
+
+    private void attach(Interval interval, TreeSet<Integer> changedDays) {
+        for (int day = firstDay(interval); day <= lastDay(interval); day++) {
+            intervalsByDay.computeIfAbsent(day, key -> new ArrayList<>(4)).add(interval);
+            changedDays.add(day);
+        }
+    }
+
+    private void detach(Interval interval, TreeSet<Integer> changedDays) {
+        for (int day = firstDay(interval); day <= lastDay(interval); day++) {
+            List<Interval> intervals = intervalsByDay.get(day);
+            if (intervals != null) {
+                intervals.remove(interval);
+                if (intervals.isEmpty()) {
+                    intervalsByDay.remove(day);
+                }
+            }
+            changedDays.add(day);
+        }
+    }
+
+    private int firstDay(Interval interval) {
+        return (interval.end() <= interval.start()) ? NONE : Math.max(0, dayOf(interval.start()));
+    }
+
+    private int lastDay(Interval interval) {
+        return (interval.end() <= interval.start()) ? -1 : Math.min(timeline.size() - 1, dayOf(interval.end() - 1));
+    }
+
+    private int dayOf(long millis) {
+        long epochDay = converter.epochDay(millis);
+        return (int) Math.max(-1, Math.min(timeline.size(), epochDay - timeline.getFirstEpochDay()));
+    }
+
+    /**
+     * Merges the intervals of one day and updates its busy hours and overload.
+     */
+    private void recompute(int day) {
+        long dayStart = converter.startOfDay((long) timeline.getFirstEpochDay() + day);
+        long dayEnd = converter.startOfDay((long) timeline.getFirstEpochDay() + day + 1);
+        List<Interval> intervals = intervalsByDay.getOrDefault(day, List.of());
+        if (intervals.size() > 1) {
+            intervals.sort(Comparator.comparingLong(Interval::start));
+        }
+        long busy = 0;
+        long busyFrom = dayStart;
+        long busyUntil = dayStart;
+        for (Interval interval : intervals) {
+            long start = Math.max(dayStart, interval.start());
+            long end = Math.min(dayEnd, interval.end());
+            if (start > busyUntil) {
+                busy += busyUntil - busyFrom;
+                busyFrom = start;
+            }
+            busyUntil = Math.max(busyUntil, end);
+        }
+        busy += busyUntil - busyFrom;
+
+        double hoursPlanned = EventTimeConverter.exactHoursBetween(0, busy);
+        if (timeline.isWorkDay(day)) {
+            hoursPlannedOnWorkDays += hoursPlanned - timeline.hoursPlanned(day);
+            if (freeHoursPerDay - hoursPlanned < 0) {
+                overloadedDays.add(day);
+            } else {
+                overloadedDays.remove(day);
+            }
+        }
+        timeline.setHoursPlanned(day, hoursPlanned);
+    }
+
+    /**
+     * Keeps the hours to work before the day and distributes the rest of the work from the day on.
+     */
+    private void replanFrom(int fromDay) {
+        if (fromDay >= timeline.size()) {
+            return;
+        }
+        double hoursBefore = 0;
+        for (int day = 0; day < fromDay; day++) {
+            hoursBefore += timeline.hoursToWork(day);
+        }
+        WorkDistribution distribution = workDistributor.distribute(timeline, freeHoursPerDay,
+                hoursToCompleteTheWork - hoursBefore, fromDay);
+        scheduledHours = hoursBefore + distribution.getScheduledHours();
+        shortfallHours = distribution.getShortfallHours();
+    }
+}
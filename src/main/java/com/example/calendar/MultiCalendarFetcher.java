@@ -0,0 +1,188 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the events of several calendars concurrently and merges them into one list ordered by the start time.
+ * At most parallelism calendars are fetched at once, each fetch has its own timeout counted from its start,
+ * and a calendar which fails or times out is left out without breaking the others.
+ * An event invited into several calendars is kept once.
+ */
+@Log4j2
+public class MultiCalendarFetcher {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    /**
+     * @param parallelism The maximum number of calendars fetched at once.
+     * @param timeout The time limit of fetching one calendar.
+     */
+    public MultiCalendarFetcher(int parallelism, Duration timeout) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "calendar-fetch-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Fetches the calendars and merges their events.
+     *
+     * @param calendarIds The calendar IDs.
+     * @param calendarFetch Fetches the events of one calendar ordered by the start time.
+     * @return Events of all calendars which were fetched in time, ordered by the start time and without duplicates.
+     */
+    public List<Event> fetch(List<String> calendarIds, CalendarFetch calendarFetch) {
+        Map<String, CompletableFuture<List<Event>>> results = new LinkedHashMap<>();
+        for (String calendarId : calendarIds) {
+            CompletableFuture<List<Event>> result = new CompletableFuture<>();
+            Future<?> task = executor.submit(() -> {
+                result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                try {
+                    result.complete(calendarFetch.fetch(calendarId));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            result.whenComplete((events, e) -> {
+                if (e instanceof TimeoutException) {
+                    task.cancel(true);
+                }
+            });
+            results.put(calendarId, result);
+        }
+
+        List<List<Event>> fetched = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<List<Event>>> result : results.entrySet()) {
+            try {
+                fetched.add(result.getValue().get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TimeoutException) {
+                    CalendarMetrics.apiError("timeout");
+                    log.warn("Calendar " + result.getKey() + " was not fetched in " + timeout.toMillis() + " ms, it is left out");
+                } else {
+                    log.warn("Calendar " + result.getKey() + " cannot be fetched, it is left out: " + cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.values().forEach(pending -> pending.cancel(true));
+                break;
+            }
+        }
+        return merge(fetched);
+    }
+
+    /**
+     * Merges lists of events ordered by the start time, dropping the repeated ones.
+     *
+     * @param calendars Events of each calendar ordered by the start time.
+     * @return The merged events.
+     */
+    static List<Event> merge(List<List<Event>> calendars) {
+        int size = 0;
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        for (List<Event> events : calendars) {
+            size += events.size();
+            if (!events.isEmpty()) {
+                cursors.add(new Cursor(events));
+            }
+        }
+        List<Event> merged = new ArrayList<>(size);
+        Set<String> seen = new HashSet<>();
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            Event event = cursor.events.get(cursor.position);
+            if (seen.add(identity(event, cursor.start))) {
+                merged.add(event);
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * The same event invited into several calendars has the same iCalendar UID, and
+     * the instances of a recurring event share it but start at different times.
+     */
+    private static String identity(Event event, long start) {
+        String uid = (event.getICalUID() != null) ? event.getICalUID() : event.getId();
+        return uid + "@" + start;
+    }
+
+    /**
+     * A cancelled instance has no start, its original start is used instead;
+     * an event with neither is sorted to the front, as the calendars sort it.
+     */
+    private static long startMillis(Event event) {
+        EventDateTime start = (event.getStart() != null) ? event.getStart() : event.getOriginalStartTime();
+        if (start == null) {
+            return Long.MIN_VALUE;
+        }
+        DateTime dateTime = start.getDateTime();
+        return (dateTime != null) ? dateTime.getValue() : start.getDate().getValue();
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final List<Event> events;
+        private int position;
+        private long start;
+
+        private Cursor(List<Event> events) {
+            this.events = events;
+            this.start = startMillis(events.get(0));
+        }
+
+        private boolean advance() {
+            position++;
+            if (position < events.size()) {
+                start = startMillis(events.get(position));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(start, other.start);
+        }
+    }
+
+    /**
+     * Fetches the events of one calendar.
+     */
+    @FunctionalInterface
+    public interface CalendarFetch {
+        List<Event> fetch(String calendarId) throws IOException;
+    }
+}
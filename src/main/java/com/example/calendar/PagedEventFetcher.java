@@ -0,0 +1,124 @@
+package com.example.calendar;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.Events;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Follows the pages of an events list request and hands them one by one to a consumer.
+ * The next page is downloaded while the consumer works on the current one, so about
+ * two pages of events are held in memory at a time.
+ */
+public class PagedEventFetcher {
+    /**
+     * Default number of events per page. The Calendar API accepts up to 2500.
+     */
+    public static final int DEFAULT_MAX_RESULTS = 250;
+
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "event-page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxResults;
+
+    public PagedEventFetcher() {
+        this(DEFAULT_MAX_RESULTS);
+    }
+
+    public PagedEventFetcher(int maxResults) {
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults must be positive: " + maxResults);
+        }
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Fetches all pages of the request.
+     *
+     * @param request The events list request. It must not be used by the caller until this method returns.
+     * @param pageConsumer Receives the events of each page in order.
+     * @return The sync token of the last page or null if the request does not return one.
+     * @throws IOException If an error occurs while communicating with the calendar service or in the consumer.
+     */
+    public String fetch(Calendar.Events.List request, PageConsumer pageConsumer) throws IOException {
+        request.setMaxResults(maxResults);
+        Events page = execute(request.setPageToken(null));
+        while (true) {
+            Future<Events> nextPage = null;
+            String nextPageToken = page.getNextPageToken();
+            if (nextPageToken != null) {
+                // Only the prefetching thread touches the request until the page is awaited.
+                nextPage = PREFETCH_EXECUTOR.submit(() -> execute(request.setPageToken(nextPageToken)));
+            }
+            try {
+                pageConsumer.accept((page.getItems() != null) ? page.getItems() : Collections.emptyList());
+            } catch (IOException | RuntimeException e) {
+                if (nextPage != null) {
+                    nextPage.cancel(true);
+                }
+                throw e;
+            }
+            if (nextPage == null) {
+                return page.getNextSyncToken();
+            }
+            page = await(nextPage);
+        }
+    }
+
+    /**
+     * Fetches one page, timing it and counting the failures.
+     */
+    private static Events execute(Calendar.Events.List request) throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return request.execute();
+        } catch (HttpResponseException e) {
+            CalendarMetrics.apiError(Integer.toString(e.getStatusCode()));
+            throw e;
+        } catch (IOException e) {
+            CalendarMetrics.apiError("io");
+            throw e;
+        } finally {
+            CalendarMetrics.record(CalendarMetrics.PAGE_FETCH, startedAt);
+        }
+    }
+
+    private static Events await(Future<Events> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            page.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching events");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Receives one page of events.
+     */
+    @FunctionalInterface
+    public interface PageConsumer {
+        void accept(List<Event> events) throws IOException;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily totals of planned hours, built in one pass over the plans.
+ * Days are addressed by their epoch-day offset from the first day of the index,
+ * so every daily total is a single array lookup.
+ */
+public class PlansIndex {
+    private final long firstEpochDay;
+    private final double[] hoursPerDay;
+
+    /**
+     * Builds the index for the days from firstDay to lastDay (both inclusive).
+     * Plans outside this range are ignored.
+     *
+     * @param plans List of objects of InitialData.
+     * @param firstDay The first day of the index.
+     * @param lastDay The last day of the index.
+     */
+    public PlansIndex(List<InitialData> plans, LocalDate firstDay, LocalDate lastDay) {
+        this.firstEpochDay = firstDay.toEpochDay();
+        long days = lastDay.toEpochDay() - firstEpochDay + 1;
+        this.hoursPerDay = new double[(int) Math.max(0, days)];
+        for (InitialData plan : plans) {
+            long offset = plan.getDate().toEpochDay() - firstEpochDay;
+            if (offset >= 0 && offset < hoursPerDay.length) {
+                hoursPerDay[(int) offset] += plan.getDuration();
+            }
+        }
+        for (int day = 0; day < hoursPerDay.length; day++) {
+            if (hoursPerDay[day] < 0) {
+                hoursPerDay[day] = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the total duration of plans for a given date.
+     *
+     * @param date The date to look up.
+     * @return The total duration of plans in hours, never negative.
+     */
+    public double hoursPlanned(LocalDate date) {
+        return hoursPlanned(date.toEpochDay());
+    }
+
+    /**
+     * Returns the total duration of plans for a given epoch day.
+     *
+     * @param epochDay The day to look up, as counted by {@link LocalDate#toEpochDay()}.
+     * @return The total duration of plans in hours, never negative.
+     */
+    public double hoursPlanned(long epochDay) {
+        long offset = epochDay - firstEpochDay;
+        if (offset < 0 || offset >= hoursPerDay.length) {
+            return 0;
+        }
+        return hoursPerDay[(int) offset];
+    }
+
+    /**
+     * @return The first day covered by the index.
+     */
+    public LocalDate firstDay() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    /**
+     * Daily totals by offset from the first day, shared with the caller without copying.
+     */
+    double[] hoursPerDay() {
+        return hoursPerDay;
+    }
+
+    /**
+     * @return The number of days covered by the index.
+     */
+    public int size() {
+        return hoursPerDay.length;
+    }
+}
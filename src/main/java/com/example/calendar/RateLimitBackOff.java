@@ -0,0 +1,71 @@
+package com.example.calendar;
+
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.ExponentialBackOff;
+
+import java.time.Duration;
+
+/**
+ * Retries the Calendar API calls answered with 429 Too Many Requests or a 5xx server error,
+ * waiting exponentially longer between the attempts with some jitter, as the API usage limits ask for.
+ * The unsuccessful response handler already set on the request, i.e. the credential refreshing the token, goes first.
+ */
+public final class RateLimitBackOff {
+    public static final Duration DEFAULT_INITIAL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration MAX_ELAPSED_TIME = Duration.ofMinutes(1);
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private RateLimitBackOff() {
+    }
+
+    /**
+     * @param request The request to retry.
+     * @param initialInterval The wait before the first retry; it doubles with every retry.
+     */
+    public static void install(HttpRequest request, Duration initialInterval) {
+        HttpUnsuccessfulResponseHandler previous = request.getUnsuccessfulResponseHandler();
+        HttpBackOffUnsuccessfulResponseHandler backOff = new HttpBackOffUnsuccessfulResponseHandler(newBackOff(initialInterval))
+                .setBackOffRequired(response -> isRetryable(response.getStatusCode()));
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            if (previous != null && previous.handleResponse(httpRequest, response, supportsRetry)) {
+                return true;
+            }
+            if (!backOff.handleResponse(httpRequest, response, supportsRetry)) {
+                return false;
+            }
+            countRetry(response.getStatusCode());
+            return true;
+        });
+    }
+
+    /**
+     * The waits between the attempts of calls which are not plain HTTP requests, e.g. the operations of a batch.
+     *
+     * @param initialInterval The wait before the first retry; it doubles with every retry.
+     * @return A new back-off, it stops once the attempts took a minute.
+     */
+    public static BackOff newBackOff(Duration initialInterval) {
+        return new ExponentialBackOff.Builder()
+                .setInitialIntervalMillis((int) initialInterval.toMillis())
+                .setMaxElapsedTimeMillis((int) MAX_ELAPSED_TIME.toMillis())
+                .build();
+    }
+
+    /**
+     * @param statusCode The HTTP status code of a failed call.
+     * @return Whether the call should be retried.
+     */
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == TOO_MANY_REQUESTS || statusCode / 100 == 5;
+    }
+
+    /**
+     * Counts a retry of a call which failed with the status code.
+     */
+    public static void countRetry(int statusCode) {
+        CalendarMetrics.apiRetry((statusCode == TOO_MANY_REQUESTS) ? "rate-limited" : "server-error");
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expands recurring events locally into the intervals of their instances, so the Calendar API only has to return
+ * the recurring events and their exceptions (singleEvents=false) instead of every single instance.
+ * The RRULE is evaluated lazily, one period at a time, and only the instances within the window are handed
+ * to the consumer as epoch milliseconds, no Event object is created per instance.
+ * <p>
+ * Supported are RRULE with FREQ DAILY, WEEKLY, MONTHLY or YEARLY, INTERVAL, COUNT, UNTIL, BYDAY (with ordinals
+ * in monthly rules and yearly rules with BYMONTH), BYMONTHDAY, BYMONTH and WKST, as well as RDATE and EXDATE.
+ * Other rules are rejected with an IllegalArgumentException.
+ * The local time of the instances follows the time zone of the event, so they stay at the same time across DST changes.
+ */
+public class RecurrenceExpander {
+    private static final long MILLIS_PER_DAY = EventTimeConverter.MILLIS_PER_DAY;
+    private static final DateTimeFormatter BASIC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    /**
+     * Stops rules without COUNT and UNTIL when the window has no end, i.e. more than 250 years of a daily event.
+     */
+    private static final int MAX_PERIODS = 100_000;
+
+    private final ZoneId defaultZoneId;
+
+    /**
+     * @param defaultZoneId The time zone of recurring events which do not name one.
+     */
+    public RecurrenceExpander(ZoneId defaultZoneId) {
+        this.defaultZoneId = defaultZoneId;
+    }
+
+    /**
+     * Receives the interval of one instance.
+     */
+    @FunctionalInterface
+    public interface IntervalConsumer {
+        void accept(long startMillis, long endMillis);
+    }
+
+    /**
+     * @param event The event.
+     * @return Whether the event is a recurring event with recurrence rules, not a single instance.
+     */
+    public static boolean isRecurring(Event event) {
+        return event.getRecurrence() != null && !event.getRecurrence().isEmpty();
+    }
+
+    /**
+     * @param event The event.
+     * @return Whether the event is a changed or cancelled instance of a recurring event.
+     */
+    public static boolean isException(Event event) {
+        return event.getRecurringEventId() != null && event.getOriginalStartTime() != null;
+    }
+
+    /**
+     * Hands the instances of a recurring event which overlap the window to the consumer, in order of their start.
+     *
+     * @param event The recurring event.
+     * @param replacedStarts The original start times of the instances which are changed or cancelled, they are left out.
+     * @param windowStart The start of the window in epoch milliseconds.
+     * @param windowEnd The end of the window in epoch milliseconds, exclusive.
+     * @param consumer Receives the start and the end of each instance.
+     * @return The number of instances handed to the consumer.
+     * @throws IllegalArgumentException If the recurrence uses parts which are not supported.
+     */
+    public int expand(Event event, List<EventDateTime> replacedStarts, long windowStart, long windowEnd, IntervalConsumer consumer) {
+        return new Expansion(event, replacedStarts).run(windowStart, windowEnd, consumer);
+    }
+
+    /**
+     * The parsed recurrence of one event and the state of its expansion.
+     */
+    private final class Expansion {
+        private final EventTimeConverter converter;
+        private final boolean allDay;
+        private final long startDay;
+        private final long startMillisOfDay;
+        private final long durationMillis;
+        private final long durationDays;
+        private String frequency;
+        private int interval = 1;
+        private int count = -1;
+        private long untilDay = Long.MAX_VALUE;
+        private long untilMillis = Long.MAX_VALUE;
+        private int weekStart;
+        private int[] byDay;
+        private int[] byDayOrdinal;
+        private int[] byMonthDay;
+        private boolean[] byMonth;
+        private long[] excluded = new long[0];
+        private long[] included = new long[0];
+        private long[] candidates = new long[32];
+        private int candidateCount;
+
+        Expansion(Event event, List<EventDateTime> replacedStarts) {
+            EventDateTime start = event.getStart();
+            ZoneId zoneId = (start.getTimeZone() != null) ? ZoneId.of(start.getTimeZone()) : defaultZoneId;
+            this.converter = EventTimeConverter.of(zoneId);
+            this.allDay = start.getDateTime() == null;
+            long startMillis = BusyTimeSweep.startMillis(event, converter);
+            long endMillis = BusyTimeSweep.endMillis(event, converter);
+            if (allDay) {
+                this.startDay = Math.floorDiv(start.getDate().getValue(), MILLIS_PER_DAY);
+                this.startMillisOfDay = 0;
+                this.durationDays = Math.max(1, converter.epochDay(endMillis - 1) - startDay + 1);
+                this.durationMillis = 0;
+            } else {
+                this.startDay = converter.epochDay(startMillis);
+                this.startMillisOfDay = startMillis + converter.offsetMillis(startMillis) - startDay * MILLIS_PER_DAY;
+                this.durationMillis = Math.max(0, endMillis - startMillis);
+                this.durationDays = durationMillis / MILLIS_PER_DAY + 1;
+            }
+            for (String line : event.getRecurrence()) {
+                parseLine(line);
+            }
+            for (EventDateTime replaced : replacedStarts) {
+                excluded = append(excluded, key(replaced));
+            }
+            Arrays.sort(excluded);
+        }
+
+        int run(long windowStart, long windowEnd, IntervalConsumer consumer) {
+            int instances = 0;
+            long firstDay = Math.floorDiv(windowStart, MILLIS_PER_DAY) - durationDays - 1;
+            long lastDay = Math.floorDiv(windowEnd, MILLIS_PER_DAY) + 1;
+            if (frequency != null) {
+                int generated = 0;
+                long period = (count < 0) ? firstPeriod(firstDay) : 0;
+                for (int periods = 0; periods < MAX_PERIODS; periods++, period++) {
+                    long periodStart = fillCandidates(period);
+                    if (periodStart > lastDay || periodStart > untilDay) {
+                        break;
+                    }
+                    boolean done = false;
+                    for (int i = 0; i < candidateCount && !done; i++) {
+                        long day = candidates[i];
+                        if (day < startDay) {
+                            continue;
+                        }
+                        long start = startOf(day);
+                        if (day > untilDay || start > untilMillis || start >= windowEnd) {
+                            done = true;
+                        } else if (endOf(day, start) > windowStart && Arrays.binarySearch(excluded, keyOf(day, start)) < 0) {
+                            consumer.accept(start, endOf(day, start));
+                            instances++;
+                        }
+                        if (count >= 0 && ++generated == count) {
+                            done = true;
+                        }
+                    }
+                    if (done) {
+                        break;
+                    }
+                }
+            }
+            for (long value : included) {
+                long day = allDay ? value : converter.epochDay(value);
+                long start = allDay ? startOf(day) : value;
+                long end = endOf(day, start);
+                if (end > windowStart && start < windowEnd && Arrays.binarySearch(excluded, keyOf(day, start)) < 0) {
+                    consumer.accept(start, end);
+                    instances++;
+                }
+            }
+            return instances;
+        }
+
+        private long startOf(long day) {
+            return allDay ? converter.startOfDay(day) : converter.toEpochMillis(day, startMillisOfDay);
+        }
+
+        private long endOf(long day, long start) {
+            return allDay ? converter.startOfDay(day + durationDays) : start + durationMillis;
+        }
+
+        /**
+         * An instance is identified by its start instant, or by its date for all-day events.
+         */
+        private long keyOf(long day, long start) {
+            return allDay ? day : start;
+        }
+
+        private long key(EventDateTime eventDateTime) {
+            if (eventDateTime.getDateTime() != null) {
+                long millis = eventDateTime.getDateTime().getValue();
+                return allDay ? converter.epochDay(millis) : millis;
+            }
+            long day = Math.floorDiv(eventDateTime.getDate().getValue(), MILLIS_PER_DAY);
+            return allDay ? day : startOf(day);
+        }
+
+        /**
+         * Skips the periods which end before the day, possible when the instances are not counted.
+         */
+        private long firstPeriod(long day) {
+            if (day <= startDay) {
+                return 0;
+            }
+            return switch (frequency) {
+                case "DAILY" -> (day - startDay) / interval;
+                case "WEEKLY" -> (weekOf(day) - weekOf(startDay)) / 7 / interval;
+                case "MONTHLY" -> (monthIndex(day) - monthIndex(startDay)) / interval;
+                default -> (LocalDate.ofEpochDay(day).getYear() - LocalDate.ofEpochDay(startDay).getYear()) / interval;
+            };
+        }
+
+        /**
+         * Puts the days of the period into the candidates, ascending.
+         *
+         * @return The first day of the period.
+         */
+        private long fillCandidates(long period) {
+            candidateCount = 0;
+            switch (frequency) {
+                case "DAILY" -> {
+                    long day = startDay + period * interval;
+                    if (matchesFilters(day)) {
+                        addCandidate(day);
+                    }
+                    return day;
+                }
+                case "WEEKLY" -> {
+                    long weekFirstDay = weekOf(startDay) + period * interval * 7;
+                    for (int weekday : (byDay != null) ? byDay : new int[]{dayOfWeek(startDay)}) {
+                        long day = weekFirstDay + Math.floorMod(weekday - weekStart, 7);
+                        if (byMonth == null || byMonth[LocalDate.ofEpochDay(day).getMonthValue()]) {
+                            addCandidate(day);
+                        }
+                    }
+                    sortCandidates();
+                    return weekFirstDay;
+                }
+                case "MONTHLY" -> {
+                    LocalDate month = LocalDate.ofEpochDay(startDay).withDayOfMonth(1).plusMonths(period * interval);
+                    if (byMonth == null || byMonth[month.getMonthValue()]) {
+                        addMonth(month);
+                    }
+                    sortCandidates();
+                    return month.toEpochDay();
+                }
+                default -> {
+                    LocalDate year = LocalDate.ofEpochDay(startDay).withDayOfYear(1).plusYears(period * interval);
+                    for (int month = 1; month <= 12; month++) {
+                        boolean inYear = (byMonth != null) ? byMonth[month]
+                                : (byDay != null || byMonthDay != null || month == LocalDate.ofEpochDay(startDay).getMonthValue());
+                        if (inYear) {
+                            addMonth(year.withMonth(month));
+                        }
+                    }
+                    sortCandidates();
+                    return year.toEpochDay();
+                }
+            }
+        }
+
+        /**
+         * Adds the days of a month given by BYDAY and BYMONTHDAY, the day of the month of the first instance without them.
+         */
+        private void addMonth(LocalDate firstOfMonth) {
+            long first = firstOfMonth.toEpochDay();
+            int length = firstOfMonth.lengthOfMonth();
+            if (byDay == null && byMonthDay == null) {
+                int dayOfMonth = LocalDate.ofEpochDay(startDay).getDayOfMonth();
+                if (dayOfMonth <= length) {
+                    addCandidate(first + dayOfMonth - 1);
+                }
+                return;
+            }
+            if (byDay == null) {
+                for (int dayOfMonth : byMonthDay) {
+                    int day = (dayOfMonth > 0) ? dayOfMonth : length + dayOfMonth + 1;
+                    if (day >= 1 && day <= length) {
+                        addCandidate(first + day - 1);
+                    }
+                }
+                return;
+            }
+            long last = first + length - 1;
+            for (int i = 0; i < byDay.length; i++) {
+                int weekday = byDay[i];
+                int ordinal = byDayOrdinal[i];
+                if (ordinal == 0) {
+                    for (long day = first + Math.floorMod(weekday - dayOfWeek(first), 7); day <= last; day += 7) {
+                        addIfMonthDay(day, first, length);
+                    }
+                } else {
+                    long day = (ordinal > 0)
+                            ? first + Math.floorMod(weekday - dayOfWeek(first), 7) + (ordinal - 1) * 7L
+                            : last - Math.floorMod(dayOfWeek(last) - weekday, 7) + (ordinal + 1) * 7L;
+                    if (day >= first && day <= last) {
+                        addIfMonthDay(day, first, length);
+                    }
+                }
+            }
+        }
+
+        private void addIfMonthDay(long day, long first, int length) {
+            if (byMonthDay == null) {
+                addCandidate(day);
+                return;
+            }
+            int dayOfMonth = (int) (day - first) + 1;
+            for (int wanted : byMonthDay) {
+                if (wanted == dayOfMonth || length + wanted + 1 == dayOfMonth) {
+                    addCandidate(day);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * BYDAY, BYMONTHDAY and BYMONTH limit the days of a daily rule.
+         */
+        private boolean matchesFilters(long day) {
+            if (byMonth == null && byMonthDay == null && byDay == null) {
+                return true;
+            }
+            LocalDate date = LocalDate.ofEpochDay(day);
+            if (byMonth != null && !byMonth[date.getMonthValue()]) {
+                return false;
+            }
+            if (byDay != null && Arrays.stream(byDay).noneMatch(weekday -> weekday == dayOfWeek(day))) {
+                return false;
+            }
+            if (byMonthDay != null) {
+                int length = date.lengthOfMonth();
+                return Arrays.stream(byMonthDay).anyMatch(wanted -> wanted == date.getDayOfMonth() || length + wanted + 1 == date.getDayOfMonth());
+            }
+            return true;
+        }
+
+        private void addCandidate(long day) {
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, candidateCount * 2);
+            }
+            candidates[candidateCount++] = day;
+        }
+
+        private void sortCandidates() {
+            Arrays.sort(candidates, 0, candidateCount);
+            int unique = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                if (unique == 0 || candidates[unique - 1] != candidates[i]) {
+                    candidates[unique++] = candidates[i];
+                }
+            }
+            candidateCount = unique;
+        }
+
+        /**
+         * @return The first day of the week of the day, the weeks start on WKST.
+         */
+        private long weekOf(long day) {
+            return day - Math.floorMod(dayOfWeek(day) - weekStart, 7);
+        }
+
+        private static long monthIndex(long day) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            return date.getYear() * 12L + date.getMonthValue() - 1;
+        }
+
+        /**
+         * @return 0 for Monday to 6 for Sunday; the epoch day 0 is a Thursday.
+         */
+        private static int dayOfWeek(long day) {
+            return (int) Math.floorMod(day + 3, 7);
+        }
+
+        private void parseLine(String line) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Not a recurrence line: " + line);
+            }
+            String[] nameAndParameters = line.substring(0, colon).split(";");
+            String name = nameAndParameters[0].toUpperCase();
+            String values = line.substring(colon + 1);
+            switch (name) {
+                case "RRULE" -> {
+                    if (frequency != null) {
+                        throw new IllegalArgumentException("Only one RRULE is supported: " + line);
+                    }
+                    parseRule(values);
+                }
+                case "EXDATE" -> {
+                    for (String value : values.split(",")) {
+                        excluded = append(excluded, key(parseDateTime(value, nameAndParameters)));
+                    }
+                }
+                case "RDATE" -> {
+                    for (String value : values.split(",")) {
+                        included = append(included, key(parseDateTime(value, nameAndParameters)));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported recurrence: " + line);
+            }
+        }
+
+        private void parseRule(String rule) {
+            for (String part : rule.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Not a rule part: " + part);
+                }
+                String name = part.substring(0, equals).toUpperCase();
+                String value = part.substring(equals + 1).toUpperCase();
+                switch (name) {
+                    case "FREQ" -> {
+                        if (!List.of("DAILY", "WEEKLY", "MONTHLY", "YEARLY").contains(value)) {
+                            throw new IllegalArgumentException("Unsupported frequency: " + value);
+                        }
+                        frequency = value;
+                    }
+                    case "INTERVAL" -> interval = Math.max(1, Integer.parseInt(value));
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> {
+                        EventDateTime until = parseDateTime(value, new String[0]);
+                        if (until.getDateTime() != null) {
+                            untilMillis = until.getDateTime().getValue();
+                            untilDay = converter.epochDay(untilMillis);
+                        } else {
+                            untilDay = Math.floorDiv(until.getDate().getValue(), MILLIS_PER_DAY);
+                        }
+                    }
+                    case "WKST" -> weekStart = weekday(value);
+                    case "BYDAY" -> {
+                        String[] days = value.split(",");
+                        byDay = new int[days.length];
+                        byDayOrdinal = new int[days.length];
+                        for (int i = 0; i < days.length; i++) {
+                            String day = days[i];
+                            byDay[i] = weekday(day.substring(day.length() - 2));
+                            String ordinal = day.substring(0, day.length() - 2);
+                            byDayOrdinal[i] = ordinal.isEmpty() ? 0 : Integer.parseInt(ordinal.startsWith("+") ? ordinal.substring(1) : ordinal);
+                        }
+                    }
+                    case "BYMONTHDAY" -> byMonthDay = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "BYMONTH" -> {
+                        byMonth = new boolean[13];
+                        for (String month : value.split(",")) {
+                            byMonth[Integer.parseInt(month)] = true;
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported rule part: " + part);
+                }
+            }
+            if (frequency == null) {
+                throw new IllegalArgumentException("The rule has no frequency: " + rule);
+            }
+            boolean ordinals = byDayOrdinal != null && Arrays.stream(byDayOrdinal).anyMatch(ordinal -> ordinal != 0);
+            if (ordinals && (frequency.equals("DAILY") || frequency.equals("WEEKLY") || (frequency.equals("YEARLY") && byMonth == null))) {
+                throw new IllegalArgumentException("BYDAY ordinals are only supported in monthly rules and yearly rules with BYMONTH: " + rule);
+            }
+            if (byMonthDay != null && frequency.equals("WEEKLY")) {
+                throw new IllegalArgumentException("BYMONTHDAY is not supported in weekly rules: " + rule);
+            }
+        }
+
+        /**
+         * Parses a DATE or DATE-TIME value: 20230607, 20230607T090000Z, or 20230607T090000 in its TZID or the time zone of the event.
+         */
+        private EventDateTime parseDateTime(String value, String[] parameters) {
+            if (value.length() == 8) {
+                return new EventDateTime().setDate(new DateTime(value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6)));
+            }
+            LocalDateTime local = LocalDateTime.parse(value.endsWith("Z") ? value.substring(0, value.length() - 1) : value, BASIC_DATE_TIME);
+            long millis;
+            if (value.endsWith("Z")) {
+                millis = local.toInstant(ZoneOffset.UTC).toEpochMilli();
+            } else {
+                EventTimeConverter zone = converter;
+                for (String parameter : parameters) {
+                    if (parameter.toUpperCase().startsWith("TZID=")) {
+                        zone = EventTimeConverter.of(ZoneId.of(parameter.substring(5)));
+                    }
+                }
+                millis = zone.toEpochMillis(local.toLocalDate().toEpochDay(), local.toLocalTime().toNanoOfDay() / 1_000_000);
+            }
+            return new EventDateTime().setDateTime(new DateTime(millis));
+        }
+
+        private static int weekday(String day) {
+            return switch (day) {
+                case "MO" -> 0;
+                case "TU" -> 1;
+                case "WE" -> 2;
+                case "TH" -> 3;
+                case "FR" -> 4;
+                case "SA" -> 5;
+                case "SU" -> 6;
+                default -> throw new IllegalArgumentException("Not a weekday: " + day);
+            };
+        }
+
+        private static long[] append(long[] values, long value) {
+            long[] appended = Arrays.copyOf(values, values.length + 1);
+            appended[values.length] = value;
+            return appended;
+        }
+    }
+}
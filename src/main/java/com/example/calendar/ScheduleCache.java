@@ -0,0 +1,199 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.ScheduleCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of computed schedules.
+ * Entries are keyed by the inputs of the calculation and a fingerprint of the plans, evicted in
+ * least-recently-used order when the cache is full and dropped on lookup when they are older than the time to live.
+ * A schedule computed from a changed set of plans replaces the entry of the same inputs.
+ * The latest schedule of the inputs can be looked up before the plans are collected, so a fresh entry
+ * saves the calendar requests too. Callers get copies, the cached schedules are never shared.
+ */
+@Component
+public class ScheduleCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The latest fingerprint of the plans for each set of inputs.
+     */
+    private final Map<Inputs, Long> fingerprints = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of cached schedules.
+     * @param ttl How long a schedule stays in the cache.
+     */
+    public ScheduleCache(@Value("${schedule.cache.max-size:1000}") int maxSize,
+                         @Value("${schedule.cache.ttl:10m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns a copy of the latest schedule of the inputs while it is fresh, whatever plans it was computed from.
+     *
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return The schedule or null if there is no fresh one.
+     */
+    public Schedule getIfPresent(LocalDate startDate, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        Inputs inputs = new Inputs(startDate, submissionDate, workOnSunday, hoursToCompleteTheWork);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Long fingerprint = fingerprints.get(inputs);
+            Entry entry = (fingerprint != null) ? entries.get(new Key(inputs, fingerprint)) : null;
+            if (entry == null || now - entry.createdAt() >= ttlNanos) {
+                return null;
+            }
+            hits.increment();
+            return copy(entry.schedule());
+        }
+    }
+
+    /**
+     * Returns a copy of the cached schedule or computes and caches it.
+     *
+     * @param plans List of objects of InitialData the schedule is computed from.
+     * @param startDate The first date of the schedule.
+     * @param submissionDate The submission date.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @param calculation Computes the schedule on a miss.
+     * @return The schedule.
+     */
+    public Schedule get(List<InitialData> plans, LocalDate startDate, LocalDate submissionDate, boolean workOnSunday,
+                        int hoursToCompleteTheWork, Supplier<Schedule> calculation) {
+        if (maxSize <= 0) {
+            misses.increment();
+            return calculation.get();
+        }
+        Inputs inputs = new Inputs(startDate, submissionDate, workOnSunday, hoursToCompleteTheWork);
+        Key key = new Key(inputs, fingerprint(plans));
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt() < ttlNanos) {
+                hits.increment();
+                return copy(entry.schedule());
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        Schedule schedule = calculation.get();
+        put(key, new Entry(copy(schedule), now));
+        return schedule;
+    }
+
+    /**
+     * Removes all cached schedules.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        fingerprints.clear();
+    }
+
+    /**
+     * @return The counters of the cache.
+     */
+    public synchronized ScheduleCacheStats getStats() {
+        return new ScheduleCacheStats(entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Long previousFingerprint = fingerprints.put(key.inputs(), key.fingerprint());
+        if (previousFingerprint != null && previousFingerprint != key.fingerprint()
+                && entries.remove(new Key(key.inputs(), previousFingerprint)) != null) {
+            invalidations.increment();
+        }
+        entries.put(key, entry);
+        Iterator<Key> leastRecentlyUsed = entries.keySet().iterator();
+        while (entries.size() > maxSize) {
+            Key evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            fingerprints.remove(evicted.inputs(), evicted.fingerprint());
+            evictions.increment();
+        }
+    }
+
+    private static Schedule copy(Schedule schedule) {
+        return new Schedule(schedule.getSubmissionDate(), schedule.isWorkOnSunday(), schedule.getHoursToCompleteTheWork(),
+                schedule.getAvailableHoursToWork(), schedule.getScheduledHours(), schedule.getShortfallHours(),
+                copy(schedule.getDays()), copy(schedule.getOverloadedDays()));
+    }
+
+    private static List<CalendarWithPlans> copy(List<CalendarWithPlans> days) {
+        if (days == null) {
+            return null;
+        }
+        List<CalendarWithPlans> copies = new ArrayList<>(days.size());
+        for (CalendarWithPlans day : days) {
+            copies.add(new CalendarWithPlans(day.getDate(), day.getHoursPlanned(), day.getHoursToWork(), day.getDayOfWeek()));
+        }
+        return copies;
+    }
+
+    /**
+     * Order-independent 64-bit fingerprint of the plans.
+     *
+     * @param plans List of objects of InitialData.
+     * @return The fingerprint.
+     */
+    static long fingerprint(List<InitialData> plans) {
+        long fingerprint = plans.size();
+        for (InitialData plan : plans) {
+            long hash = plan.getDate().toEpochDay();
+            hash = mix(hash * 31 + Double.doubleToLongBits(plan.getDuration()));
+            hash = mix(hash * 31 + ((plan.getSummary() != null) ? plan.getSummary().hashCode() : 0));
+            fingerprint += hash;
+        }
+        return mix(fingerprint);
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads every input bit over the whole value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private record Inputs(LocalDate startDate, LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork) {
+    }
+
+    private record Key(Inputs inputs, long fingerprint) {
+    }
+
+    private record Entry(Schedule schedule, long createdAt) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablesSchedule;
+import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.dto.WorkBlocksSchedule;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Computes work schedules without printing anything.
+ * All state lives in the method calls, so one instance serves any number of concurrent requests.
+ */
+@Service
+public class ScheduleService {
+    private final CollectCalendarData collectCalendarData;
+    private final CalendarCalculations calendarCalculations;
+    private final ScheduleCache scheduleCache;
+    private final WorkSlotPlacer workSlotPlacer;
+
+    public ScheduleService(CollectCalendarData collectCalendarData, CalendarCalculations calendarCalculations,
+                           ScheduleCache scheduleCache, WorkSlotPlacer workSlotPlacer) {
+        this.collectCalendarData = collectCalendarData;
+        this.calendarCalculations = calendarCalculations;
+        this.scheduleCache = scheduleCache;
+        this.workSlotPlacer = workSlotPlacer;
+    }
+
+    /**
+     * Collects the plans from the calendar page by page and schedules the work from today up to the submission date.
+     * While the cache holds a fresh schedule of the same inputs it is returned without collecting the plans.
+     *
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return The computed schedule.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public Schedule computeSchedule(LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork) throws IOException {
+        LocalDate startDate = LocalDate.now();
+        Schedule cached = scheduleCache.getIfPresent(startDate, submissionDate, workOnSunday, hoursToCompleteTheWork);
+        if (cached != null) {
+            return cached;
+        }
+        List<InitialData> plans = collectCalendarData.collectPlans(submissionDate);
+        return scheduleCache.get(plans, startDate, submissionDate, workOnSunday, hoursToCompleteTheWork,
+                () -> calendarCalculations.computeSchedule(plans, startDate, submissionDate, workOnSunday, hoursToCompleteTheWork));
+    }
+
+    /**
+     * Collects the plans from the calendar up to the last deadline and schedules the deliverables over them.
+     *
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param deliverables The deliverables, each with its own hours, deadline and priority.
+     * @return The computed schedule with the plan of each deliverable.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public DeliverablesSchedule computeDeliverablesSchedule(boolean workOnSunday, List<Deliverable> deliverables) throws IOException {
+        LocalDate startDate = LocalDate.now();
+        LocalDate lastDeadline = CalendarCalculations.lastDeadline(deliverables, startDate);
+        List<InitialData> plans = collectCalendarData.collectPlans(lastDeadline);
+        return calendarCalculations.computeDeliverablesSchedule(plans, startDate, deliverables, workOnSunday);
+    }
+
+    /**
+     * Collects the busy time as slots, schedules the work over the free time within the working hours of each day
+     * and places the hours of each day into concrete blocks of it, none of them in the past.
+     *
+     * @param submissionDate The submission date up to which the work should be scheduled.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @param hoursToCompleteTheWork The total number of hours required to complete the work.
+     * @return The computed schedule with its work blocks.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public WorkBlocksSchedule computeWorkBlocks(LocalDate submissionDate, boolean workOnSunday, int hoursToCompleteTheWork) throws IOException {
+        SlotBitmap bitmap = collectCalendarData.collectBusySlots(submissionDate, workSlotPlacer.getSlot());
+        List<InitialData> plans = bitmap.toPlans();
+        occupyPast(bitmap);
+        // the days get no more work than their free slots within the working hours, so all of it can be placed
+        Schedule schedule = calendarCalculations.computeSchedule(plans, bitmap.getFirstDay(), submissionDate,
+                workOnSunday, hoursToCompleteTheWork, workSlotPlacer.freeHours(bitmap));
+        List<WorkBlock> blocks = workSlotPlacer.place(bitmap, schedule.getDays());
+        return new WorkBlocksSchedule(schedule, blocks, Math.max(0, schedule.getScheduledHours() - hours(blocks)));
+    }
+
+    /**
+     * Places the hours to work of days scheduled elsewhere, e.g. the ones of the command line, into concrete blocks
+     * of the free time up to the submission date, none of them in the past.
+     *
+     * @param submissionDate The submission date up to which the work is scheduled.
+     * @param days The days of the schedule with their hours to work.
+     * @return The work blocks ordered by their start; hours which do not fit into the free time are left out.
+     * @throws IOException If an error occurs while communicating with the calendar service.
+     */
+    public List<WorkBlock> placeWorkBlocks(LocalDate submissionDate, List<CalendarWithPlans> days) throws IOException {
+        SlotBitmap bitmap = collectCalendarData.collectBusySlots(submissionDate, workSlotPlacer.getSlot());
+        occupyPast(bitmap);
+        return workSlotPlacer.place(bitmap, days);
+    }
+
+    /**
+     * @return The total hours of the blocks.
+     */
+    public static double hours(List<WorkBlock> blocks) {
+        double hours = 0;
+        for (WorkBlock block : blocks) {
+            hours += block.getHours();
+        }
+        return hours;
+    }
+
+    private void occupyPast(SlotBitmap bitmap) {
+        // the slot in progress is over as well
+        bitmap.occupy(0, Math.min(bitmap.size(), bitmap.slotOf(System.currentTimeMillis()) + 1));
+    }
+}
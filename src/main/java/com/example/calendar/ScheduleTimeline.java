@@ -0,0 +1,137 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense day-by-day timeline of a schedule.
+ * Day i is the epoch day firstEpochDay + i; the planned hours and the hours to work are kept in primitive arrays
+ * and the date and the day of week are derived on demand, so a day costs 12 bytes instead of a few objects.
+ * All days from the first one to the submission date are kept; when work on Sundays is not allowed,
+ * Sundays are not work days and are left out of the calendar view.
+ */
+public class ScheduleTimeline {
+    private final int firstEpochDay;
+    private final boolean workOnSunday;
+    private final double[] hoursPlanned;
+    private final float[] hoursToWork;
+
+    /**
+     * @param firstDay The first day of the timeline.
+     * @param hoursPlanned The planned hours of each day, owned by the timeline from now on.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     */
+    public ScheduleTimeline(LocalDate firstDay, double[] hoursPlanned, boolean workOnSunday) {
+        this.firstEpochDay = Math.toIntExact(firstDay.toEpochDay());
+        this.workOnSunday = workOnSunday;
+        this.hoursPlanned = hoursPlanned;
+        this.hoursToWork = new float[hoursPlanned.length];
+    }
+
+    /**
+     * Builds the timeline of the days covered by the index of plans.
+     *
+     * @param plansIndex Daily totals of the plans; its array is taken over by the timeline.
+     * @param workOnSunday A boolean value indicates if work is allowed on Sundays.
+     * @return The timeline.
+     */
+    public static ScheduleTimeline of(PlansIndex plansIndex, boolean workOnSunday) {
+        return new ScheduleTimeline(plansIndex.firstDay(), plansIndex.hoursPerDay(), workOnSunday);
+    }
+
+    /**
+     * @return The number of days, including the days which are not work days.
+     */
+    public int size() {
+        return hoursPlanned.length;
+    }
+
+    /**
+     * @return The number of work days.
+     */
+    public int workDays() {
+        if (workOnSunday) {
+            return size();
+        }
+        int sundays = 0;
+        int firstSunday = Math.floorMod(DayOfWeek.SUNDAY.getValue() - dayOfWeek(0).getValue(), 7);
+        if (firstSunday < size()) {
+            sundays = (size() - 1 - firstSunday) / 7 + 1;
+        }
+        return size() - sundays;
+    }
+
+    public boolean isWorkOnSunday() {
+        return workOnSunday;
+    }
+
+    public int getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public LocalDate date(int day) {
+        return LocalDate.ofEpochDay((long) firstEpochDay + day);
+    }
+
+    public DayOfWeek dayOfWeek(int day) {
+        // 1970-01-01, the epoch day 0, was a Thursday.
+        return DayOfWeek.of(Math.floorMod(firstEpochDay + day + 3, 7) + 1);
+    }
+
+    public boolean isWorkDay(int day) {
+        return workOnSunday || dayOfWeek(day) != DayOfWeek.SUNDAY;
+    }
+
+    public double hoursPlanned(int day) {
+        return hoursPlanned[day];
+    }
+
+    public void setHoursPlanned(int day, double hours) {
+        hoursPlanned[day] = hours;
+    }
+
+    public double hoursToWork(int day) {
+        return hoursToWork[day];
+    }
+
+    public void setHoursToWork(int day, double hours) {
+        hoursToWork[day] = (float) hours;
+    }
+
+    /**
+     * Resets the hours to work of all days to zero.
+     */
+    public void clearHoursToWork() {
+        Arrays.fill(hoursToWork, 0);
+    }
+
+    /**
+     * Builds the calendar view of one day.
+     *
+     * @param day The index of the day.
+     * @return The day as a CalendarWithPlans object.
+     */
+    public CalendarWithPlans toCalendarWithPlans(int day) {
+        return new CalendarWithPlans(date(day), hoursPlanned[day], hoursToWork[day], dayOfWeek(day));
+    }
+
+    /**
+     * Builds the calendar view of the work days.
+     *
+     * @return A list of CalendarWithPlans objects.
+     */
+    public List<CalendarWithPlans> toCalendarWithPlans() {
+        List<CalendarWithPlans> calendarWithPlans = new ArrayList<>(workDays());
+        for (int day = 0; day < size(); day++) {
+            if (isWorkDay(day)) {
+                calendarWithPlans.add(toCalendarWithPlans(day));
+            }
+        }
+        return calendarWithPlans;
+    }
+}
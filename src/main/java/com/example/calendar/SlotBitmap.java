@@ -0,0 +1,336 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.services.calendar.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The busy time of a range of days as a bitmap of slots of the local time of day, e.g. 96 slots of 15 minutes a day.
+ * The slots of all days are packed one after the other into a long[], one bit per slot,
+ * so counting the free time of a day and finding a free run of slots are word-wide bit operations.
+ * <p>
+ * A slot is busy when any busy interval touches it. The local times skipped when the clocks go forward
+ * are occupied from the start, so no work is placed there, but they are not counted as busy hours;
+ * the hour repeated when the clocks go back shares its slots.
+ * Not thread-safe.
+ */
+public class SlotBitmap {
+    private static final long MILLIS_PER_DAY = EventTimeConverter.MILLIS_PER_DAY;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final long slotMillis;
+    private final long firstLocalMillis;
+    private final EventTimeConverter converter;
+    private final RecurrenceExpander recurrenceExpander;
+    private final long[] occupied;
+    /**
+     * The slots skipped by the clocks going forward, ascending.
+     */
+    private final int[] gapSlots;
+
+    /**
+     * @param firstDay The first day of the bitmap.
+     * @param lastDay The last day of the bitmap, inclusive.
+     * @param slot The length of a slot; a day must be a whole number of slots.
+     * @param zoneId The user's time zone, its local times number the slots.
+     */
+    public SlotBitmap(LocalDate firstDay, LocalDate lastDay, Duration slot, ZoneId zoneId) {
+        long minutes = slot.toMinutes();
+        if (minutes <= 0 || MINUTES_PER_DAY % minutes != 0) {
+            throw new IllegalArgumentException("A slot must divide a day into whole minutes: " + slot);
+        }
+        this.firstDay = firstDay;
+        this.days = (int) Math.max(0, lastDay.toEpochDay() - firstDay.toEpochDay() + 1);
+        this.slotMinutes = (int) minutes;
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        this.slotMillis = minutes * 60_000L;
+        this.firstLocalMillis = firstDay.toEpochDay() * MILLIS_PER_DAY;
+        this.converter = EventTimeConverter.of(zoneId);
+        this.recurrenceExpander = new RecurrenceExpander(zoneId);
+        this.occupied = new long[(int) (((long) days * slotsPerDay + 63) / 64)];
+        this.gapSlots = findGapSlots();
+        for (int slotIndex : gapSlots) {
+            occupied[slotIndex >>> 6] |= 1L << slotIndex;
+        }
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public ZoneId getZoneId() {
+        return converter.getZoneId();
+    }
+
+    /**
+     * @return The number of days.
+     */
+    public int days() {
+        return days;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    /**
+     * @return The number of slots of all days.
+     */
+    public int size() {
+        return days * slotsPerDay;
+    }
+
+    /**
+     * @return The instant the bitmap starts, the first midnight.
+     */
+    public long startMillis() {
+        return converter.startOfDay(firstDay.toEpochDay());
+    }
+
+    /**
+     * @return The instant the bitmap ends, the midnight after the last day.
+     */
+    public long endMillis() {
+        return converter.startOfDay(firstDay.toEpochDay() + days);
+    }
+
+    /**
+     * Marks the slots touched by a busy interval; the parts outside the days are ignored.
+     *
+     * @param startMillis The start of the interval in epoch milliseconds (inclusive).
+     * @param endMillis The end of the interval in epoch milliseconds (exclusive).
+     */
+    public void markBusy(long startMillis, long endMillis) {
+        if (endMillis <= startMillis) {
+            return;
+        }
+        long from = localSlot(startMillis);
+        long to = -Math.floorDiv(-(endMillis + converter.offsetMillis(endMillis - 1) - firstLocalMillis), slotMillis);
+        // an interval within the hour repeated when the clocks go back may end before its start in local time
+        setRange((int) Math.max(0, Math.min(size(), from)), (int) Math.max(0, Math.min(size(), Math.max(from + 1, to))));
+    }
+
+    /**
+     * @param epochMillis An instant in epoch milliseconds.
+     * @return The slot holding the instant, 0 before the first day and {@link #size()} after the last one.
+     */
+    public int slotOf(long epochMillis) {
+        return (int) Math.max(0, Math.min(size(), localSlot(epochMillis)));
+    }
+
+    /**
+     * Marks the busy time of events, as fetched from an event source; recurring events are expanded within the days.
+     *
+     * @param events List of Event objects.
+     */
+    public void markBusy(List<Event> events) {
+        BusyTimeSweep.forEachInterval(events, converter, recurrenceExpander, startMillis(), endMillis(), this::markBusy);
+    }
+
+    /**
+     * Occupies slots, e.g. the ones given to the work.
+     *
+     * @param from The first slot.
+     * @param to The slot after the last one.
+     */
+    public void occupy(int from, int to) {
+        setRange(from, to);
+    }
+
+    /**
+     * @param slot The slot counted from the first slot of the first day.
+     * @return Whether the slot is busy or occupied.
+     */
+    public boolean isOccupied(int slot) {
+        return (occupied[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @param day The day counted from the first day.
+     * @param slotOfDay The slot of the day.
+     * @return The slot counted from the first slot of the first day.
+     */
+    public int slot(int day, int slotOfDay) {
+        return day * slotsPerDay + slotOfDay;
+    }
+
+    /**
+     * @param from The first slot.
+     * @param to The slot after the last one.
+     * @return The number of slots which are neither busy nor occupied.
+     */
+    public int freeSlots(int from, int to) {
+        return (to - from) - occupiedSlots(from, to);
+    }
+
+    /**
+     * @param day The day counted from the first day.
+     * @return The busy hours of the day, the slots skipped by the clocks going forward not included.
+     */
+    public double busyHours(int day) {
+        int from = slot(day, 0);
+        int to = from + slotsPerDay;
+        int gaps = 0;
+        for (int slotIndex : gapSlots) {
+            if (slotIndex >= from && slotIndex < to) {
+                gaps++;
+            }
+        }
+        return (occupiedSlots(from, to) - gaps) * slotMinutes / 60d;
+    }
+
+    /**
+     * Finds the first run of free slots of at least the given length with word-wide scans:
+     * the next free slot is the first zero bit, the end of the run the next one bit.
+     *
+     * @param from The first slot to look at.
+     * @param to The slot after the last one to look at.
+     * @param length The number of free slots wanted in a row.
+     * @return The first slot of the run or -1 if there is none.
+     */
+    public int findFreeRun(int from, int to, int length) {
+        int start = nextFree(from, to);
+        while (start >= 0) {
+            int end = nextOccupied(start, to);
+            if (end - start >= length) {
+                return start;
+            }
+            start = nextFree(end, to);
+        }
+        return -1;
+    }
+
+    /**
+     * @param from The first slot to look at.
+     * @param to The slot after the last one to look at.
+     * @return The first free slot or -1 if there is none.
+     */
+    public int nextFree(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long free = ~occupied[word] & (-1L << from);
+        while (free == 0) {
+            if (++word << 6 >= to) {
+                return -1;
+            }
+            free = ~occupied[word];
+        }
+        int slotIndex = (word << 6) + Long.numberOfTrailingZeros(free);
+        return (slotIndex < to) ? slotIndex : -1;
+    }
+
+    /**
+     * @param from The first slot to look at.
+     * @param to The slot after the last one to look at.
+     * @return The first busy or occupied slot, or to if there is none.
+     */
+    public int nextOccupied(int from, int to) {
+        if (from >= to) {
+            return to;
+        }
+        int word = from >>> 6;
+        long busy = occupied[word] & (-1L << from);
+        while (busy == 0) {
+            if (++word << 6 >= to) {
+                return to;
+            }
+            busy = occupied[word];
+        }
+        return Math.min(to, (word << 6) + Long.numberOfTrailingZeros(busy));
+    }
+
+    /**
+     * @param slot The slot counted from the first slot of the first day.
+     * @return The instant the slot starts; a slot skipped by the clocks going forward starts after the gap.
+     */
+    public long slotStartMillis(int slot) {
+        return converter.toEpochMillis(firstDay.toEpochDay() + slot / slotsPerDay, (long) (slot % slotsPerDay) * slotMillis);
+    }
+
+    /**
+     * @return The busy hours of each day with busy time, as the plans of the calendar.
+     */
+    public List<InitialData> toPlans() {
+        List<InitialData> plans = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            double hours = busyHours(day);
+            if (hours > 0) {
+                plans.add(new InitialData(BusyTimeSweep.BUSY_SUMMARY, firstDay.plusDays(day), hours));
+            }
+        }
+        return plans;
+    }
+
+    private long localSlot(long epochMillis) {
+        return Math.floorDiv(epochMillis + converter.offsetMillis(epochMillis) - firstLocalMillis, slotMillis);
+    }
+
+    private int occupiedSlots(int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        if (firstWord == lastWord) {
+            return Long.bitCount(occupied[firstWord] & (-1L << from) & (-1L >>> -to));
+        }
+        int count = Long.bitCount(occupied[firstWord] & (-1L << from));
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(occupied[word]);
+        }
+        return count + Long.bitCount(occupied[lastWord] & (-1L >>> -to));
+    }
+
+    private void setRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        if (firstWord == lastWord) {
+            occupied[firstWord] |= (-1L << from) & (-1L >>> -to);
+            return;
+        }
+        occupied[firstWord] |= -1L << from;
+        Arrays.fill(occupied, firstWord + 1, lastWord, -1L);
+        occupied[lastWord] |= -1L >>> -to;
+    }
+
+    /**
+     * The slots of a day shorter than 24 hours whose local time does not exist.
+     */
+    private int[] findGapSlots() {
+        int[] gaps = new int[0];
+        for (int day = 0; day < days; day++) {
+            long epochDay = firstDay.toEpochDay() + day;
+            if (converter.startOfDay(epochDay + 1) - converter.startOfDay(epochDay) >= MILLIS_PER_DAY) {
+                continue;
+            }
+            for (int slotOfDay = 0; slotOfDay < slotsPerDay; slotOfDay++) {
+                long localMillis = epochDay * MILLIS_PER_DAY + slotOfDay * slotMillis;
+                long instant = converter.toEpochMillis(epochDay, slotOfDay * slotMillis);
+                if (instant + converter.offsetMillis(instant) != localMillis) {
+                    gaps = Arrays.copyOf(gaps, gaps.length + 1);
+                    gaps[gaps.length - 1] = slot(day, slotOfDay);
+                }
+            }
+        }
+        return gaps;
+    }
+}
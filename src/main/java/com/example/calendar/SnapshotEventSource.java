@@ -0,0 +1,114 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Replays the events of a recorded calendar, without network access.
+ * A snapshot has one event per line in the JSON of the Calendar API, as written by {@link #save(List, Path)},
+ * so a calendar recorded with --record=calendar.jsonl is served again exactly as it was fetched.
+ */
+public class SnapshotEventSource implements EventSource {
+    private static final String CANCELLED = "cancelled";
+
+    private final List<Event> events;
+
+    /**
+     * @param events The recorded events; cancelled ones are left out, except cancelled instances of recurring events.
+     */
+    public SnapshotEventSource(List<Event> events) {
+        List<Event> live = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (!CANCELLED.equals(event.getStatus()) && event.getStart() != null && event.getEnd() != null) {
+                live.add(event);
+            } else if (CANCELLED.equals(event.getStatus()) && RecurrenceExpander.isException(event)) {
+                live.add(event);
+            }
+        }
+        live.sort(Comparator.comparingLong(SnapshotEventSource::startMillis));
+        this.events = live;
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param snapshot The snapshot file.
+     * @return The source replaying the snapshot.
+     * @throws IOException If the file cannot be read or a line is not an event.
+     */
+    public static SnapshotEventSource load(Path snapshot) throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    events.add(CalendarClient.JSON_FACTORY.fromString(line, Event.class));
+                }
+            }
+        }
+        return new SnapshotEventSource(events);
+    }
+
+    /**
+     * Records events as a snapshot.
+     *
+     * @param events List of Event objects.
+     * @param snapshot The snapshot file, it is replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void save(List<Event> events, Path snapshot) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(snapshot, StandardCharsets.UTF_8)) {
+            for (Event event : events) {
+                writer.write(CalendarClient.JSON_FACTORY.toString(event));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return The recorded events which are not cancelled, ordered by the start time.
+     */
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    @Override
+    public List<Event> fetchEvents(DateTime timeMin, DateTime timeMax) {
+        List<Event> found = new ArrayList<>();
+        for (Event event : events) {
+            if (startMillis(event) >= timeMax.getValue()) {
+                break;
+            }
+            // a recurring event ends with its first instance, the later ones may still be in the range
+            if (RecurrenceExpander.isRecurring(event) || millis((event.getEnd() != null) ? event.getEnd() : event.getOriginalStartTime()) > timeMin.getValue()) {
+                found.add(event);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * A cancelled instance has no start, its original start is used instead.
+     */
+    private static long startMillis(Event event) {
+        return millis((event.getStart() != null) ? event.getStart() : event.getOriginalStartTime());
+    }
+
+    /**
+     * A date-only value counts from the UTC midnight of its date, as the Calendar API compares them.
+     */
+    private static long millis(EventDateTime eventDateTime) {
+        return (eventDateTime.getDateTime() != null) ? eventDateTime.getDateTime().getValue() : eventDateTime.getDate().getValue();
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.dto.WriteBackReport;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.util.Sleeper;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+
+/**
+ * Writes the work blocks of a schedule into a dedicated calendar.
+ * The blocks are the ones {@link WorkSlotPlacer} placed into the free time of each day, the same ones the ICS export
+ * writes, so they never overlap a meeting. Each block carries a stable ID, its date and its number within the day,
+ * in its private extended properties, so a new run compares the blocks it wants with the ones already in the calendar
+ * and only creates, updates or deletes the blocks which changed.
+ * The changes are sent as HTTP batch requests of up to 50 operations, so a schedule of a year
+ * takes a handful of round trips instead of one call per block. Operations answered with 429 or a server error
+ * are sent again in a later batch, waiting as {@link RateLimitBackOff} does.
+ * Blocks before the first day of the schedule are left as they are, they record the work already done.
+ */
+@Log4j2
+public class WorkBlockWriter {
+    /**
+     * The most operations the Calendar API accepts in one batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 50;
+    /**
+     * The private extended property holding the stable ID of a block.
+     */
+    public static final String BLOCK_ID_PROPERTY = "workBlockId";
+    /**
+     * The private extended property which marks the events written by this application.
+     */
+    public static final String SOURCE_PROPERTY = "source";
+    private static final String SOURCE = "work-schedule-calendar";
+    private static final BigDecimal MINUTES_PER_HOUR = BigDecimal.valueOf(60);
+
+    private final Calendar service;
+    private final PagedEventFetcher pagedEventFetcher;
+    private final ZoneId zoneId;
+    private final int batchSize;
+    private final Duration initialBackOff;
+
+    public WorkBlockWriter(Calendar service, ZoneId zoneId) {
+        this(service, new PagedEventFetcher(), zoneId, MAX_BATCH_SIZE, RateLimitBackOff.DEFAULT_INITIAL_INTERVAL);
+    }
+
+    /**
+     * @param service The calendar service, authorized to write events.
+     * @param pagedEventFetcher Fetches the blocks already in the calendar.
+     * @param zoneId The user's time zone, the local times of the blocks are in this zone.
+     * @param batchSize The number of operations sent in one batch request, from 1 to 50.
+     * @param initialBackOff The wait before the first retry of a rate limited or failed batch or operation.
+     */
+    public WorkBlockWriter(Calendar service, PagedEventFetcher pagedEventFetcher, ZoneId zoneId, int batchSize, Duration initialBackOff) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batchSize must be from 1 to " + MAX_BATCH_SIZE + ": " + batchSize);
+        }
+        this.service = service;
+        this.pagedEventFetcher = pagedEventFetcher;
+        this.zoneId = zoneId;
+        this.batchSize = batchSize;
+        this.initialBackOff = initialBackOff;
+    }
+
+    /**
+     * Brings the work blocks of the calendar in line with the schedule.
+     *
+     * @param calendarId The ID of the dedicated calendar of the work blocks.
+     * @param firstDay The first day of the schedule; the blocks from this day on are replaced.
+     * @param blocks The work blocks placed by {@link WorkSlotPlacer}, ordered by their start.
+     * @return The number of blocks created, updated, deleted, left unchanged and failed, and the number of batches sent.
+     * @throws IOException If the blocks cannot be listed or a batch request fails as a whole.
+     */
+    public WriteBackReport write(String calendarId, LocalDate firstDay, List<WorkBlock> blocks) throws IOException {
+        WriteBackReport report = new WriteBackReport();
+        Map<String, Event> existingBlocks = new HashMap<>();
+        Batch batch = new Batch(report);
+        pagedEventFetcher.fetch(service.events().list(calendarId)
+                .setPrivateExtendedProperty(List.of(SOURCE_PROPERTY + "=" + SOURCE))
+                .setTimeMin(new DateTime(firstDay.atStartOfDay(zoneId).toInstant().toEpochMilli())), page -> {
+            for (Event event : page) {
+                String blockId = blockId(event);
+                if (blockId != null && existingBlocks.putIfAbsent(blockId, event) != null) {
+                    batch.delete(calendarId, event);
+                }
+            }
+        });
+
+        LocalDate date = null;
+        int number = 0;
+        for (WorkBlock workBlock : blocks) {
+            number = workBlock.getDate().equals(date) ? number + 1 : 1;
+            date = workBlock.getDate();
+            String blockId = date + "#" + number;
+            Event existing = existingBlocks.remove(blockId);
+            Event block = block(blockId, workBlock);
+            if (existing == null) {
+                batch.insert(calendarId, block);
+            } else if (sameTime(existing, block) && Objects.equals(existing.getSummary(), block.getSummary())) {
+                report.setUnchanged(report.getUnchanged() + 1);
+            } else {
+                batch.update(calendarId, existing.getId(), block);
+            }
+        }
+        // blocks which are no longer in the schedule
+        for (Event stale : existingBlocks.values()) {
+            batch.delete(calendarId, stale);
+        }
+        batch.flush();
+        log.info("Work blocks written to " + calendarId + ": " + report);
+        return report;
+    }
+
+    private Event block(String blockId, WorkBlock workBlock) {
+        long minutes = Duration.between(workBlock.getStart(), workBlock.getEnd()).toMinutes();
+        return new Event()
+                .setSummary("Work " + BigDecimal.valueOf(minutes).divide(MINUTES_PER_HOUR, 2, RoundingMode.HALF_UP)
+                        .stripTrailingZeros().toPlainString() + " h")
+                .setStart(eventDateTime(workBlock.getStart().atZone(zoneId).toInstant().toEpochMilli()))
+                .setEnd(eventDateTime(workBlock.getEnd().atZone(zoneId).toInstant().toEpochMilli()))
+                .setTransparency("opaque")
+                .setExtendedProperties(new Event.ExtendedProperties()
+                        .setPrivate(Map.of(SOURCE_PROPERTY, SOURCE, BLOCK_ID_PROPERTY, blockId)));
+    }
+
+    private EventDateTime eventDateTime(long epochMillis) {
+        return new EventDateTime()
+                .setDateTime(new DateTime(new Date(epochMillis), TimeZone.getTimeZone(zoneId)))
+                .setTimeZone(zoneId.getId());
+    }
+
+    private static String blockId(Event event) {
+        Map<String, String> properties = (event.getExtendedProperties() != null) ? event.getExtendedProperties().getPrivate() : null;
+        return (properties != null) ? properties.get(BLOCK_ID_PROPERTY) : null;
+    }
+
+    private static boolean sameTime(Event existing, Event block) {
+        return existing.getStart() != null && existing.getEnd() != null
+                && existing.getStart().getDateTime() != null && existing.getEnd().getDateTime() != null
+                && existing.getStart().getDateTime().getValue() == block.getStart().getDateTime().getValue()
+                && existing.getEnd().getDateTime().getValue() == block.getEnd().getDateTime().getValue();
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Sleeper.DEFAULT.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry the work block operations");
+        }
+    }
+
+    /**
+     * Queues the operations and sends them whenever a batch is full.
+     * An operation answered with 429 or a server error is queued again after a back-off, the others in its batch
+     * still apply; an operation which fails otherwise or runs out of retries is counted and logged.
+     */
+    private class Batch {
+        private final WriteBackReport report;
+        private BatchRequest request;
+        private List<Operation> retries = new ArrayList<>();
+
+        Batch(WriteBackReport report) {
+            this.report = report;
+        }
+
+        void insert(String calendarId, Event block) throws IOException {
+            queue(new Operation(() -> report.setCreated(report.getCreated() + 1)) {
+                @Override
+                void queue(BatchRequest request) throws IOException {
+                    service.events().insert(calendarId, block).queue(request, callback());
+                }
+            });
+        }
+
+        void update(String calendarId, String eventId, Event block) throws IOException {
+            queue(new Operation(() -> report.setUpdated(report.getUpdated() + 1)) {
+                @Override
+                void queue(BatchRequest request) throws IOException {
+                    service.events().update(calendarId, eventId, block).queue(request, callback());
+                }
+            });
+        }
+
+        void delete(String calendarId, Event block) throws IOException {
+            queue(new Operation(() -> report.setDeleted(report.getDeleted() + 1)) {
+                @Override
+                void queue(BatchRequest request) throws IOException {
+                    service.events().delete(calendarId, block.getId()).queue(request, callback());
+                }
+            });
+        }
+
+        /**
+         * Sends the queued operations and retries the rate limited ones until they succeed or the back-off stops.
+         */
+        void flush() throws IOException {
+            execute();
+            BackOff backOff = RateLimitBackOff.newBackOff(initialBackOff);
+            while (!retries.isEmpty()) {
+                long waitMillis = backOff.nextBackOffMillis();
+                if (waitMillis == BackOff.STOP) {
+                    report.setFailed(report.getFailed() + retries.size());
+                    log.warn(retries.size() + " work block operations failed after their retries");
+                    retries.clear();
+                    return;
+                }
+                sleep(waitMillis);
+                List<Operation> again = retries;
+                retries = new ArrayList<>();
+                for (Operation operation : again) {
+                    RateLimitBackOff.countRetry(operation.statusCode);
+                    operation.queue(request());
+                    if (request.size() >= batchSize) {
+                        execute();
+                    }
+                }
+                execute();
+            }
+        }
+
+        private void queue(Operation operation) throws IOException {
+            operation.queue(request());
+            if (request.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void execute() throws IOException {
+            if (request == null || request.size() == 0) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            try {
+                request.execute();
+            } catch (IOException e) {
+                CalendarMetrics.apiError("io");
+                throw e;
+            } finally {
+                CalendarMetrics.record(CalendarMetrics.BATCH_WRITE, startedAt);
+            }
+            report.setBatches(report.getBatches() + 1);
+            request = null;
+        }
+
+        private BatchRequest request() {
+            if (request == null) {
+                // a batch answered with 429 or a server error as a whole is sent again
+                request = service.batch(httpRequest -> RateLimitBackOff.install(httpRequest, initialBackOff));
+            }
+            return request;
+        }
+
+        /**
+         * One insert, update or delete, which can be queued into a batch again.
+         */
+        private abstract class Operation {
+            private final Runnable onSuccess;
+            private int statusCode;
+
+            Operation(Runnable onSuccess) {
+                this.onSuccess = onSuccess;
+            }
+
+            abstract void queue(BatchRequest request) throws IOException;
+
+            <T> JsonBatchCallback<T> callback() {
+                return new JsonBatchCallback<>() {
+                    @Override
+                    public void onSuccess(T result, HttpHeaders responseHeaders) {
+                        onSuccess.run();
+                    }
+
+                    @Override
+                    public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                        CalendarMetrics.apiError(Integer.toString(error.getCode()));
+                        if (RateLimitBackOff.isRetryable(error.getCode())) {
+                            statusCode = error.getCode();
+                            retries.add(Operation.this);
+                            return;
+                        }
+                        report.setFailed(report.getFailed() + 1);
+                        log.warn("Work block operation failed: " + error.getCode() + " " + error.getMessage());
+                    }
+                };
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkDistribution;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Distributes the hours of work over the work days of a timeline by water-filling.
+ * Every work day is a vessel as large as its free time (the free hours of a day minus the planned hours),
+ * limited by the maximum daily hours. The water level is raised until the work fits, so each day gets
+ * its weight times the level, but never less than the minimum daily hours nor more than the vessel holds.
+ * This is the most even schedule the free time allows. The hours are handed out in whole slots of the granularity;
+ * the slots left over after rounding go to the days closest to their next slot.
+ * The level is found by bisection and the leftover slots by one sort, so a distribution costs O(n log n).
+ */
+public class WorkDistributor {
+    private static final int LEVEL_ITERATIONS = 64;
+    private static final double LEVEL_PRECISION = 1e-6;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int granularityMinutes;
+    private final double minDailyHours;
+    private final double maxDailyHours;
+    private final double[] weekdayWeights;
+
+    /**
+     * Distributes whole hours with no daily limits and equal weights.
+     */
+    public WorkDistributor() {
+        this(Duration.ofHours(1), 0, 24, new double[]{1, 1, 1, 1, 1, 1, 1});
+    }
+
+    /**
+     * @param granularity The smallest slot of work, e.g. 15, 30 or 60 minutes; a day must be a multiple of it.
+     * @param minDailyHours The hours worked on each work day with free time, while there is work left.
+     * @param maxDailyHours The most hours worked on one day.
+     * @param weekdayWeights Seven non-negative weights from Monday to Sunday; a day with weight 2 gets twice
+     *                       the work of a day with weight 1, a day with weight 0 gets only the minimum.
+     */
+    public WorkDistributor(Duration granularity, double minDailyHours, double maxDailyHours, double[] weekdayWeights) {
+        long minutes = granularity.toMinutes();
+        if (minutes <= 0 || MINUTES_PER_DAY % minutes != 0) {
+            throw new IllegalArgumentException("Granularity must divide a day into whole minutes: " + granularity);
+        }
+        if (minDailyHours < 0 || maxDailyHours < minDailyHours) {
+            throw new IllegalArgumentException("Daily hours must satisfy 0 <= min <= max: " + minDailyHours + ", " + maxDailyHours);
+        }
+        if (weekdayWeights.length != 7 || Arrays.stream(weekdayWeights).anyMatch(weight -> !(weight >= 0))) {
+            throw new IllegalArgumentException("Seven non-negative weekday weights are required: " + Arrays.toString(weekdayWeights));
+        }
+        this.granularityMinutes = (int) minutes;
+        this.minDailyHours = minDailyHours;
+        this.maxDailyHours = maxDailyHours;
+        this.weekdayWeights = weekdayWeights.clone();
+    }
+
+    /**
+     * Sets the hours to work of each day of the timeline.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param freeHoursPerDay The hours of a day which are not spent sleeping.
+     * @param hoursToCompleteTheWork The total number of hours needed to complete the work.
+     * @return The scheduled hours and the hours which do not fit in the free time.
+     */
+    public WorkDistribution distribute(ScheduleTimeline timeline, double freeHoursPerDay, double hoursToCompleteTheWork) {
+        return distribute(timeline, freeHoursPerDay, hoursToCompleteTheWork, 0);
+    }
+
+    /**
+     * Sets the hours to work of the days from the given one on; the earlier days are left as they are.
+     *
+     * @param timeline The timeline with planned hours for each day.
+     * @param freeHoursPerDay The hours of a day which are not spent sleeping.
+     * @param hoursToCompleteTheWork The hours to distribute over the days from fromDay on.
+     * @param fromDay The index of the first day which gets work.
+     * @return The hours scheduled from fromDay on and the hours which do not fit in their free time.
+     */
+    public WorkDistribution distribute(ScheduleTimeline timeline, double freeHoursPerDay, double hoursToCompleteTheWork, int fromDay) {
+        return distribute(timeline, day -> freeHoursPerDay - timeline.hoursPlanned(day), hoursToCompleteTheWork, fromDay);
+    }
+
+    /**
+     * Sets the hours to work of each day of the timeline within the given free hours of each day,
+     * e.g. the free time within the working hours, instead of the hours left after sleeping and plans.
+     *
+     * @param timeline The timeline of the days.
+     * @param freeHours The free hours of each day of the timeline, by day index.
+     * @param hoursToCompleteTheWork The total number of hours needed to complete the work.
+     * @return The scheduled hours and the hours which do not fit in the free time.
+     */
+    public WorkDistribution distribute(ScheduleTimeline timeline, double[] freeHours, double hoursToCompleteTheWork) {
+        if (freeHours.length < timeline.size()) {
+            throw new IllegalArgumentException("The free hours of " + timeline.size() + " days are needed: " + freeHours.length);
+        }
+        return distribute(timeline, day -> freeHours[day], hoursToCompleteTheWork, 0);
+    }
+
+    private WorkDistribution distribute(ScheduleTimeline timeline, IntToDoubleFunction freeHoursOfDay, double hoursToCompleteTheWork, int fromDay) {
+        double slotsPerHour = 60d / granularityMinutes;
+        int days = Math.max(0, timeline.size() - fromDay);
+        int[] minSlots = new int[days];
+        int[] maxSlots = new int[days];
+        double[] weights = new double[days];
+        long capacity = 0;
+        long minimum = 0;
+        double maxLevel = 0;
+        for (int day = 0; day < days; day++) {
+            if (!timeline.isWorkDay(fromDay + day)) {
+                continue;
+            }
+            double freeHours = Math.max(0, Math.min(maxDailyHours, freeHoursOfDay.applyAsDouble(fromDay + day)));
+            maxSlots[day] = (int) Math.floor(freeHours * slotsPerHour + 1e-9);
+            minSlots[day] = Math.min(maxSlots[day], (int) Math.ceil(minDailyHours * slotsPerHour - 1e-9));
+            weights[day] = weekdayWeights[timeline.dayOfWeek(fromDay + day).getValue() - 1];
+            if (weights[day] == 0) {
+                maxSlots[day] = minSlots[day];
+            } else {
+                maxLevel = Math.max(maxLevel, maxSlots[day] / weights[day]);
+            }
+            capacity += maxSlots[day];
+            minimum += minSlots[day];
+        }
+
+        long slotsToSchedule = (long) Math.max(0, Math.ceil(hoursToCompleteTheWork * slotsPerHour - 1e-9));
+        int[] slots;
+        if (slotsToSchedule >= capacity) {
+            slots = maxSlots;
+        } else if (slotsToSchedule <= minimum) {
+            slots = frontLoad(minSlots, slotsToSchedule);
+        } else {
+            slots = fill(minSlots, maxSlots, weights, maxLevel, slotsToSchedule);
+        }
+
+        long scheduledSlots = 0;
+        for (int day = 0; day < days; day++) {
+            timeline.setHoursToWork(fromDay + day, slots[day] / slotsPerHour);
+            scheduledSlots += slots[day];
+        }
+        return new WorkDistribution(scheduledSlots / slotsPerHour,
+                Math.max(0, slotsToSchedule - scheduledSlots) / slotsPerHour);
+    }
+
+    /**
+     * Gives each day its minimum, from the first day on, until the work is done.
+     */
+    private static int[] frontLoad(int[] minSlots, long slotsToSchedule) {
+        int[] slots = new int[minSlots.length];
+        long left = slotsToSchedule;
+        for (int day = 0; day < minSlots.length && left > 0; day++) {
+            slots[day] = (int) Math.min(minSlots[day], left);
+            left -= slots[day];
+        }
+        return slots;
+    }
+
+    private static int[] fill(int[] minSlots, int[] maxSlots, double[] weights, double maxLevel, long slotsToSchedule) {
+        // the highest level whose filling does not exceed the work, close enough that rounding decides the rest
+        double low = 0;
+        double high = maxLevel;
+        double filledLow = 0;
+        double filledHigh = Double.MAX_VALUE;
+        for (int i = 0; i < LEVEL_ITERATIONS && filledHigh - filledLow > LEVEL_PRECISION; i++) {
+            double level = (low + high) / 2;
+            double filled = filled(minSlots, maxSlots, weights, level);
+            if (filled <= slotsToSchedule) {
+                low = level;
+                filledLow = filled;
+            } else {
+                high = level;
+                filledHigh = filled;
+            }
+        }
+
+        int days = minSlots.length;
+        int[] slots = new int[days];
+        long[] roundedDown = new long[days];
+        int candidates = 0;
+        long left = slotsToSchedule;
+        for (int day = 0; day < days; day++) {
+            double water = clamp(weights[day] * low, minSlots[day], maxSlots[day]);
+            slots[day] = (int) Math.floor(water);
+            left -= slots[day];
+            if (slots[day] < maxSlots[day]) {
+                // the fraction in the high bits, the earlier day wins a tie
+                long fraction = (long) ((water - slots[day]) * (1 << 30));
+                roundedDown[candidates++] = fraction << 32 | (days - 1 - day);
+            }
+        }
+        Arrays.sort(roundedDown, 0, candidates);
+        while (left > 0) {
+            for (int i = candidates - 1; i >= 0 && left > 0; i--) {
+                int day = days - 1 - (int) (roundedDown[i] & 0xFFFFFFFFL);
+                if (slots[day] < maxSlots[day]) {
+                    slots[day]++;
+                    left--;
+                }
+            }
+        }
+        return slots;
+    }
+
+    private static double filled(int[] minSlots, int[] maxSlots, double[] weights, double level) {
+        double filled = 0;
+        for (int day = 0; day < minSlots.length; day++) {
+            filled += clamp(weights[day] * level, minSlots[day], maxSlots[day]);
+        }
+        return filled;
+    }
+
+    private static double clamp(double value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -1,14 +1,35 @@
 package com.example.calendar;
 
+import com.example.calendar.batch.BatchScheduler;
+import com.example.calendar.dto.BatchReport;
 import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.DeliverablePlan;
+import com.example.calendar.dto.DeliverablesRequest;
 import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.dto.WorkBlocksSchedule;
+import com.example.calendar.dto.WriteBackReport;
+import com.example.calendar.export.ScheduleExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.services.calendar.model.Event;
 import lombok.SneakyThrows;
+import org.springframework.boot.Banner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -23,27 +44,227 @@ public class WorkScheduleCalendarApplication {
 
 	@SneakyThrows
 	public static void main(String[] args) {
-		SpringApplication.run(WorkScheduleCalendarApplication.class, args);
+		String batchInput = option(args, "--batch=");
+		if (batchInput != null) {
+			runBatch(batchInput, args);
+			return;
+		}
+		if (Arrays.asList(args).contains("--headless")) {
+			System.exit(runHeadless(args));
+		}
 
-		CollectCalendarData workWithCalendarData = new CollectCalendarData();
-		CalendarCalculations calendarCalculations = new CalendarCalculations();
+		ConfigurableApplicationContext context = SpringApplication.run(WorkScheduleCalendarApplication.class, args);
+
+		CollectCalendarData workWithCalendarData = context.getBean(CollectCalendarData.class);
+		CalendarCalculations calendarCalculations = context.getBean(CalendarCalculations.class);
 		ShowMessages showMessages = new ShowMessages();
 
+		String deliverables = option(args, "--deliverables=");
+		if (deliverables != null) {
+			scheduleDeliverables(context, Path.of(deliverables));
+			return;
+		}
+
 		showMessages.sayHello();
 		LocalDate submissionDate = showMessages.inputSubmissionDate();
 		boolean workOnSunday = showMessages.workOnSunday();
 		int hoursToCompleteTheWork = showMessages.hoursToCompleteTheWork();
 
-		List<Event> events = workWithCalendarData.getDataFromCalendar(submissionDate);
+		// the events are printed and converted page by page; only a recording keeps all of them
+		String record = option(args, "--record=");
+		List<Event> recordedEvents = new ArrayList<>();
+		System.out.println("\nUpcoming events:");
+		ArrayList<InitialData> plans = new ArrayList<>(workWithCalendarData.collectPlans(submissionDate, page -> {
+			page.forEach(workWithCalendarData::printEvent);
+			if (record != null) {
+				recordedEvents.addAll(page);
+			}
+		}));
+		if (record != null) {
+			// replayed later with calendar.source=snapshot or fake and calendar.source.snapshot=<file>
+			SnapshotEventSource.save(recordedEvents, Path.of(record));
+		}
 
-		ArrayList<InitialData> plans = workWithCalendarData.makePlans(events);
 		showMessages.showList(plans, "\nList of plans from the calendar: ");
 
-		List<CalendarWithPlans> calendarWithPlans = calendarCalculations.generateNewCalendarWithPlans(plans, submissionDate, workOnSunday, hoursToCompleteTheWork);
-		showMessages.showList(calendarWithPlans, "\nNew calendar with plans: ");
+		ScheduleTimeline timeline = calendarCalculations.generateNewCalendarWithPlans(plans, submissionDate, workOnSunday, hoursToCompleteTheWork);
+		showMessages.showList(timeline.toCalendarWithPlans(), "\nNew calendar with plans: ");
+
+		calendarCalculations.calculateWorkLoadSituation(timeline);
+
+		calendarCalculations.generateWorkCalendar(timeline, hoursToCompleteTheWork);
+
+		String export = option(args, "--export=");
+		boolean writeBack = context.getEnvironment().getProperty("calendar.write-back.enabled", Boolean.class, false);
+		if (export == null && !writeBack) {
+			return;
+		}
+		// the export and the write-back share the blocks placed into the free time
+		List<WorkBlock> blocks = placeWorkBlocks(context, submissionDate, timeline);
+		if (export != null) {
+			exportSchedule(timeline, blocks, Path.of(export));
+		}
+		if (writeBack) {
+			writeBack(context, workWithCalendarData.getZoneId(), timeline, blocks);
+		}
+	}
+
+	/**
+	 * Schedules the deliverables of a JSON file, the body of POST /api/schedule/deliverables: --deliverables=deliverables.json
+	 * Reports the overloaded days and the deliverables which miss their deadline.
+	 */
+	private static void scheduleDeliverables(ConfigurableApplicationContext context, Path file) throws IOException {
+		DeliverablesRequest request = context.getBean(ObjectMapper.class).readValue(file.toFile(), DeliverablesRequest.class);
+		if (request.getDeliverables() == null || request.getDeliverables().isEmpty()) {
+			throw new IllegalArgumentException("No deliverables in " + file);
+		}
+		CalendarCalculations calendarCalculations = context.getBean(CalendarCalculations.class);
+		LocalDate startDate = LocalDate.now();
+		LocalDate lastDeadline = CalendarCalculations.lastDeadline(request.getDeliverables(), startDate);
+		List<InitialData> plans = context.getBean(CollectCalendarData.class).collectPlans(lastDeadline);
+
+		ScheduleTimeline timeline = calendarCalculations.buildTimeline(plans, startDate, lastDeadline, request.isWorkOnSunday());
+		List<DeliverablePlan> deliverablePlans = calendarCalculations.scheduleDeliverables(timeline, request.getDeliverables());
+		new ShowMessages().showList(timeline.toCalendarWithPlans(), "\nNew calendar with plans: ");
+		System.out.println("\nPlans of the deliverables: ");
+		deliverablePlans.forEach(System.out::println);
+
+		calendarCalculations.calculateWorkLoadSituation(timeline, deliverablePlans);
+	}
+
+	/**
+	 * Writes the work blocks into the calendar set by calendar.write-back.calendar-id.
+	 */
+	private static void writeBack(ConfigurableApplicationContext context, ZoneId zoneId, ScheduleTimeline timeline,
+								  List<WorkBlock> blocks) throws IOException {
+		String calendarId = context.getEnvironment().getProperty("calendar.write-back.calendar-id", "");
+		if (calendarId.isBlank()) {
+			throw new IllegalStateException("calendar.write-back.calendar-id must name the calendar of the work blocks");
+		}
+		WorkBlockWriter writer = new WorkBlockWriter(context.getBean(CalendarClient.class).getService(), zoneId);
+		WriteBackReport report = writer.write(calendarId, timeline.date(0), blocks);
+		System.out.printf("%nWork blocks in %s: %d created, %d updated, %d deleted, %d unchanged, %d failed (%d batch requests)%n",
+				calendarId, report.getCreated(), report.getUpdated(), report.getDeleted(), report.getUnchanged(),
+				report.getFailed(), report.getBatches());
+	}
+
+	/**
+	 * Places the hours to work of the schedule into the free time of its days, the same way the API does.
+	 */
+	private static List<WorkBlock> placeWorkBlocks(ConfigurableApplicationContext context, LocalDate submissionDate,
+												   ScheduleTimeline timeline) throws IOException {
+		List<CalendarWithPlans> days = timeline.toCalendarWithPlans();
+		List<WorkBlock> blocks = context.getBean(ScheduleService.class).placeWorkBlocks(submissionDate, days);
+		double unplacedHours = 0;
+		for (CalendarWithPlans day : days) {
+			unplacedHours += day.getHoursToWork();
+		}
+		unplacedHours -= ScheduleService.hours(blocks);
+		if (unplacedHours > 1e-9) {
+			System.out.printf("%n%.2f hours do not fit into the free time between %s and %s%n", unplacedHours,
+					context.getBean(WorkSlotPlacer.class).getDayStart(), context.getBean(WorkSlotPlacer.class).getDayEnd());
+		}
+		return blocks;
+	}
+
+	/**
+	 * Writes the schedule with its work blocks to a .ics or .csv file: --export=schedule.ics
+	 */
+	private static void exportSchedule(ScheduleTimeline timeline, List<WorkBlock> blocks, Path file) throws IOException {
+		ScheduleExporter exporter = ScheduleExporter.forFile(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			exporter.export(timeline.toCalendarWithPlans(), blocks, channel);
+		}
+		System.out.println("\nThe schedule is saved to " + file.toAbsolutePath());
+	}
+
+	/**
+	 * Computes the schedule without prompts and without the web server, for scheduled jobs:
+	 * --headless --submission-date=2023-06-30 [--work-on-sunday=false] --hours=120 [--export=schedule.ics]
+	 * The values can also come from the SUBMISSION_DATE, WORK_ON_SUNDAY and HOURS environment variables.
+	 * Only the beans the schedule needs are created, so the context starts in a fraction of the time of the web one
+	 * and the run is short enough to train an AppCDS archive.
+	 *
+	 * @return The exit code: 0 when the schedule is printed, 1 when the events cannot be fetched, 2 when the arguments are invalid.
+	 */
+	private static int runHeadless(String[] args) throws IOException {
+		LocalDate submissionDate;
+		boolean workOnSunday;
+		int hoursToCompleteTheWork;
+		try {
+			submissionDate = LocalDate.parse(required(args, "--submission-date=", "SUBMISSION_DATE"));
+			workOnSunday = Boolean.parseBoolean(argumentOrEnvironment(args, "--work-on-sunday=", "WORK_ON_SUNDAY"));
+			hoursToCompleteTheWork = Integer.parseInt(required(args, "--hours=", "HOURS"));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: --headless --submission-date=yyyy-MM-dd [--work-on-sunday=true|false] --hours=<hours> [--export=<file>]");
+			return 2;
+		}
+		if (hoursToCompleteTheWork <= 0 || submissionDate.isBefore(LocalDate.now())) {
+			System.err.println("The submission date must not be in the past and the hours must be positive");
+			return 2;
+		}
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WorkScheduleCalendarApplication.class)
+				.web(WebApplicationType.NONE)
+				.lazyInitialization(true)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.properties("logging.level.root=warn")
+				.run(args)) {
+			ScheduleService scheduleService = context.getBean(ScheduleService.class);
+			String export = option(args, "--export=");
+			if (export == null) {
+				Schedule schedule = scheduleService.computeSchedule(submissionDate, workOnSunday, hoursToCompleteTheWork);
+				System.out.println(context.getBean(ObjectMapper.class).writeValueAsString(schedule));
+				return 0;
+			}
+			// an export places the work into the free time, so the schedule comes with its blocks
+			WorkBlocksSchedule schedule = scheduleService.computeWorkBlocks(submissionDate, workOnSunday, hoursToCompleteTheWork);
+			System.out.println(context.getBean(ObjectMapper.class).writeValueAsString(schedule.getSchedule()));
+			ScheduleExporter exporter = ScheduleExporter.forFile(Path.of(export));
+			try (FileChannel channel = FileChannel.open(Path.of(export), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				exporter.export(schedule.getSchedule().getDays(), schedule.getBlocks(), channel);
+			}
+			return 0;
+		} catch (IOException e) {
+			System.err.println("The schedule cannot be computed: " + e.getMessage());
+			return 1;
+		}
+	}
+
+	private static String required(String[] args, String prefix, String variable) {
+		String value = argumentOrEnvironment(args, prefix, variable);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing " + prefix + "<value> or " + variable);
+		}
+		return value;
+	}
 
-		calendarCalculations.calculateWorkLoadSituation(calendarWithPlans);
+	private static String argumentOrEnvironment(String[] args, String prefix, String variable) {
+		String value = option(args, prefix);
+		return (value != null) ? value : System.getenv(variable);
+	}
+
+	/**
+	 * Schedules all users of an event dump: --batch=users.jsonl --output=schedules.jsonl [--parallelism=8]
+	 */
+	private static void runBatch(String batchInput, String[] args) throws IOException {
+		String output = option(args, "--output=");
+		String parallelism = option(args, "--parallelism=");
+		BatchScheduler batchScheduler = new BatchScheduler(new CollectCalendarData(), new CalendarCalculations(),
+				(parallelism != null) ? Integer.parseInt(parallelism) : Runtime.getRuntime().availableProcessors());
+		BatchReport report = batchScheduler.run(Path.of(batchInput), Path.of((output != null) ? output : "schedules.jsonl"));
+		System.out.printf("%d users (%d failed) in %.2f s: %.1f users/s%n",
+				report.getUsers(), report.getFailedUsers(), report.getSeconds(), report.getUsersPerSecond());
+	}
 
-		calendarCalculations.generateWorkCalendar(calendarWithPlans, hoursToCompleteTheWork);
+	private static String option(String[] args, String prefix) {
+		for (String arg : args) {
+			if (arg.startsWith(prefix)) {
+				return arg.substring(prefix.length());
+			}
+		}
+		return null;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Places the hours to work of each day into concrete blocks of free slots of a {@link SlotBitmap}.
+ * Within the working hours of a day it first takes the free runs of at least the minimal block length, first fit,
+ * and only then the shorter gaps between meetings. The placed slots are occupied in the bitmap,
+ * so the blocks never overlap the busy time or each other.
+ */
+@Component
+public class WorkSlotPlacer {
+    private final Duration slot;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final Duration minBlock;
+
+    public WorkSlotPlacer() {
+        this(Duration.ofMinutes(15), LocalTime.of(8, 0), LocalTime.of(22, 0), Duration.ofHours(1));
+    }
+
+    /**
+     * @param slot The length of a slot of the bitmap, e.g. 15 minutes.
+     * @param dayStart The time of day the work may start, e.g. "08:00".
+     * @param dayEnd The time of day the work must end, e.g. "22:00"; "00:00" is the end of the day.
+     * @param minBlock The length of the blocks preferred over shorter gaps.
+     */
+    @Autowired
+    public WorkSlotPlacer(@Value("${schedule.blocks.slot:15m}") Duration slot,
+                          @Value("${schedule.blocks.day-start:08:00}") String dayStart,
+                          @Value("${schedule.blocks.day-end:22:00}") String dayEnd,
+                          @Value("${schedule.blocks.min-block:60m}") Duration minBlock) {
+        this(slot, LocalTime.parse(dayStart), LocalTime.parse(dayEnd), minBlock);
+    }
+
+    public WorkSlotPlacer(Duration slot, LocalTime dayStart, LocalTime dayEnd, Duration minBlock) {
+        if (!dayEnd.equals(LocalTime.MIDNIGHT) && !dayEnd.isAfter(dayStart)) {
+            throw new IllegalArgumentException("The working hours must end after they start: " + dayStart + "-" + dayEnd);
+        }
+        this.slot = slot;
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        this.minBlock = minBlock;
+    }
+
+    public Duration getSlot() {
+        return slot;
+    }
+
+    public LocalTime getDayStart() {
+        return dayStart;
+    }
+
+    public LocalTime getDayEnd() {
+        return dayEnd;
+    }
+
+    /**
+     * Places the hours to work of the days, rounded to whole slots.
+     *
+     * @param bitmap The busy time; the placed blocks are occupied in it.
+     * @param days The days of a schedule with their hours to work.
+     * @return The blocks ordered by their start; hours which do not fit into the free slots of their days are left out.
+     */
+    public List<WorkBlock> place(SlotBitmap bitmap, List<CalendarWithPlans> days) {
+        int slotMinutes = bitmap.getSlotMinutes();
+        int firstSlotOfDay = firstSlotOfDay(bitmap);
+        int endSlotOfDay = endSlotOfDay(bitmap);
+        int minBlockSlots = (int) Math.max(1, minBlock.toMinutes() / slotMinutes);
+        List<WorkBlock> blocks = new ArrayList<>();
+        for (CalendarWithPlans day : days) {
+            int slots = (int) Math.round(day.getHoursToWork() * 60 / slotMinutes);
+            long dayIndex = day.getDate().toEpochDay() - bitmap.getFirstDay().toEpochDay();
+            if (slots <= 0 || dayIndex < 0 || dayIndex >= bitmap.days()) {
+                continue;
+            }
+            int from = bitmap.slot((int) dayIndex, firstSlotOfDay);
+            int to = bitmap.slot((int) dayIndex, endSlotOfDay);
+            slots -= placeRuns(bitmap, from, to, slots, minBlockSlots, day.getDate(), blocks);
+            placeRuns(bitmap, from, to, slots, 1, day.getDate(), blocks);
+        }
+        blocks.sort(Comparator.comparing(WorkBlock::getStart));
+        return blocks;
+    }
+
+    /**
+     * The hours each day can take: its free slots within the working hours. Distributing the work within them
+     * lets every scheduled hour be placed.
+     *
+     * @param bitmap The busy time, with the past occupied.
+     * @return The free hours within the working hours of each day of the bitmap.
+     */
+    public double[] freeHours(SlotBitmap bitmap) {
+        int firstSlotOfDay = firstSlotOfDay(bitmap);
+        int endSlotOfDay = endSlotOfDay(bitmap);
+        double[] freeHours = new double[bitmap.days()];
+        for (int day = 0; day < freeHours.length; day++) {
+            freeHours[day] = bitmap.freeSlots(bitmap.slot(day, firstSlotOfDay), bitmap.slot(day, endSlotOfDay))
+                    * bitmap.getSlotMinutes() / 60d;
+        }
+        return freeHours;
+    }
+
+    private int firstSlotOfDay(SlotBitmap bitmap) {
+        int slotMinutes = bitmap.getSlotMinutes();
+        return (dayStart.toSecondOfDay() / 60 + slotMinutes - 1) / slotMinutes;
+    }
+
+    private int endSlotOfDay(SlotBitmap bitmap) {
+        return dayEnd.equals(LocalTime.MIDNIGHT) ? bitmap.getSlotsPerDay() : dayEnd.toSecondOfDay() / 60 / bitmap.getSlotMinutes();
+    }
+
+    private static int placeRuns(SlotBitmap bitmap, int from, int to, int slots, int minRun, LocalDate date, List<WorkBlock> blocks) {
+        int placed = 0;
+        while (placed < slots) {
+            int start = bitmap.findFreeRun(from, to, minRun);
+            if (start < 0) {
+                break;
+            }
+            int end = Math.min(bitmap.nextOccupied(start, to), start + slots - placed);
+            bitmap.occupy(start, end);
+            blocks.add(toBlock(bitmap, start, end, date));
+            placed += end - start;
+            from = end;
+        }
+        return placed;
+    }
+
+    private static WorkBlock toBlock(SlotBitmap bitmap, int start, int end, LocalDate date) {
+        int slotMinutes = bitmap.getSlotMinutes();
+        return new WorkBlock(date,
+                date.atStartOfDay().plusMinutes((long) (start % bitmap.getSlotsPerDay()) * slotMinutes),
+                date.atStartOfDay().plusMinutes((long) (start % bitmap.getSlotsPerDay() + end - start) * slotMinutes),
+                (end - start) * slotMinutes / 60d);
+    }
+}
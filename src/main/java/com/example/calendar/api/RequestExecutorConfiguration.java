@@ -0,0 +1,40 @@
+package com.example.calendar.api;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Chooses the threads which serve the HTTP requests.
+ * With api.executor=virtual each request runs on its own virtual thread when the JVM supports them (Java 21+),
+ * otherwise, and with the default api.executor=platform, Tomcat keeps its own thread pool.
+ */
+@Log4j2
+@Configuration(proxyBeanMethods = false)
+public class RequestExecutorConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> requestExecutorCustomizer(@Value("${api.executor:platform}") String executor) {
+        ExecutorService virtualThreads = "virtual".equalsIgnoreCase(executor) ? newVirtualThreadPerTaskExecutor() : null;
+        return protocolHandler -> {
+            if (virtualThreads != null) {
+                protocolHandler.setExecutor(virtualThreads);
+            }
+        };
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // Looked up reflectively so the application still builds and runs on Java 17.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21 or newer, requests are served by the Tomcat thread pool");
+            return null;
+        }
+    }
+}
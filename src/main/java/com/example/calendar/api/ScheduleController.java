@@ -0,0 +1,138 @@
+package com.example.calendar.api;
+
+import com.example.calendar.ScheduleCache;
+import com.example.calendar.ScheduleService;
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablesRequest;
+import com.example.calendar.dto.DeliverablesSchedule;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.ScheduleCacheStats;
+import com.example.calendar.dto.WorkBlocksSchedule;
+import com.example.calendar.export.ScheduleExporter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+
+/**
+ * HTTP API of the work schedule, i.e. GET /api/schedule?submissionDate=2023-06-30&amp;workOnSunday=false&amp;hours=120
+ */
+@Log4j2
+@RestController
+@RequestMapping("/api/schedule")
+public class ScheduleController {
+    private final ScheduleService scheduleService;
+    private final ScheduleCache scheduleCache;
+
+    public ScheduleController(ScheduleService scheduleService, ScheduleCache scheduleCache) {
+        this.scheduleService = scheduleService;
+        this.scheduleCache = scheduleCache;
+    }
+
+    @GetMapping
+    public Schedule schedule(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submissionDate,
+                             @RequestParam(defaultValue = "false") boolean workOnSunday,
+                             @RequestParam("hours") int hoursToCompleteTheWork) {
+        validate(submissionDate, hoursToCompleteTheWork);
+        try {
+            return scheduleService.computeSchedule(submissionDate, workOnSunday, hoursToCompleteTheWork);
+        } catch (IOException e) {
+            log.error("Calendar data cannot be collected: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Calendar data cannot be collected", e);
+        }
+    }
+
+    /**
+     * Places the work into concrete blocks of free time, i.e. GET /api/schedule/blocks?submissionDate=2023-06-30&amp;hours=120
+     */
+    @GetMapping("/blocks")
+    public WorkBlocksSchedule blocks(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submissionDate,
+                                     @RequestParam(defaultValue = "false") boolean workOnSunday,
+                                     @RequestParam("hours") int hoursToCompleteTheWork) {
+        validate(submissionDate, hoursToCompleteTheWork);
+        try {
+            return scheduleService.computeWorkBlocks(submissionDate, workOnSunday, hoursToCompleteTheWork);
+        } catch (IOException e) {
+            log.error("Calendar data cannot be collected: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Calendar data cannot be collected", e);
+        }
+    }
+
+    /**
+     * Streams the schedule with its work blocks as a file, i.e. GET /api/schedule/export?format=ics&amp;submissionDate=2023-06-30&amp;hours=120
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submissionDate,
+                                                        @RequestParam(defaultValue = "false") boolean workOnSunday,
+                                                        @RequestParam("hours") int hoursToCompleteTheWork,
+                                                        @RequestParam(defaultValue = "ics") String format) {
+        ScheduleExporter exporter;
+        try {
+            exporter = ScheduleExporter.forFormat(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        WorkBlocksSchedule schedule = blocks(submissionDate, workOnSunday, hoursToCompleteTheWork);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exporter.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"schedule." + exporter.getFileExtension() + "\"")
+                .body(outputStream -> exporter.export(schedule.getSchedule().getDays(), schedule.getBlocks(),
+                        Channels.newChannel(outputStream)));
+    }
+
+    /**
+     * Schedules several deliverables over the same free time, i.e. POST /api/schedule/deliverables with
+     * {"workOnSunday": false, "deliverables": [{"name": "Chapter 1", "hours": 40, "deadline": "2023-06-30", "priority": 1}]}
+     */
+    @PostMapping("/deliverables")
+    public DeliverablesSchedule deliverables(@RequestBody DeliverablesRequest request) {
+        if (request.getDeliverables() == null || request.getDeliverables().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "deliverables must not be empty");
+        }
+        for (Deliverable deliverable : request.getDeliverables()) {
+            if (deliverable.getDeadline() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "deadline is required: " + deliverable.getName());
+            }
+            if (!(deliverable.getHours() > 0)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "hours must be positive: " + deliverable.getName());
+            }
+            if (deliverable.getDeadline().isBefore(LocalDate.now())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "deadline must not be in the past: " + deliverable.getName());
+            }
+        }
+        try {
+            return scheduleService.computeDeliverablesSchedule(request.isWorkOnSunday(), request.getDeliverables());
+        } catch (IOException e) {
+            log.error("Calendar data cannot be collected: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Calendar data cannot be collected", e);
+        }
+    }
+
+    @GetMapping("/cache")
+    public ScheduleCacheStats cacheStats() {
+        return scheduleCache.getStats();
+    }
+
+    private static void validate(LocalDate submissionDate, int hoursToCompleteTheWork) {
+        if (hoursToCompleteTheWork <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "hours must be positive");
+        }
+        if (submissionDate.isBefore(LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "submissionDate must not be in the past");
+        }
+    }
+}
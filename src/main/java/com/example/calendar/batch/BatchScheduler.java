@@ -0,0 +1,191 @@
+package com.example.calendar.batch;
+
+import com.example.calendar.CalendarCalculations;
+import com.example.calendar.CollectCalendarData;
+import com.example.calendar.dto.BatchReport;
+import com.example.calendar.dto.DumpedEvent;
+import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.UserEvents;
+import com.example.calendar.dto.UserSchedule;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the schedules of all users of an event dump without any calendar access.
+ * Users are scheduled in parallel on a work-stealing pool, and at most a few users per thread
+ * are read ahead, so memory use is bounded whatever the size of the dump.
+ * Each result is written as one JSON line as soon as it is ready, in completion order.
+ */
+@Log4j2
+public class BatchScheduler {
+    private static final int USERS_IN_FLIGHT_PER_THREAD = 4;
+
+    private final CollectCalendarData collectCalendarData;
+    private final CalendarCalculations calendarCalculations;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+
+    public BatchScheduler(CollectCalendarData collectCalendarData, CalendarCalculations calendarCalculations, int parallelism) {
+        this.collectCalendarData = collectCalendarData;
+        this.calendarCalculations = calendarCalculations;
+        this.parallelism = parallelism;
+        this.objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    /**
+     * Schedules all users of the dump.
+     *
+     * @param input The .jsonl or .csv event dump.
+     * @param output The file the JSON lines of {@link UserSchedule} are written to.
+     * @return The counts and the throughput of the run.
+     * @throws IOException If the dump cannot be read or the output cannot be written.
+     */
+    public BatchReport run(Path input, Path output) throws IOException {
+        ExecutorService pool = Executors.newWorkStealingPool(parallelism);
+        Semaphore usersInFlight = new Semaphore(parallelism * USERS_IN_FLIGHT_PER_THREAD);
+        AtomicLong users = new AtomicLong();
+        AtomicLong failedUsers = new AtomicLong();
+        List<IOException> writeErrors = new ArrayList<>(1);
+        long startedAt = System.nanoTime();
+
+        try (EventDumpReader reader = new EventDumpReader(input, objectMapper);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            while (true) {
+                UserEvents user;
+                try {
+                    user = reader.next();
+                } catch (IllegalArgumentException e) {
+                    users.incrementAndGet();
+                    failedUsers.incrementAndGet();
+                    String userId = (reader.getLastUserId() != null) ? reader.getLastUserId() : "line " + reader.getLineNumber();
+                    write(writer, new UserSchedule(userId, null, e.getMessage()), writeErrors);
+                    continue;
+                }
+                if (user == null) {
+                    break;
+                }
+                acquire(usersInFlight);
+                users.incrementAndGet();
+                pool.execute(() -> {
+                    try {
+                        UserSchedule result = schedule(user);
+                        if (result.getError() != null) {
+                            failedUsers.incrementAndGet();
+                        }
+                        write(writer, result, writeErrors);
+                    } finally {
+                        usersInFlight.release();
+                    }
+                });
+            }
+            pool.shutdown();
+            awaitTermination(pool);
+            synchronized (writeErrors) {
+                if (!writeErrors.isEmpty()) {
+                    throw writeErrors.get(0);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        BatchReport report = new BatchReport(users.get(), failedUsers.get(), parallelism, seconds, users.get() / seconds);
+        log.info(String.format("Scheduled %d users (%d failed) on %d threads in %.2f s: %.1f users/s",
+                report.getUsers(), report.getFailedUsers(), parallelism, seconds, report.getUsersPerSecond()));
+        return report;
+    }
+
+    /**
+     * Runs the makePlans, generateNewCalendarWithPlans and generateWorkCalendar pipeline for one user.
+     *
+     * @param user The user's events and parameters.
+     * @return The user's schedule or the reason it could not be computed.
+     */
+    public UserSchedule schedule(UserEvents user) {
+        try {
+            List<InitialData> plans = new ArrayList<>(user.getEvents().size());
+            collectCalendarData.addPlans(toEvents(user.getEvents()), plans);
+            LocalDate startDate = (user.getStartDate() != null) ? user.getStartDate() : LocalDate.now();
+            Schedule schedule = calendarCalculations.computeSchedule(plans, startDate, user.getSubmissionDate(),
+                    user.isWorkOnSunday(), user.getHoursToCompleteTheWork());
+            return new UserSchedule(user.getUserId(), schedule, null);
+        } catch (RuntimeException e) {
+            return new UserSchedule(user.getUserId(), null, e.toString());
+        }
+    }
+
+    private static List<Event> toEvents(List<DumpedEvent> dumpedEvents) {
+        List<Event> events = new ArrayList<>(dumpedEvents.size());
+        for (DumpedEvent dumpedEvent : dumpedEvents) {
+            events.add(new Event()
+                    .setSummary(dumpedEvent.getSummary())
+                    .setStart(toEventDateTime(dumpedEvent.getStart()))
+                    .setEnd(toEventDateTime(dumpedEvent.getEnd())));
+        }
+        return events;
+    }
+
+    private static EventDateTime toEventDateTime(String value) {
+        DateTime dateTime = DateTime.parseRfc3339(value);
+        return dateTime.isDateOnly() ? new EventDateTime().setDate(dateTime) : new EventDateTime().setDateTime(dateTime);
+    }
+
+    private void write(BufferedWriter writer, UserSchedule result, List<IOException> writeErrors) {
+        try {
+            String line = objectMapper.writeValueAsString(result);
+            synchronized (writer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            synchronized (writeErrors) {
+                writeErrors.add(e);
+            }
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch run interrupted");
+        }
+    }
+
+    private static void awaitTermination(ExecutorService pool) throws IOException {
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch run interrupted");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.calendar.batch;
+
+import com.example.calendar.dto.DumpedEvent;
+import com.example.calendar.dto.UserEvents;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the users of a batch dump one at a time, so memory use does not depend on the size of the dump.
+ * <p>
+ * A .jsonl dump has one {@link UserEvents} object per line. A .csv dump has a header and one event per row:
+ * userId,startDate,submissionDate,workOnSunday,hoursToCompleteTheWork,summary,start,end.
+ * The rows of one user follow each other, a user without events has one row with empty event columns.
+ * A malformed row fails its whole user: the user's remaining rows are skipped and reading goes on with the next user.
+ */
+public class EventDumpReader implements Closeable {
+    private static final int CSV_COLUMNS = 8;
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private long lineNumber;
+    private List<String> pendingRow;
+    private String lastUserId;
+
+    public EventDumpReader(Path dump, ObjectMapper objectMapper) throws IOException {
+        this.reader = Files.newBufferedReader(dump, StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+        this.csv = dump.getFileName().toString().toLowerCase().endsWith(".csv");
+        if (csv) {
+            readLine(); // header
+        }
+    }
+
+    /**
+     * Reads the next user.
+     *
+     * @return The next user or null at the end of the dump.
+     * @throws IOException If the dump cannot be read.
+     * @throws IllegalArgumentException If the user's data is malformed; reading can go on with the next user.
+     */
+    public UserEvents next() throws IOException {
+        return csv ? nextCsvUser() : nextJsonUser();
+    }
+
+    /**
+     * @return The number of the last line read.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return The ID of the last CSV user read, also when the user is malformed; null for a .jsonl dump.
+     */
+    public String getLastUserId() {
+        return lastUserId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private UserEvents nextJsonUser() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        try {
+            return objectMapper.readValue(line, UserEvents.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed user on line " + lineNumber + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private UserEvents nextCsvUser() throws IOException {
+        List<String> row = (pendingRow != null) ? pendingRow : readCsvRow();
+        pendingRow = null;
+        if (row == null) {
+            return null;
+        }
+        String userId = row.get(0);
+        lastUserId = userId;
+        UserEvents user = new UserEvents();
+        IllegalArgumentException error = null;
+        try {
+            checkColumns(row);
+            user.setUserId(userId);
+            user.setStartDate(row.get(1).isEmpty() ? null : LocalDate.parse(row.get(1)));
+            user.setSubmissionDate(LocalDate.parse(row.get(2)));
+            user.setWorkOnSunday(Boolean.parseBoolean(row.get(3)));
+            user.setHoursToCompleteTheWork(Integer.parseInt(row.get(4)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            error = malformed(userId, e);
+        }
+        // all rows of the user are read, also after an error, so the next user starts at its own first row
+        while (row != null && row.get(0).equals(userId)) {
+            if (error == null) {
+                try {
+                    checkColumns(row);
+                    if (!row.get(6).isEmpty()) {
+                        user.getEvents().add(new DumpedEvent(row.get(5), row.get(6), row.get(7)));
+                    }
+                } catch (IllegalArgumentException e) {
+                    error = malformed(userId, e);
+                }
+            }
+            row = readCsvRow();
+        }
+        pendingRow = row;
+        if (error != null) {
+            throw error;
+        }
+        return user;
+    }
+
+    private List<String> readCsvRow() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        return parseCsvLine(line);
+    }
+
+    private void checkColumns(List<String> row) {
+        if (row.size() != CSV_COLUMNS) {
+            throw new IllegalArgumentException(row.size() + " columns instead of " + CSV_COLUMNS);
+        }
+    }
+
+    private IllegalArgumentException malformed(String userId, RuntimeException cause) {
+        return new IllegalArgumentException("Malformed user " + userId + " on line " + lineNumber + ": " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Splits a CSV line, fields may be quoted with doubled quotes inside.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchReport {
+    private long users;
+    private long failedUsers;
+    private int parallelism;
+    private double seconds;
+    private double usersPerSecond;
+}
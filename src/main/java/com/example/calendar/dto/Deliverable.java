@@ -0,0 +1,22 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A piece of work with its own deadline, i.e. one chapter of a thesis or one course project.
+ * A higher priority is more important; the earliest start is optional.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class Deliverable {
+    private String name;
+    private double hours;
+    private LocalDate deadline;
+    private int priority;
+    private LocalDate earliestStart;
+}
@@ -0,0 +1,26 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * The work scheduled for one deliverable: the hours of each date, the date it is finished
+ * and the hours which do not fit before its deadline. An infeasible deliverable has shortfall hours.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DeliverablePlan {
+    private String name;
+    private LocalDate deadline;
+    private int priority;
+    private double scheduledHours;
+    private double shortfallHours;
+    private LocalDate finishDate;
+    private boolean feasible;
+    private Map<LocalDate, Double> hoursByDate;
+}
@@ -0,0 +1,15 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DeliverablesRequest {
+    private boolean workOnSunday;
+    private List<Deliverable> deliverables;
+}
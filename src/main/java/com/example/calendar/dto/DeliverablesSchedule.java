@@ -0,0 +1,23 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DeliverablesSchedule {
+    private LocalDate lastDeadline;
+    private boolean workOnSunday;
+    private double availableHoursToWork;
+    private double scheduledHours;
+    private double shortfallHours;
+    private List<CalendarWithPlans> days;
+    private List<CalendarWithPlans> overloadedDays;
+    private List<DeliverablePlan> deliverables;
+    private List<String> infeasibleDeliverables;
+}
@@ -0,0 +1,17 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event of a batch dump. Start and end are RFC 3339 date-times or dates of all-day events.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DumpedEvent {
+    private String summary;
+    private String start;
+    private String end;
+}
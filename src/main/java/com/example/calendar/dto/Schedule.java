@@ -0,0 +1,22 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class Schedule {
+    private LocalDate submissionDate;
+    private boolean workOnSunday;
+    private int hoursToCompleteTheWork;
+    private double availableHoursToWork;
+    private double scheduledHours;
+    private double shortfallHours;
+    private List<CalendarWithPlans> days;
+    private List<CalendarWithPlans> overloadedDays;
+}
@@ -0,0 +1,31 @@
+package com.example.calendar.dto;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.util.Key;
+import com.google.api.services.calendar.model.Event;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Local copy of the events of one calendar together with the token of the next incremental sync.
+ */
+@Getter
+@Setter
+public class SyncedEvents extends GenericJson {
+    @Key
+    private String syncToken;
+    @Key
+    private DateTime timeMin;
+    @Key
+    private DateTime timeMax;
+    @Key
+    private List<Event> items;
+    /**
+     * False when the recurring events are stored instead of their instances; null in stores written before the option.
+     */
+    @Key
+    private Boolean singleEvents;
+}
@@ -0,0 +1,25 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events and scheduling parameters of one user in a batch dump.
+ * Without a start date the schedule starts today.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class UserEvents {
+    private String userId;
+    private LocalDate startDate;
+    private LocalDate submissionDate;
+    private boolean workOnSunday;
+    private int hoursToCompleteTheWork;
+    private List<DumpedEvent> events = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one user in a batch run: the schedule or the reason it could not be computed.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class UserSchedule {
+    private String userId;
+    private Schedule schedule;
+    private String error;
+}
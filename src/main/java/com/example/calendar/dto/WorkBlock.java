@@ -0,0 +1,21 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A concrete block of work in the free time of a day, in the user's local time.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class WorkBlock {
+    private LocalDate date;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private double hours;
+}
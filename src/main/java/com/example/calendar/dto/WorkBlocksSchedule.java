@@ -0,0 +1,19 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A schedule with its work placed into concrete blocks; the unplaced hours do not fit into the free slots of their days.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class WorkBlocksSchedule {
+    private Schedule schedule;
+    private List<WorkBlock> blocks;
+    private double unplacedHours;
+}
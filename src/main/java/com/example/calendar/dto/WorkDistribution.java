@@ -0,0 +1,13 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class WorkDistribution {
+    private double scheduledHours;
+    private double shortfallHours;
+}
@@ -0,0 +1,17 @@
+package com.example.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class WriteBackReport {
+    private int created;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+    private int failed;
+    private int batches;
+}
@@ -0,0 +1,118 @@
+package com.example.calendar.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * Writes ASCII text straight into a fixed buffer and drains it to the channel whenever it fills up,
+ * so a document of any length takes the same memory. Numbers and dates are written digit by digit
+ * instead of being formatted to strings first.
+ */
+final class ChannelWriter {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    ChannelWriter ascii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            ensure(1);
+            buffer.put((byte) text.charAt(i));
+        }
+        return this;
+    }
+
+    ChannelWriter ascii(char character) throws IOException {
+        ensure(1);
+        buffer.put((byte) character);
+        return this;
+    }
+
+    /**
+     * Writes a non-negative number with at least the given number of digits, padded with zeros.
+     */
+    ChannelWriter number(long value, int minDigits) throws IOException {
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        ensure(Math.max(length, minDigits));
+        for (int i = length; i < minDigits; i++) {
+            buffer.put((byte) '0');
+        }
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+        return this;
+    }
+
+    ChannelWriter number(long value) throws IOException {
+        if (value < 0) {
+            ascii('-');
+            value = -value;
+        }
+        return number(value, 1);
+    }
+
+    /**
+     * Writes a number rounded to two decimals, without the trailing zeros of the fraction.
+     */
+    ChannelWriter decimal(double value) throws IOException {
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            ascii('-');
+            hundredths = -hundredths;
+        }
+        number(hundredths / 100, 1);
+        long fraction = hundredths % 100;
+        if (fraction != 0) {
+            ascii('.');
+            if (fraction % 10 == 0) {
+                number(fraction / 10, 1);
+            } else {
+                number(fraction, 2);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the date as yyyy-MM-dd, or as yyyyMMdd when separator is 0.
+     */
+    ChannelWriter date(LocalDate date, char separator) throws IOException {
+        number(date.getYear(), 4);
+        if (separator != 0) {
+            ascii(separator);
+        }
+        number(date.getMonthValue(), 2);
+        if (separator != 0) {
+            ascii(separator);
+        }
+        return number(date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Drains the buffer to the channel; the channel is left open.
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.calendar.export;
+
+import com.example.calendar.dto.CalendarWithPlans;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Exports the schedule as CSV, one row per day: date,dayOfWeek,hoursPlanned,hoursToWork
+ */
+public class CsvScheduleExporter implements ScheduleExporter {
+    public static final String HEADER = "date,dayOfWeek,hoursPlanned,hoursToWork";
+
+    @Override
+    public void export(List<CalendarWithPlans> days, WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        writer.ascii(HEADER).ascii('\n');
+        for (CalendarWithPlans day : days) {
+            writer.date(day.getDate(), '-').ascii(',')
+                    .ascii(day.getDayOfWeek().name()).ascii(',')
+                    .decimal(day.getHoursPlanned()).ascii(',')
+                    .decimal(day.getHoursToWork()).ascii('\n');
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+}
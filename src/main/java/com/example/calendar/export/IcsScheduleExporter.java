@@ -0,0 +1,102 @@
+package com.example.calendar.export;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Exports the schedule as an iCalendar (RFC 5545) document.
+ * With the work blocks placed by {@link com.example.calendar.WorkSlotPlacer} it writes one VEVENT per block,
+ * in floating local time, so the calendar that imports it shows the block at the same hour in any time zone.
+ * Without them it writes a day-level summary: one transparent all-day VEVENT per day with hours to work,
+ * which tells how much to work that day without claiming a time of it.
+ * The UID of a day is its date and the UID of a block is its date and number within the day, as the blocks written
+ * back to Google Calendar, so importing a new schedule again updates the old events even when a block has moved.
+ */
+public class IcsScheduleExporter implements ScheduleExporter {
+    private static final String CRLF = "\r\n";
+    private static final String UID_SUFFIX = "-work@work-schedule-calendar";
+
+    @Override
+    public void export(List<CalendarWithPlans> days, WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = begin(channel);
+        LocalDateTime stamp = LocalDateTime.now(ZoneOffset.UTC);
+        for (CalendarWithPlans day : days) {
+            if (Math.round(day.getHoursToWork() * 60) <= 0) {
+                continue;
+            }
+            writer.ascii("BEGIN:VEVENT").ascii(CRLF)
+                    .ascii("UID:").date(day.getDate(), (char) 0).ascii(UID_SUFFIX).ascii(CRLF);
+            stamp(writer, stamp)
+                    .ascii("DTSTART;VALUE=DATE:").date(day.getDate(), (char) 0).ascii(CRLF)
+                    .ascii("DTEND;VALUE=DATE:").date(day.getDate().plusDays(1), (char) 0).ascii(CRLF)
+                    .ascii("SUMMARY:Work ").decimal(day.getHoursToWork()).ascii(" h").ascii(CRLF)
+                    .ascii("TRANSP:TRANSPARENT").ascii(CRLF)
+                    .ascii("END:VEVENT").ascii(CRLF);
+        }
+        end(writer);
+    }
+
+    @Override
+    public void export(List<CalendarWithPlans> days, List<WorkBlock> blocks, WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = begin(channel);
+        LocalDateTime stamp = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDate date = null;
+        int number = 0;
+        for (WorkBlock block : blocks) {
+            number = block.getDate().equals(date) ? number + 1 : 1;
+            date = block.getDate();
+            writer.ascii("BEGIN:VEVENT").ascii(CRLF)
+                    .ascii("UID:").date(date, (char) 0).ascii('#').number(number).ascii(UID_SUFFIX).ascii(CRLF);
+            stamp(writer, stamp)
+                    .ascii("DTSTART:");
+            dateTime(writer, block.getStart()).ascii(CRLF)
+                    .ascii("DTEND:");
+            dateTime(writer, block.getEnd()).ascii(CRLF)
+                    .ascii("SUMMARY:Work ").decimal(block.getHours()).ascii(" h").ascii(CRLF)
+                    .ascii("TRANSP:OPAQUE").ascii(CRLF)
+                    .ascii("END:VEVENT").ascii(CRLF);
+        }
+        end(writer);
+    }
+
+    private static ChannelWriter begin(WritableByteChannel channel) throws IOException {
+        return new ChannelWriter(channel)
+                .ascii("BEGIN:VCALENDAR").ascii(CRLF)
+                .ascii("VERSION:2.0").ascii(CRLF)
+                .ascii("PRODID:-//WorkScheduleCalendarApplication//Work schedule//EN").ascii(CRLF)
+                .ascii("CALSCALE:GREGORIAN").ascii(CRLF);
+    }
+
+    private static void end(ChannelWriter writer) throws IOException {
+        writer.ascii("END:VCALENDAR").ascii(CRLF);
+        writer.flush();
+    }
+
+    private static ChannelWriter stamp(ChannelWriter writer, LocalDateTime stamp) throws IOException {
+        writer.ascii("DTSTAMP:");
+        return dateTime(writer, stamp).ascii('Z').ascii(CRLF);
+    }
+
+    private static ChannelWriter dateTime(ChannelWriter writer, LocalDateTime dateTime) throws IOException {
+        LocalDate date = dateTime.toLocalDate();
+        return writer.date(date, (char) 0).ascii('T')
+                .number(dateTime.getHour(), 2).number(dateTime.getMinute(), 2).number(0, 2);
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/calendar";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ics";
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.calendar.export;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams a computed work schedule to a channel: a file, an HTTP response or anything else.
+ * The document is written through a fixed buffer as the days are read, it is never built in memory.
+ */
+public interface ScheduleExporter {
+
+    /**
+     * Writes the days of the schedule. The channel is not closed.
+     *
+     * @param days The days of the schedule in order, i.e. Schedule.getDays() or ScheduleTimeline.toCalendarWithPlans().
+     * @param channel The channel the document is written to.
+     * @throws IOException If the channel cannot be written.
+     */
+    void export(List<CalendarWithPlans> days, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Writes the days of the schedule with the work blocks placed into their free time.
+     * A format without times of day writes the days only. The channel is not closed.
+     *
+     * @param days The days of the schedule in order.
+     * @param blocks The work blocks of the days ordered by their start, i.e. WorkBlocksSchedule.getBlocks().
+     * @param channel The channel the document is written to.
+     * @throws IOException If the channel cannot be written.
+     */
+    default void export(List<CalendarWithPlans> days, List<WorkBlock> blocks, WritableByteChannel channel) throws IOException {
+        export(days, channel);
+    }
+
+    /**
+     * @return The media type of the document.
+     */
+    String getContentType();
+
+    /**
+     * @return The file extension of the document, without the dot.
+     */
+    String getFileExtension();
+
+    /**
+     * @param format "ics" or "csv".
+     * @return The exporter of the format.
+     * @throws IllegalArgumentException If the format is not known.
+     */
+    static ScheduleExporter forFormat(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "ics" -> new IcsScheduleExporter();
+            case "csv" -> new CsvScheduleExporter();
+            default -> throw new IllegalArgumentException("Unknown export format: " + format);
+        };
+    }
+
+    /**
+     * @param file A file whose extension is .ics or .csv.
+     * @return The exporter of the file's format.
+     * @throws IllegalArgumentException If the extension is not known.
+     */
+    static ScheduleExporter forFile(Path file) {
+        String name = file.getFileName().toString();
+        return forFormat(name.substring(name.lastIndexOf('.') + 1));
+    }
+}
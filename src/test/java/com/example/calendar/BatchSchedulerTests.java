@@ -0,0 +1,81 @@
+package com.example.calendar;
+
+import com.example.calendar.batch.BatchScheduler;
+import com.example.calendar.dto.BatchReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSchedulerTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void schedulesEveryUserOfJsonLinesDump() throws IOException {
+		Path dump = Files.writeString(directory.resolve("users.jsonl"), """
+				{"userId":"anna","startDate":"2023-06-05","submissionDate":"2023-06-11","workOnSunday":true,"hoursToCompleteTheWork":14,"events":[{"summary":"Exam","start":"2023-06-06T09:00:00+03:00","end":"2023-06-06T12:00:00+03:00"}]}
+				not json
+				{"userId":"jonas","startDate":"2023-06-05","submissionDate":"2023-06-18","workOnSunday":false,"hoursToCompleteTheWork":24,"events":[]}
+				""");
+		Path output = directory.resolve("schedules.jsonl");
+
+		BatchReport report = new BatchScheduler(new CollectCalendarData(), new CalendarCalculations(), 2).run(dump, output);
+
+		List<String> lines = Files.readAllLines(output);
+		assertEquals(3, report.getUsers());
+		assertEquals(1, report.getFailedUsers());
+		assertEquals(3, lines.size());
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"anna\"") && line.contains("\"scheduledHours\":14")));
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"jonas\"") && line.contains("\"scheduledHours\":24")));
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"line 2\"") && line.contains("Malformed user")));
+	}
+
+	@Test
+	void groupsCsvRowsByUser() throws IOException {
+		Path dump = Files.writeString(directory.resolve("users.csv"), """
+				userId,startDate,submissionDate,workOnSunday,hoursToCompleteTheWork,summary,start,end
+				anna,2023-06-05,2023-06-11,true,14,"Exam, written",2023-06-06T09:00:00+03:00,2023-06-06T12:00:00+03:00
+				anna,2023-06-05,2023-06-11,true,14,Gym,2023-06-07T18:00:00+03:00,2023-06-07T19:00:00+03:00
+				jonas,2023-06-05,2023-06-18,false,24,,,
+				""");
+		Path output = directory.resolve("schedules.jsonl");
+
+		BatchReport report = new BatchScheduler(new CollectCalendarData(), new CalendarCalculations(), 1).run(dump, output);
+
+		String schedules = Files.readString(output);
+		assertEquals(2, report.getUsers());
+		assertEquals(0, report.getFailedUsers());
+		assertTrue(schedules.contains("\"availableHoursToWork\":108.0"));
+	}
+
+	@Test
+	void failsOnlyTheUserOfMalformedCsvRows() throws IOException {
+		Path dump = Files.writeString(directory.resolve("users.csv"), """
+				userId,startDate,submissionDate,workOnSunday,hoursToCompleteTheWork,summary,start,end
+				anna,2023-06-05,2023-06-11,true,14,Exam,2023-06-06T09:00:00+03:00,2023-06-06T12:00:00+03:00
+				anna,2023-06-05,2023-06-11,true,14,Gym,broken
+				anna,2023-06-05,2023-06-11,true,14,Lecture,2023-06-08T09:00:00+03:00,2023-06-08T10:00:00+03:00
+				petras,2023-06-05,2023-13-40,true,14,,,
+				jonas,2023-06-05,2023-06-18,false,24,,,
+				""");
+		Path output = directory.resolve("schedules.jsonl");
+
+		BatchReport report = new BatchScheduler(new CollectCalendarData(), new CalendarCalculations(), 1).run(dump, output);
+
+		List<String> lines = Files.readAllLines(output);
+		assertEquals(3, report.getUsers());
+		assertEquals(2, report.getFailedUsers());
+		assertEquals(3, lines.size());
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"anna\"") && line.contains("line 3")));
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"petras\"") && line.contains("line 5")));
+		assertTrue(lines.stream().anyMatch(line -> line.contains("\"userId\":\"jonas\"") && line.contains("\"scheduledHours\":24")));
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class BusyTimeSweepTests {
+
+	private final ZoneId vilnius = ZoneId.of("Europe/Vilnius");
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+
+	@Test
+	void countsOverlappingEventsOnce() {
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		busyTime.add(timed(monday, 9, 0, monday, 11, 0));
+		busyTime.add(timed(monday, 10, 0, monday, 12, 0));
+		busyTime.add(timed(monday, 10, 30, monday, 10, 45));
+		busyTime.add(timed(monday, 14, 0, monday, 15, 30));
+
+		List<InitialData> busyDays = busyTime.busyDays();
+
+		assertEquals(1, busyDays.size());
+		assertEquals(monday, busyDays.get(0).getDate());
+		assertEquals(4.5, busyDays.get(0).getDuration(), 1e-9);
+	}
+
+	@Test
+	void splitsEventsAtMidnightOfTheTimeZone() {
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		busyTime.add(timed(monday, 22, 0, monday.plusDays(2), 3, 0));
+
+		List<InitialData> busyDays = busyTime.busyDays();
+
+		assertEquals(3, busyDays.size());
+		assertEquals(2, busyDays.get(0).getDuration(), 1e-9);
+		assertEquals(24, busyDays.get(1).getDuration(), 1e-9);
+		assertEquals(monday.plusDays(2), busyDays.get(2).getDate());
+		assertEquals(3, busyDays.get(2).getDuration(), 1e-9);
+	}
+
+	@Test
+	void blocksWholeDaysOfAllDayEventsAndSkipsFreeOnes() {
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		busyTime.add(new Event()
+				.setStart(new EventDateTime().setDate(new DateTime(monday.toString())))
+				.setEnd(new EventDateTime().setDate(new DateTime(monday.plusDays(1).toString()))));
+		assertFalse(busyTime.add(timed(monday.plusDays(1), 9, 0, monday.plusDays(1), 10, 0).setTransparency("transparent")));
+
+		List<InitialData> busyDays = busyTime.busyDays();
+
+		assertEquals(1, busyDays.size());
+		assertEquals(monday, busyDays.get(0).getDate());
+		assertEquals(24, busyDays.get(0).getDuration(), 1e-9);
+	}
+
+	private Event timed(LocalDate startDate, int startHour, int startMinute, LocalDate endDate, int endHour, int endMinute) {
+		return new Event()
+				.setStart(new EventDateTime().setDateTime(dateTime(startDate, startHour, startMinute)))
+				.setEnd(new EventDateTime().setDateTime(dateTime(endDate, endHour, endMinute)));
+	}
+
+	private DateTime dateTime(LocalDate date, int hour, int minute) {
+		return new DateTime(ZonedDateTime.of(date.atTime(hour, minute), vilnius).toInstant().toEpochMilli());
+	}
+}
@@ -0,0 +1,23 @@
+package com.example.calendar;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = CalendarClient.class,
+		properties = {"calendar.client.max-connections=7", "calendar.client.token-refresh-margin=2m"})
+class CalendarClientTests {
+
+	@Autowired
+	private CalendarClient calendarClient;
+
+	@Test
+	void bindsTheClientSettingsOfTheProperties() {
+		assertEquals(7, calendarClient.getMaxConnections());
+		assertEquals(Duration.ofMinutes(2), calendarClient.getTokenRefreshMargin());
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectCalendarDataTests {
+	private static final long HOUR = 3_600_000L;
+
+	@Test
+	void collectsPlansPageByPageFromTheEventSource() throws IOException {
+		ZoneId zoneId = ZoneId.of("Europe/Vilnius");
+		LocalDate submissionDate = LocalDate.now(zoneId).plusDays(10);
+		long start = LocalDate.now(zoneId).plusDays(1).atTime(8, 0).atZone(zoneId).toInstant().toEpochMilli();
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			long eventStart = start + (i / 5) * 24 * HOUR + (i % 5) * 2 * HOUR;
+			events.add(new Event().setId("e" + i)
+					.setStart(new EventDateTime().setDateTime(new DateTime(eventStart)))
+					.setEnd(new EventDateTime().setDateTime(new DateTime(eventStart + HOUR))));
+		}
+		FakeCalendarServer server = new FakeCalendarServer();
+		server.putAll(events);
+		server.setPageSize(6);
+		List<Integer> pageSizes = new ArrayList<>();
+
+		try (FakeServerEventSource source = new FakeServerEventSource(server, new PagedEventFetcher(), Duration.ofMillis(1))) {
+			CollectCalendarData collectCalendarData = new CollectCalendarData(source, zoneId);
+			List<InitialData> plans = collectCalendarData.collectPlans(submissionDate, page -> pageSizes.add(page.size()));
+
+			assertEquals(7, pageSizes.size());
+			assertTrue(pageSizes.stream().allMatch(size -> size <= 6));
+			assertEquals(collectCalendarData.makePlans(events, submissionDate), plans);
+			assertEquals(8, plans.size());
+			assertEquals(5, plans.get(0).getDuration(), 1e-9);
+		}
+	}
+
+	@Test
+	void collectsUpToTheSubmissionDateInTheUsersTimeZone() throws IOException {
+		for (ZoneId zoneId : List.of(ZoneId.of("Pacific/Kiritimati"), ZoneId.of("Pacific/Pago_Pago"))) {
+			LocalDate submissionDate = LocalDate.now(zoneId).plusDays(3);
+			long startOfSubmissionDate = submissionDate.atStartOfDay(zoneId).toInstant().toEpochMilli();
+			List<Long> timeMaxes = new ArrayList<>();
+			EventSource source = new EventSource() {
+				@Override
+				public List<Event> fetchEvents(DateTime timeMin, DateTime timeMax) {
+					timeMaxes.add(timeMax.getValue());
+					return List.of();
+				}
+
+				@Override
+				public void collectBusyTime(DateTime timeMin, DateTime timeMax, SlotBitmap bitmap) {
+					timeMaxes.add(timeMax.getValue());
+				}
+			};
+			CollectCalendarData collectCalendarData = new CollectCalendarData(source, zoneId);
+
+			collectCalendarData.collectPlans(submissionDate);
+			collectCalendarData.collectBusySlots(submissionDate, Duration.ofMinutes(15));
+
+			assertEquals(List.of(startOfSubmissionDate, startOfSubmissionDate), timeMaxes);
+		}
+	}
+}
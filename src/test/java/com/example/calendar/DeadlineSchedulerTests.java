@@ -0,0 +1,106 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.Deliverable;
+import com.example.calendar.dto.DeliverablePlan;
+import com.example.calendar.dto.DeliverablesSchedule;
+import com.example.calendar.dto.InitialData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineSchedulerTests {
+
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+	private final DeadlineScheduler scheduler = new DeadlineScheduler(Duration.ofHours(1), 8);
+
+	@Test
+	void worksOnTheEarliestDeadlineFirst() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[4], true);
+
+		List<DeliverablePlan> plans = scheduler.schedule(timeline, 16, List.of(
+				new Deliverable("Thesis", 10, monday.plusDays(3), 0, null),
+				new Deliverable("Slides", 6, monday, 0, null)));
+
+		assertTrue(plans.get(0).isFeasible());
+		assertTrue(plans.get(1).isFeasible());
+		assertEquals(monday.plusDays(1), plans.get(0).getFinishDate());
+		assertEquals(monday, plans.get(1).getFinishDate());
+		assertEquals(Map.of(monday, 2.0, monday.plusDays(1), 8.0), plans.get(0).getHoursByDate());
+		assertEquals(8, timeline.hoursToWork(0));
+		assertEquals(8, timeline.hoursToWork(1));
+		assertEquals(0, timeline.hoursToWork(2));
+	}
+
+	@Test
+	void waitsForTheEarliestStart() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[]{0, 0, 14, 0}, true);
+
+		List<DeliverablePlan> plans = scheduler.schedule(timeline, 16, List.of(
+				new Deliverable("Review", 4, monday.plusDays(3), 0, monday.plusDays(2))));
+
+		assertTrue(plans.get(0).isFeasible());
+		assertEquals(Map.of(monday.plusDays(2), 2.0, monday.plusDays(3), 2.0), plans.get(0).getHoursByDate());
+		assertEquals(0, timeline.hoursToWork(0));
+	}
+
+	@Test
+	void setsAsideTheLeastImportantDeliverableWhenOverloaded() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[2], true);
+
+		List<DeliverablePlan> plans = scheduler.schedule(timeline, 16, List.of(
+				new Deliverable("Optional", 10, monday.plusDays(1), 1, null),
+				new Deliverable("Required", 10, monday.plusDays(1), 2, null)));
+
+		DeliverablePlan optional = plans.get(0);
+		assertFalse(optional.isFeasible());
+		assertEquals(6, optional.getScheduledHours());
+		assertEquals(4, optional.getShortfallHours());
+		assertNull(optional.getFinishDate());
+		assertTrue(plans.get(1).isFeasible());
+		assertEquals(monday.plusDays(1), plans.get(1).getFinishDate());
+	}
+
+	@Test
+	void setsAsideByTheFreeTimeAfterTheEarliestStart() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[5], true);
+
+		// 26 hours released on Wednesday and due by Friday do not fit its 24, though the whole week has 40
+		List<DeliverablePlan> plans = scheduler.schedule(timeline, 16, List.of(
+				new Deliverable("Review", 10, monday.plusDays(3), 1, monday.plusDays(2)),
+				new Deliverable("Audit", 16, monday.plusDays(4), 2, monday.plusDays(2))));
+
+		DeliverablePlan review = plans.get(0);
+		assertFalse(review.isFeasible());
+		assertEquals(Map.of(monday.plusDays(4), 8.0), review.getHoursByDate());
+		DeliverablePlan audit = plans.get(1);
+		assertTrue(audit.isFeasible());
+		assertEquals(Map.of(monday.plusDays(2), 8.0, monday.plusDays(3), 8.0), audit.getHoursByDate());
+	}
+
+	@Test
+	void computesTheDeliverablesScheduleOverThePlans() {
+		CalendarCalculations calendarCalculations = new CalendarCalculations(new WorkDistributor(), scheduler);
+
+		DeliverablesSchedule schedule = calendarCalculations.computeDeliverablesSchedule(
+				List.of(new InitialData("Conference", monday.plusDays(1), 17)), monday, List.of(
+						new Deliverable("Slides", 6, monday, 0, null),
+						new Deliverable("Thesis", 20, monday.plusDays(2), 0, null)), true);
+
+		assertEquals(monday.plusDays(2), schedule.getLastDeadline());
+		assertEquals(3, schedule.getDays().size());
+		assertEquals(1, schedule.getOverloadedDays().size());
+		assertEquals(monday.plusDays(1), schedule.getOverloadedDays().get(0).getDate());
+		assertEquals(List.of("Thesis"), schedule.getInfeasibleDeliverables());
+		assertEquals(16, schedule.getScheduledHours());
+		assertEquals(10, schedule.getShortfallHours());
+		assertTrue(schedule.getDeliverables().get(0).isFeasible());
+	}
+}
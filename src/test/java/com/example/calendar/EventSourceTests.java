@@ -0,0 +1,145 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.util.store.DataStoreFactory;
+import com.google.api.client.util.store.MemoryDataStoreFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSourceTests {
+	private static final long HOUR = 3_600_000L;
+	private static final long START = 1_700_000_000_000L;
+
+	@Test
+	void replaysRecordedSnapshot(@TempDir Path directory) throws IOException {
+		Path snapshot = directory.resolve("calendar.jsonl");
+		List<Event> recorded = new ArrayList<>(events(5));
+		recorded.add(0, event("late", START + 10 * HOUR));
+		recorded.add(new Event().setId("gone").setStatus("cancelled"));
+		recorded.add(new Event().setId("holiday")
+				.setStart(new EventDateTime().setDate(new DateTime(true, START, 0)))
+				.setEnd(new EventDateTime().setDate(new DateTime(true, START + 24 * HOUR, 0))));
+		SnapshotEventSource.save(recorded, snapshot);
+
+		List<Event> events = SnapshotEventSource.load(snapshot).fetchEvents(new DateTime(START + HOUR), new DateTime(START + 4 * HOUR));
+
+		assertEquals(List.of("holiday", "e1", "e2", "e3"), events.stream().map(Event::getId).toList());
+	}
+
+	@Test
+	void fakeServerSourceRetriesRateLimitsAndErrors() throws IOException {
+		FakeCalendarServer server = new FakeCalendarServer();
+		server.putAll(events(100));
+		server.setPageSize(5);
+		server.setRateLimitRate(0.25);
+		server.setErrorRate(0.25);
+
+		try (FakeServerEventSource source = new FakeServerEventSource(server, new PagedEventFetcher(), Duration.ofMillis(1))) {
+			List<Event> events = source.fetchEvents(new DateTime(START), new DateTime(START + 200 * HOUR));
+
+			assertEquals(100, events.size());
+			assertEquals("e0", events.get(0).getId());
+			assertEquals("e99", events.get(99).getId());
+			assertTrue(server.getRateLimitsServed() > 0);
+			assertTrue(server.getErrorsServed() > 0);
+		}
+	}
+
+	@Test
+	void freeBusyQueryMarksTheSameBusyTimeAsTheEvents() throws IOException {
+		ZoneId zoneId = ZoneId.of("UTC");
+		LocalDate firstDay = LocalDate.ofEpochDay(Math.floorDiv(START, 24 * HOUR));
+		List<Event> events = new ArrayList<>(events(30));
+		events.add(event("overlapping", START + HOUR / 2));
+		events.add(event("free", START + 40 * HOUR).setTransparency("transparent"));
+		FakeCalendarServer server = new FakeCalendarServer();
+		server.putAll(events);
+		SlotBitmap fromEvents = new SlotBitmap(firstDay, firstDay.plusDays(3), Duration.ofMinutes(15), zoneId);
+		SlotBitmap fromFreeBusy = new SlotBitmap(firstDay, firstDay.plusDays(3), Duration.ofMinutes(15), zoneId);
+
+		try (FakeServerEventSource source = new FakeServerEventSource(server, new PagedEventFetcher(), Duration.ofMillis(1))) {
+			fromEvents.markBusy(source.fetchEvents(new DateTime(fromEvents.startMillis()), new DateTime(fromEvents.endMillis())));
+			source.collectBusyTime(new DateTime(fromFreeBusy.startMillis()), new DateTime(fromFreeBusy.endMillis()), fromFreeBusy);
+		}
+
+		assertEquals(fromEvents.toPlans(), fromFreeBusy.toPlans());
+		// 30 hours in a row starting at 22:13:20 touch the slots from 22:00 to 04:15
+		assertEquals(30.25, fromFreeBusy.toPlans().stream().mapToDouble(InitialData::getDuration).sum(), 1e-9);
+	}
+
+	@Test
+	void googleSourceLeavesOutACalendarWhichCannotBeFetched() throws IOException {
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			server.putAll(events(3));
+			PagedEventFetcher pagedEventFetcher = new PagedEventFetcher() {
+				@Override
+				public String fetch(Calendar.Events.List request, PageConsumer pageConsumer) throws IOException {
+					if ("broken".equals(request.getCalendarId())) {
+						throw new IOException("Backend Error");
+					}
+					return super.fetch(request, pageConsumer);
+				}
+			};
+			GoogleEventSource source = new GoogleEventSource(fakeServerClient(server), pagedEventFetcher,
+					List.of("primary", "broken"), new MultiCalendarFetcher(2, Duration.ofSeconds(10)));
+			List<Event> events = new ArrayList<>();
+
+			source.streamEvents(new DateTime(START), new DateTime(START + 10 * HOUR), events::addAll);
+
+			assertEquals(List.of("e0", "e1", "e2"), events.stream().map(Event::getId).toList());
+		}
+	}
+
+	/**
+	 * A client of the fake server, which keeps the synced events in memory.
+	 */
+	static CalendarClient fakeServerClient(FakeCalendarServer server) {
+		Calendar service = new Calendar.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), null)
+				.setRootUrl(server.rootUrl())
+				.setApplicationName("test")
+				.build();
+		DataStoreFactory dataStoreFactory = new MemoryDataStoreFactory();
+		return new CalendarClient() {
+			@Override
+			public Calendar getService() {
+				return service;
+			}
+
+			@Override
+			public DataStoreFactory getDataStoreFactory() {
+				return dataStoreFactory;
+			}
+		};
+	}
+
+	private static List<Event> events(int count) {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			events.add(event("e" + i, START + i * HOUR));
+		}
+		return events;
+	}
+
+	private static Event event(String id, long start) {
+		return new Event().setId(id)
+				.setStart(new EventDateTime().setDateTime(new DateTime(start)))
+				.setEnd(new EventDateTime().setDateTime(new DateTime(start + HOUR)));
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventTimeConverterTests {
+
+	private final LocalDate first = LocalDate.of(2023, 1, 1);
+
+	@Test
+	void agreesWithZoneRulesAroundTransitions() {
+		for (String zone : new String[]{"UTC", "Europe/Vilnius", "America/New_York", "America/Santiago", "Asia/Kolkata"}) {
+			ZoneId zoneId = ZoneId.of(zone);
+			EventTimeConverter converter = EventTimeConverter.of(zoneId);
+			for (LocalDate date = first; date.getYear() < 2025; date = date.plusDays(1)) {
+				long startOfDay = date.atStartOfDay(zoneId).toInstant().toEpochMilli();
+				assertEquals(startOfDay, converter.startOfDay(date.toEpochDay()), zone + " " + date);
+				for (long millis = startOfDay; millis < startOfDay + EventTimeConverter.MILLIS_PER_DAY; millis += 3_600_000L) {
+					assertEquals(Instant.ofEpochMilli(millis).atZone(zoneId).toLocalDate().toEpochDay(), converter.epochDay(millis), zone + " " + millis);
+				}
+			}
+		}
+	}
+
+	@Test
+	void readsTheDateOfDateTimesInTheirOwnOffset() {
+		assertEquals(LocalDate.of(2023, 6, 5).toEpochDay(), EventTimeConverter.epochDayOf(new DateTime("2023-06-05T01:30:00+03:00")));
+		assertEquals(LocalDate.of(2023, 6, 4).toEpochDay(), EventTimeConverter.epochDayOf(new DateTime("2023-06-04T23:30:00-05:00")));
+		assertEquals(LocalDate.of(2023, 6, 5).toEpochDay(), EventTimeConverter.epochDayOf(new DateTime("2023-06-05")));
+		assertEquals(1.5, CollectCalendarData.calculateDuration(new DateTime("2023-06-05T09:00:00+03:00"), new DateTime("2023-06-05T10:30:59+03:00")));
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.calendar;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.util.store.MemoryDataStoreFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalEventSyncTests {
+	private static final long HOUR = 3_600_000L;
+	private static final DateTime TIME_MIN = new DateTime(1_700_000_000_000L);
+	private static final DateTime TIME_MAX = new DateTime(TIME_MIN.getValue() + 30 * 24 * HOUR);
+
+	private FakeCalendarServer server;
+	private IncrementalEventSync eventSync;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new FakeCalendarServer();
+		server.setPageSize(2);
+		server.setRecording(true);
+		Calendar service = new Calendar.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), null)
+				.setRootUrl(server.rootUrl())
+				.setApplicationName("test")
+				.build();
+		eventSync = new IncrementalEventSync(service, new CalendarEventStore(new MemoryDataStoreFactory(), GsonFactory.getDefaultInstance()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.close();
+	}
+
+	@Test
+	void laterSyncsFetchOnlyChanges() throws IOException {
+		server.put(event("a", 1, "Lecture"));
+		server.put(event("b", 2, "Meeting"));
+		server.put(event("c", 3, "Gym"));
+		assertEquals(List.of("a", "b", "c"), ids(eventSync.sync("primary", TIME_MIN, TIME_MAX)));
+		assertFalse(server.requests().get(0).containsKey("syncToken"));
+
+		server.requests().clear();
+		server.put(event("d", 0, "Breakfast"));
+		server.put(event("b", 5, "Moved meeting"));
+		server.cancel("c");
+		List<Event> events = eventSync.sync("primary", TIME_MIN, TIME_MAX);
+
+		assertEquals(List.of("d", "a", "b"), ids(events));
+		assertEquals("Moved meeting", events.get(2).getSummary());
+		assertTrue(server.requests().stream().allMatch(query -> query.containsKey("syncToken")));
+	}
+
+	@Test
+	void expiredSyncTokenFallsBackToFullSync() throws IOException {
+		server.put(event("a", 1, "Lecture"));
+		eventSync.sync("primary", TIME_MIN, TIME_MAX);
+
+		server.expireSyncTokens();
+		server.put(event("b", 2, "Meeting"));
+		server.requests().clear();
+
+		assertEquals(List.of("a", "b"), ids(eventSync.sync("primary", TIME_MIN, TIME_MAX)));
+		assertTrue(server.requests().get(0).containsKey("syncToken"));
+		assertFalse(server.requests().get(1).containsKey("syncToken"));
+	}
+
+	@Test
+	void laterStartReusesTheSyncTokenAndDropsEndedEvents() throws IOException {
+		server.put(event("a", 1, "Lecture"));
+		server.put(event("b", 3, "Meeting"));
+		eventSync.sync("primary", TIME_MIN, TIME_MAX);
+		server.requests().clear();
+
+		// every schedule starts now, a bit later than the previous one
+		List<Event> events = eventSync.sync("primary", new DateTime(TIME_MIN.getValue() + 5 * HOUR / 2), TIME_MAX);
+
+		assertEquals(List.of("b"), ids(events));
+		assertTrue(server.requests().stream().allMatch(query -> query.containsKey("syncToken")));
+	}
+
+	@Test
+	void longerRangeThanStoredOneIsSyncedInFull() throws IOException {
+		server.put(event("a", 1, "Lecture"));
+		eventSync.sync("primary", TIME_MIN, TIME_MAX);
+		server.requests().clear();
+
+		eventSync.sync("primary", TIME_MIN, new DateTime(TIME_MAX.getValue() + 24 * HOUR));
+
+		assertFalse(server.requests().get(0).containsKey("syncToken"));
+	}
+
+	private static Event event(String id, int startHour, String summary) {
+		long start = TIME_MIN.getValue() + startHour * HOUR;
+		return new Event().setId(id).setSummary(summary)
+				.setStart(new EventDateTime().setDateTime(new DateTime(start)))
+				.setEnd(new EventDateTime().setDateTime(new DateTime(start + HOUR)));
+	}
+
+	private static List<String> ids(List<Event> events) {
+		return events.stream().map(Event::getId).toList();
+	}
+}
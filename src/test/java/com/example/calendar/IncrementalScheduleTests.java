@@ -0,0 +1,88 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkDistribution;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalScheduleTests {
+
+	private final ZoneId vilnius = ZoneId.of("Europe/Vilnius");
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+	private final CalendarCalculations calendarCalculations = new CalendarCalculations();
+
+	@Test
+	void updatesOnlyTheChangedDaysAndTheWorkAfterThem() {
+		IncrementalSchedule schedule = calendarCalculations.incrementalSchedule(List.of(
+				event("lecture", monday, 9, 4),
+				event("meeting", monday, 10, 2)), vilnius, monday, monday.plusDays(3), true, 20);
+		assertEquals(4, schedule.getTimeline().hoursPlanned(0));
+		assertEquals(5, schedule.getTimeline().hoursToWork(0));
+
+		schedule.put("exam", millis(monday.plusDays(2), 8), millis(monday.plusDays(2), 18));
+
+		assertEquals(10, schedule.getTimeline().hoursPlanned(2));
+		assertEquals(5, schedule.getTimeline().hoursToWork(0));
+		assertEquals(5, schedule.getTimeline().hoursToWork(1));
+		assertEquals(20, schedule.getDistribution().getScheduledHours());
+		assertEquals(64 - 14, schedule.availableHoursToWork());
+	}
+
+	@Test
+	void tracksOverloadedDaysWhileEventsMove() {
+		IncrementalSchedule schedule = calendarCalculations.incrementalSchedule(List.of(
+				event("conference", monday, 6, 17)), vilnius, monday, monday.plusDays(6), false, 10);
+		assertArrayEquals(new int[]{0}, schedule.getOverloadedDays());
+
+		schedule.move("conference", millis(monday.plusDays(1), 6), millis(monday.plusDays(1), 23));
+		assertArrayEquals(new int[]{1}, schedule.getOverloadedDays());
+		assertEquals(0, schedule.getTimeline().hoursPlanned(0));
+
+		schedule.remove("conference");
+		assertArrayEquals(new int[0], schedule.getOverloadedDays());
+		assertThrows(IllegalArgumentException.class, () -> schedule.move("conference", 0, 1));
+	}
+
+	@Test
+	void matchesTheFullScheduleAfterChanges() {
+		IncrementalSchedule schedule = calendarCalculations.incrementalSchedule(List.of(
+				event("a", monday, 9, 3), event("b", monday.plusDays(1), 20, 8)), vilnius, monday, monday.plusDays(4), true, 30);
+		schedule.move("a", millis(monday.plusDays(3), 9), millis(monday.plusDays(3), 11));
+		schedule.put("c", millis(monday.plusDays(3), 10), millis(monday.plusDays(3), 12));
+
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		busyTime.add(millis(monday.plusDays(1), 20), millis(monday.plusDays(2), 4));
+		busyTime.add(millis(monday.plusDays(3), 9), millis(monday.plusDays(3), 11));
+		busyTime.add(millis(monday.plusDays(3), 10), millis(monday.plusDays(3), 12));
+		ScheduleTimeline full = calendarCalculations.buildTimeline(busyTime.busyDays(), monday, monday.plusDays(4), true);
+		WorkDistribution distribution = new WorkDistributor().distribute(full,
+				calendarCalculations.HOURS_PER_DAY - calendarCalculations.SLEEPING_HOURS, 30);
+		for (int day = 0; day < full.size(); day++) {
+			assertEquals(full.hoursPlanned(day), schedule.getTimeline().hoursPlanned(day), 1e-9);
+			assertEquals(full.hoursToWork(day), schedule.getTimeline().hoursToWork(day), 1e-9);
+		}
+		assertEquals(calendarCalculations.availableHoursToWork(full), schedule.availableHoursToWork(), 1e-9);
+		assertEquals(distribution.getScheduledHours(), schedule.getDistribution().getScheduledHours(), 1e-9);
+	}
+
+	private Event event(String id, LocalDate date, int startHour, int hours) {
+		ZonedDateTime start = ZonedDateTime.of(date.atTime(startHour, 0), vilnius);
+		return new Event().setId(id)
+				.setStart(new EventDateTime().setDateTime(new DateTime(start.toInstant().toEpochMilli())))
+				.setEnd(new EventDateTime().setDateTime(new DateTime(start.plusHours(hours).toInstant().toEpochMilli())));
+	}
+
+	private long millis(LocalDate date, int hour) {
+		return ZonedDateTime.of(date.atTime(hour, 0), vilnius).toInstant().toEpochMilli();
+	}
+}
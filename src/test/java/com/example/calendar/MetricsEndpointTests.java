@@ -0,0 +1,41 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CalendarCalculations calendarCalculations;
+
+	@Test
+	void servesPhaseTimingsInPrometheusFormat() throws Exception {
+		LocalDate monday = LocalDate.of(2023, 6, 5);
+		calendarCalculations.computeSchedule(List.of(new InitialData("Conference", monday, 20)), monday, monday.plusDays(6), true, 10);
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("schedule_compute_seconds_count")))
+				.andExpect(content().string(containsString("schedule_overloaded_days_total")))
+				.andExpect(content().string(containsString("calendar_api_page_seconds_count")));
+	}
+}
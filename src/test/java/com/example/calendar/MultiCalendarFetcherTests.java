@@ -0,0 +1,88 @@
+package com.example.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiCalendarFetcherTests {
+
+	@Test
+	void mergesCalendarsInStartOrderWithoutDuplicates() {
+		Map<String, List<Event>> calendars = Map.of(
+				"personal", List.of(event("a", 1), event("shared", 3), event("b", 5)),
+				"work", List.of(event("c", 2), event("shared", 3), event("d", 4)));
+
+		List<Event> events = new MultiCalendarFetcher(2, Duration.ofSeconds(5))
+				.fetch(List.of("personal", "work"), calendars::get);
+
+		assertEquals(List.of("a", "c", "shared", "d", "b"), events.stream().map(Event::getICalUID).toList());
+	}
+
+	@Test
+	void mergesCancelledInstancesByTheirOriginalStart() {
+		Event gone = new Event().setICalUID("gone").setStatus("cancelled");
+		Map<String, List<Event>> calendars = Map.of(
+				"personal", List.of(gone, event("a", 1), cancelled("series", 2), event("b", 3)),
+				"work", List.of(gone, cancelled("series", 2), event("c", 4)));
+
+		List<Event> events = new MultiCalendarFetcher(2, Duration.ofSeconds(5))
+				.fetch(List.of("personal", "work"), calendars::get);
+
+		assertEquals(List.of("gone", "a", "series", "b", "c"), events.stream().map(Event::getICalUID).toList());
+	}
+
+	@Test
+	void leavesOutFailedAndSlowCalendars() {
+		List<Event> events = new MultiCalendarFetcher(3, Duration.ofMillis(200)).fetch(List.of("ok", "failing", "slow"), calendarId -> {
+			switch (calendarId) {
+				case "failing" -> throw new IOException("Backend Error");
+				case "slow" -> sleep(5_000);
+			}
+			return List.of(event(calendarId, 1));
+		});
+
+		assertEquals(List.of("ok"), events.stream().map(Event::getICalUID).toList());
+	}
+
+	@Test
+	void fetchesCalendarsConcurrently() {
+		long startedAt = System.nanoTime();
+
+		new MultiCalendarFetcher(4, Duration.ofSeconds(5)).fetch(List.of("a", "b", "c", "d"), calendarId -> {
+			sleep(300);
+			return List.of(event(calendarId, 1));
+		});
+
+		assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).toMillis() < 1_000);
+	}
+
+	private static Event event(String uid, int hour) {
+		long start = 1_700_000_000_000L + hour * 3_600_000L;
+		return new Event().setICalUID(uid)
+				.setStart(new EventDateTime().setDateTime(new DateTime(start)))
+				.setEnd(new EventDateTime().setDateTime(new DateTime(start + 3_600_000L)));
+	}
+
+	private static Event cancelled(String uid, int hour) {
+		long start = 1_700_000_000_000L + hour * 3_600_000L;
+		return new Event().setICalUID(uid).setStatus("cancelled")
+				.setOriginalStartTime(new EventDateTime().setDateTime(new DateTime(start)));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.calendar;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PagedEventFetcherTests {
+	private static final long HOUR = 3_600_000L;
+
+	@Test
+	void followsAllPages() throws IOException {
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			for (int i = 0; i < 5; i++) {
+				long start = 1_700_000_000_000L + i * HOUR;
+				server.put(new Event().setId("e" + i)
+						.setStart(new EventDateTime().setDateTime(new DateTime(start)))
+						.setEnd(new EventDateTime().setDateTime(new DateTime(start + HOUR))));
+			}
+			List<Integer> pageSizes = new ArrayList<>();
+			List<String> ids = new ArrayList<>();
+
+			String syncToken = new PagedEventFetcher(2).fetch(service(server).events().list("primary"), page -> {
+				pageSizes.add(page.size());
+				page.forEach(event -> ids.add(event.getId()));
+			});
+
+			assertEquals(List.of(2, 2, 1), pageSizes);
+			assertEquals(List.of("e0", "e1", "e2", "e3", "e4"), ids);
+			assertNotNull(syncToken);
+		}
+	}
+
+	@Test
+	void rejectsNonPositivePageSize() {
+		assertThrows(IllegalArgumentException.class, () -> new PagedEventFetcher(0));
+	}
+
+	private static Calendar service(FakeCalendarServer server) {
+		return new Calendar.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), null)
+				.setRootUrl(server.rootUrl())
+				.setApplicationName("test")
+				.build();
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlansIndexTests {
+
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+
+	@Test
+	void sumsPlansOfTheSameDay() {
+		PlansIndex plansIndex = new PlansIndex(List.of(
+				new InitialData("Lecture", monday, 1.5),
+				new InitialData("Meeting", monday, 2),
+				new InitialData("Gym", monday.plusDays(1), 1)), monday, monday.plusDays(6));
+
+		assertEquals(7, plansIndex.size());
+		assertEquals(3.5, plansIndex.hoursPlanned(monday));
+		assertEquals(1, plansIndex.hoursPlanned(monday.plusDays(1)));
+		assertEquals(0, plansIndex.hoursPlanned(monday.plusDays(2)));
+	}
+
+	@Test
+	void ignoresPlansOutsideTheRange() {
+		PlansIndex plansIndex = new PlansIndex(List.of(
+				new InitialData("Before", monday.minusDays(1), 4),
+				new InitialData("After", monday.plusDays(2), 4)), monday, monday.plusDays(1));
+
+		assertEquals(0, plansIndex.hoursPlanned(monday.minusDays(1)));
+		assertEquals(0, plansIndex.hoursPlanned(monday));
+		assertEquals(0, plansIndex.hoursPlanned(monday.plusDays(2)));
+	}
+
+	@Test
+	void generatedCalendarSkipsSundays() {
+		CalendarCalculations calendarCalculations = new CalendarCalculations();
+		List<InitialData> plans = List.of(new InitialData("Lecture", monday.plusDays(2), 3));
+
+		var calendar = calendarCalculations.generateNewCalendarWithPlans(plans, monday, monday.plusDays(13), false, 10).toCalendarWithPlans();
+
+		assertEquals(12, calendar.size());
+		assertEquals(3, calendar.get(2).getHoursPlanned());
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.InitialData;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecurrenceExpanderTests {
+
+	private final ZoneId vilnius = ZoneId.of("Europe/Vilnius");
+	private final RecurrenceExpander expander = new RecurrenceExpander(vilnius);
+
+	@Test
+	void keepsTheLocalTimeAcrossDaylightSavingAndLeavesOutExceptions() {
+		Event standup = timed("standup", LocalDateTime.of(2023, 3, 20, 9, 0), 15,
+				"RRULE:FREQ=DAILY;COUNT=10", "EXDATE;TZID=Europe/Vilnius:20230322T090000");
+		Event moved = timed("standup_20230324T070000Z", LocalDateTime.of(2023, 3, 24, 10, 0), 60)
+				.setRecurringEventId("standup").setOriginalStartTime(dateTime(LocalDateTime.of(2023, 3, 24, 9, 0)));
+		Event cancelled = new Event().setId("standup_20230327T060000Z").setStatus("cancelled")
+				.setRecurringEventId("standup").setOriginalStartTime(dateTime(LocalDateTime.of(2023, 3, 27, 9, 0)));
+
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		busyTime.addAll(List.of(standup, moved, cancelled), Long.MIN_VALUE, Long.MAX_VALUE);
+		List<InitialData> busyDays = busyTime.busyDays();
+
+		assertEquals(8, busyDays.size());
+		assertEquals(LocalDate.of(2023, 3, 24), busyDays.get(3).getDate());
+		assertEquals(1, busyDays.get(3).getDuration(), 1e-9);
+		assertEquals(LocalDate.of(2023, 3, 29), busyDays.get(7).getDate());
+		assertEquals(0.25, busyDays.get(7).getDuration(), 1e-9);
+
+		List<Long> starts = new ArrayList<>();
+		expander.expand(standup, List.of(), Long.MIN_VALUE, Long.MAX_VALUE, (start, end) -> starts.add(start));
+		assertEquals(millis(LocalDateTime.of(2023, 3, 29, 9, 0)), starts.get(starts.size() - 1));
+	}
+
+	@Test
+	void expandsWeeklyAndMonthlyRules() {
+		Event lectures = timed("lectures", LocalDateTime.of(2023, 6, 5, 10, 0), 90,
+				"RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;UNTIL=20230630T000000Z");
+		Event review = timed("review", LocalDateTime.of(2023, 6, 30, 14, 0), 60, "RRULE:FREQ=MONTHLY;BYDAY=-1FR;COUNT=3");
+
+		assertEquals(List.of(LocalDate.of(2023, 6, 5), LocalDate.of(2023, 6, 7), LocalDate.of(2023, 6, 9),
+				LocalDate.of(2023, 6, 19), LocalDate.of(2023, 6, 21), LocalDate.of(2023, 6, 23)), dates(lectures));
+		assertEquals(List.of(LocalDate.of(2023, 6, 30), LocalDate.of(2023, 7, 28), LocalDate.of(2023, 8, 25)), dates(review));
+	}
+
+	@Test
+	void expandsOpenEndedRulesOnlyWithinTheWindow() {
+		Event gym = timed("gym", LocalDateTime.of(2020, 1, 1, 18, 0), 60, "RRULE:FREQ=DAILY");
+		Event birthday = new Event().setId("birthday").setSummary("birthday").setRecurrence(List.of("RRULE:FREQ=YEARLY"))
+				.setStart(new EventDateTime().setDate(new DateTime("2000-06-07")))
+				.setEnd(new EventDateTime().setDate(new DateTime("2000-06-08")));
+
+		BusyTimeSweep busyTime = new BusyTimeSweep(vilnius);
+		int added = busyTime.addAll(List.of(gym, birthday),
+				millis(LocalDateTime.of(2023, 6, 5, 0, 0)), millis(LocalDateTime.of(2023, 6, 12, 0, 0)));
+		List<InitialData> busyDays = busyTime.busyDays();
+
+		assertEquals(8, added);
+		assertEquals(7, busyDays.size());
+		assertEquals(LocalDate.of(2023, 6, 7), busyDays.get(2).getDate());
+		assertEquals(24, busyDays.get(2).getDuration(), 1e-9);
+		assertEquals(1, busyDays.get(3).getDuration(), 1e-9);
+	}
+
+	private List<LocalDate> dates(Event event) {
+		List<LocalDate> dates = new ArrayList<>();
+		expander.expand(event, List.of(), Long.MIN_VALUE, Long.MAX_VALUE,
+				(start, end) -> dates.add(LocalDate.ofEpochDay(EventTimeConverter.of(vilnius).epochDay(start))));
+		return dates;
+	}
+
+	private Event timed(String id, LocalDateTime start, int minutes, String... recurrence) {
+		Event event = new Event().setId(id).setSummary(id)
+				.setStart(dateTime(start).setTimeZone(vilnius.getId()))
+				.setEnd(dateTime(start.plusMinutes(minutes)).setTimeZone(vilnius.getId()));
+		return (recurrence.length > 0) ? event.setRecurrence(List.of(recurrence)) : event;
+	}
+
+	private EventDateTime dateTime(LocalDateTime local) {
+		return new EventDateTime().setDateTime(new DateTime(millis(local)));
+	}
+
+	private long millis(LocalDateTime local) {
+		return local.atZone(vilnius).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,125 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.InitialData;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.ScheduleCacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ScheduleCacheTests {
+	private final LocalDate today = LocalDate.of(2023, 6, 5);
+	private final List<InitialData> plans = List.of(new InitialData("Lecture", today, 2), new InitialData("Gym", today.plusDays(1), 1));
+	private final AtomicInteger calculations = new AtomicInteger();
+
+	@Test
+	void reusesScheduleOfTheSameInputsAndPlans() {
+		ScheduleCache cache = new ScheduleCache(10, Duration.ofMinutes(10));
+
+		Schedule first = get(cache, plans, 40);
+		Schedule second = get(cache, List.of(plans.get(1), plans.get(0)), 40);
+
+		assertEquals(first, second);
+		assertNotSame(first, second);
+		assertEquals(1, calculations.get());
+		assertStats(cache.getStats(), 1, 1, 1, 0, 0);
+	}
+
+	@Test
+	void looksUpTheLatestScheduleOfTheInputsWithoutThePlans() {
+		ScheduleCache cache = new ScheduleCache(10, Duration.ofMinutes(10));
+		assertNull(cache.getIfPresent(today, today.plusDays(30), false, 40));
+
+		get(cache, plans, 40);
+		get(cache, List.of(plans.get(0)), 40);
+		Schedule schedule = cache.getIfPresent(today, today.plusDays(30), false, 40);
+
+		assertEquals(List.of(new CalendarWithPlans(today, 2, 0, DayOfWeek.MONDAY)), schedule.getDays());
+		assertNull(cache.getIfPresent(today, today.plusDays(30), false, 20));
+		assertStats(cache.getStats(), 1, 1, 2, 0, 1);
+	}
+
+	@Test
+	void changesOfAReturnedScheduleDoNotReachTheCache() {
+		ScheduleCache cache = new ScheduleCache(10, Duration.ofMinutes(10));
+
+		get(cache, plans, 40).getDays().get(0).setHoursToWork(10);
+		get(cache, plans, 40).getDays().clear();
+
+		assertEquals(0, get(cache, plans, 40).getDays().get(0).getHoursToWork());
+	}
+
+	@Test
+	void changedPlansReplaceTheCachedSchedule() {
+		ScheduleCache cache = new ScheduleCache(10, Duration.ofMinutes(10));
+
+		get(cache, plans, 40);
+		get(cache, List.of(plans.get(0)), 40);
+
+		assertEquals(2, calculations.get());
+		assertStats(cache.getStats(), 1, 0, 2, 0, 1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedSchedules() {
+		ScheduleCache cache = new ScheduleCache(2, Duration.ofMinutes(10));
+
+		get(cache, plans, 10);
+		get(cache, plans, 20);
+		get(cache, plans, 10);
+		get(cache, plans, 30);
+		get(cache, plans, 10);
+		get(cache, plans, 20);
+
+		assertStats(cache.getStats(), 2, 2, 4, 2, 0);
+	}
+
+	@Test
+	void expiredSchedulesAreComputedAgain() {
+		ScheduleCache cache = new ScheduleCache(10, Duration.ZERO);
+
+		get(cache, plans, 40);
+		get(cache, plans, 40);
+
+		assertEquals(2, calculations.get());
+	}
+
+	@Test
+	void fingerprintDependsOnEveryField() {
+		long fingerprint = ScheduleCache.fingerprint(plans);
+
+		assertNotEquals(fingerprint, ScheduleCache.fingerprint(List.of(new InitialData("Lecture", today, 2.5), plans.get(1))));
+		assertNotEquals(fingerprint, ScheduleCache.fingerprint(List.of(new InitialData("Seminar", today, 2), plans.get(1))));
+		assertNotEquals(fingerprint, ScheduleCache.fingerprint(List.of(new InitialData("Lecture", today.plusDays(2), 2), plans.get(1))));
+	}
+
+	private Schedule get(ScheduleCache cache, List<InitialData> plans, int hours) {
+		return cache.get(plans, today, today.plusDays(30), false, hours, () -> {
+			calculations.incrementAndGet();
+			List<CalendarWithPlans> days = new ArrayList<>();
+			for (InitialData plan : plans) {
+				days.add(new CalendarWithPlans(plan.getDate(), plan.getDuration(), 0, plan.getDate().getDayOfWeek()));
+			}
+			return new Schedule(today.plusDays(30), false, hours, 0, 0, 0, days, new ArrayList<>());
+		});
+	}
+
+	private static void assertStats(ScheduleCacheStats stats, int size, long hits, long misses, long evictions, long invalidations) {
+		assertEquals(size, stats.getSize());
+		assertEquals(hits, stats.getHits());
+		assertEquals(misses, stats.getMisses());
+		assertEquals(evictions, stats.getEvictions());
+		assertEquals(invalidations, stats.getInvalidations());
+	}
+}
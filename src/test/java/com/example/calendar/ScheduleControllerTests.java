@@ -0,0 +1,132 @@
+package com.example.calendar;
+
+import com.example.calendar.api.ScheduleController;
+import com.example.calendar.dto.InitialData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ScheduleController.class)
+@Import({ScheduleService.class, CalendarCalculations.class, ScheduleCache.class, WorkSlotPlacer.class})
+class ScheduleControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private CollectCalendarData collectCalendarData;
+
+	@Test
+	void returnsScheduleAsJson() throws Exception {
+		LocalDate today = LocalDate.now();
+		given(collectCalendarData.collectPlans(any())).willReturn(List.of(new InitialData("Lecture", today, 20)));
+
+		mockMvc.perform(get("/api/schedule")
+						.param("submissionDate", today.plusDays(6).toString())
+						.param("workOnSunday", "true")
+						.param("hours", "30"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.days.length()").value(7))
+				.andExpect(jsonPath("$.overloadedDays.length()").value(1))
+				.andExpect(jsonPath("$.scheduledHours").value(30));
+	}
+
+	@Test
+	void streamsScheduleAsCsv() throws Exception {
+		LocalDate today = LocalDate.now();
+		given(collectCalendarData.collectBusySlots(any(), any()))
+				.willReturn(new SlotBitmap(today, today.plusDays(1), Duration.ofMinutes(15), ZoneId.systemDefault()));
+
+		MvcResult result = mockMvc.perform(get("/api/schedule/export")
+						.param("submissionDate", today.plusDays(1).toString())
+						.param("workOnSunday", "true")
+						.param("hours", "10")
+						.param("format", "csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "text/csv"))
+				.andExpect(content().string(startsWith("date,dayOfWeek,hoursPlanned,hoursToWork\n" + today + ",")));
+	}
+
+	@Test
+	void placesWorkBlocksIntoTheFreeWorkingHours() throws Exception {
+		LocalDate today = LocalDate.now();
+		LocalDate tomorrow = today.plusDays(1);
+		SlotBitmap bitmap = new SlotBitmap(today, tomorrow, Duration.ofMinutes(15), ZoneId.systemDefault());
+		bitmap.markBusy(tomorrow.atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+				tomorrow.atTime(20, 30).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		given(collectCalendarData.collectBusySlots(any(), any())).willReturn(bitmap);
+
+		mockMvc.perform(get("/api/schedule/blocks")
+						.param("submissionDate", tomorrow.toString())
+						.param("workOnSunday", "true")
+						.param("hours", "30"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.schedule.days.length()").value(2))
+				.andExpect(jsonPath("$.schedule.days[1].hoursToWork").value(1))
+				.andExpect(jsonPath("$.blocks[-1:].start").value(tomorrow + "T20:30:00"))
+				.andExpect(jsonPath("$.unplacedHours").value(0));
+	}
+
+	@Test
+	void schedulesDeliverables() throws Exception {
+		LocalDate today = LocalDate.now();
+		given(collectCalendarData.collectPlans(any())).willReturn(List.of(new InitialData("Lecture", today, 20)));
+
+		mockMvc.perform(post("/api/schedule/deliverables")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								{"workOnSunday": true, "deliverables": [
+								  {"name": "Chapter 1", "hours": 10, "deadline": "%s", "priority": 1},
+								  {"name": "Chapter 2", "hours": 20, "deadline": "%s", "priority": 2}]}
+								""".formatted(today.plusDays(3), today.plusDays(6))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.lastDeadline").value(today.plusDays(6).toString()))
+				.andExpect(jsonPath("$.days.length()").value(7))
+				.andExpect(jsonPath("$.overloadedDays.length()").value(1))
+				.andExpect(jsonPath("$.deliverables[0].feasible").value(true))
+				.andExpect(jsonPath("$.deliverables[1].feasible").value(true))
+				.andExpect(jsonPath("$.scheduledHours").value(30))
+				.andExpect(jsonPath("$.infeasibleDeliverables.length()").value(0));
+	}
+
+	@Test
+	void rejectsDeliverablesWithoutDeadline() throws Exception {
+		mockMvc.perform(post("/api/schedule/deliverables")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"deliverables\": [{\"name\": \"Chapter 1\", \"hours\": 10}]}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void rejectsNonPositiveHours() throws Exception {
+		mockMvc.perform(get("/api/schedule")
+						.param("submissionDate", LocalDate.now().plusDays(6).toString())
+						.param("hours", "0"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.export.ScheduleExporter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleExporterTests {
+
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+
+	@Test
+	void writesOneCsvRowPerDay() throws IOException {
+		String csv = export("csv", List.of(
+				new CalendarWithPlans(monday, 3.5, 2.25, DayOfWeek.MONDAY),
+				new CalendarWithPlans(monday.plusDays(1), 0, 10, DayOfWeek.TUESDAY)));
+
+		assertEquals("""
+				date,dayOfWeek,hoursPlanned,hoursToWork
+				2023-06-05,MONDAY,3.5,2.25
+				2023-06-06,TUESDAY,0,10
+				""", csv);
+	}
+
+	@Test
+	void writesOneAllDaySummaryPerDayWithoutBlocks() throws IOException {
+		String ics = export("ics", List.of(
+				new CalendarWithPlans(monday, 3.5, 2.5, DayOfWeek.MONDAY),
+				new CalendarWithPlans(monday.plusDays(1), 16, 0, DayOfWeek.TUESDAY),
+				new CalendarWithPlans(monday.plusDays(2), 0, 16, DayOfWeek.WEDNESDAY)));
+
+		assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+		assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+		assertEquals(2, ics.split("BEGIN:VEVENT", -1).length - 1);
+		assertTrue(ics.contains("UID:20230605-work@work-schedule-calendar\r\n"));
+		assertTrue(ics.contains("DTSTART;VALUE=DATE:20230605\r\nDTEND;VALUE=DATE:20230606\r\nSUMMARY:Work 2.5 h\r\nTRANSP:TRANSPARENT\r\n"));
+		assertTrue(ics.contains("DTSTART;VALUE=DATE:20230607\r\nDTEND;VALUE=DATE:20230608\r\nSUMMARY:Work 16 h\r\n"));
+	}
+
+	@Test
+	void writesOneEventPerWorkBlock() throws IOException {
+		List<CalendarWithPlans> days = List.of(new CalendarWithPlans(monday, 11.5, 2.5, DayOfWeek.MONDAY));
+		List<WorkBlock> blocks = List.of(
+				new WorkBlock(monday, monday.atTime(8, 0), monday.atTime(8, 30), 0.5),
+				new WorkBlock(monday, monday.atTime(12, 0), monday.atTime(14, 0), 2));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		ScheduleExporter.forFormat("ics").export(days, blocks, Channels.newChannel(output));
+		String ics = output.toString(StandardCharsets.US_ASCII);
+
+		assertEquals(2, ics.split("BEGIN:VEVENT", -1).length - 1);
+		assertTrue(ics.contains("UID:20230605#1-work@work-schedule-calendar\r\n"));
+		assertTrue(ics.contains("UID:20230605#2-work@work-schedule-calendar\r\n"));
+		assertTrue(ics.contains("DTSTART:20230605T080000\r\nDTEND:20230605T083000\r\nSUMMARY:Work 0.5 h\r\nTRANSP:OPAQUE\r\n"));
+		assertTrue(ics.contains("DTSTART:20230605T120000\r\nDTEND:20230605T140000\r\nSUMMARY:Work 2 h\r\n"));
+	}
+
+	@Test
+	void writesTheDaysOfCsvWithBlocks() throws IOException {
+		List<CalendarWithPlans> days = List.of(new CalendarWithPlans(monday, 0, 1, DayOfWeek.MONDAY));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		ScheduleExporter.forFormat("csv").export(days,
+				List.of(new WorkBlock(monday, monday.atTime(8, 0), monday.atTime(9, 0), 1)), Channels.newChannel(output));
+
+		assertEquals(export("csv", days), output.toString(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	void streamsLongSchedulesThroughTheBuffer() throws IOException {
+		List<CalendarWithPlans> days = new ArrayList<>();
+		for (int day = 0; day < 20_000; day++) {
+			days.add(new CalendarWithPlans(monday.plusDays(day), 1, 1.75, monday.plusDays(day).getDayOfWeek()));
+		}
+
+		String ics = export("ics", days);
+
+		assertEquals(20_000, ics.split("BEGIN:VEVENT", -1).length - 1);
+		assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+	}
+
+	private String export(String format, List<CalendarWithPlans> days) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ScheduleExporter.forFormat(format).export(days, Channels.newChannel(output));
+		return output.toString(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.Schedule;
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.dto.WorkBlocksSchedule;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleServiceTests {
+
+	private final ZoneId vilnius = ZoneId.of("Europe/Vilnius");
+
+	@Test
+	void schedulesOnlyTheWorkWhichFitsIntoTheWorkingHours() throws IOException {
+		LocalDate today = LocalDate.now(vilnius);
+		LocalDate tomorrow = today.plusDays(1);
+		ScheduleService scheduleService = new ScheduleService(
+				new CollectCalendarData(new SnapshotEventSource(List.of(
+						event("workshop", tomorrow, 8, 12),
+						event("dinner", tomorrow, 20, 1))), vilnius),
+				new CalendarCalculations(), new ScheduleCache(10, Duration.ofMinutes(1)), new WorkSlotPlacer());
+
+		WorkBlocksSchedule schedule = scheduleService.computeWorkBlocks(tomorrow.plusDays(1), true, 40);
+
+		List<CalendarWithPlans> days = schedule.getSchedule().getDays();
+		assertEquals(today, days.get(0).getDate());
+		assertEquals(13, days.get(1).getHoursPlanned(), 1e-9);
+		// 16 hours awake minus 13 planned would leave 3, but only 21:00-22:00 is free within the working hours
+		assertEquals(1, days.get(1).getHoursToWork(), 1e-9);
+		assertEquals(14, days.get(2).getHoursToWork(), 1e-9);
+		assertEquals(0, schedule.getUnplacedHours(), 1e-9);
+		assertEquals(schedule.getSchedule().getScheduledHours(), ScheduleService.hours(schedule.getBlocks()), 1e-9);
+		for (WorkBlock block : schedule.getBlocks()) {
+			if (block.getDate().equals(tomorrow)) {
+				assertEquals(LocalTime.of(21, 0), block.getStart().toLocalTime());
+			}
+		}
+		assertTrue(schedule.getSchedule().getShortfallHours() > 0);
+	}
+
+	@Test
+	void laterSchedulesSyncOnlyTheChangedEvents() throws IOException {
+		LocalDate tomorrow = LocalDate.now(vilnius).plusDays(1);
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			server.put(event("workshop", tomorrow, 8, 4));
+			server.setRecording(true);
+			CalendarClient calendarClient = EventSourceTests.fakeServerClient(server);
+			ScheduleService scheduleService = new ScheduleService(
+					new CollectCalendarData(new GoogleEventSource(calendarClient, new PagedEventFetcher(), List.of("primary"),
+							new MultiCalendarFetcher(2, Duration.ofSeconds(10))), vilnius),
+					new CalendarCalculations(), new ScheduleCache(10, Duration.ofMinutes(1)), new WorkSlotPlacer());
+
+			scheduleService.computeSchedule(tomorrow.plusDays(3), true, 10);
+			assertFalse(server.requests().get(0).containsKey("syncToken"));
+
+			server.requests().clear();
+			server.put(event("dinner", tomorrow, 20, 1));
+			List<CalendarWithPlans> days = scheduleService.computeSchedule(tomorrow.plusDays(3), true, 20).getDays();
+
+			assertTrue(server.requests().stream().allMatch(query -> query.containsKey("syncToken")));
+			assertEquals(5, days.stream().filter(day -> day.getDate().equals(tomorrow)).findFirst().orElseThrow().getHoursPlanned(), 1e-9);
+		}
+	}
+
+	@Test
+	void freshScheduleIsReturnedWithoutCollectingThePlans() throws IOException {
+		AtomicInteger fetches = new AtomicInteger();
+		ScheduleService scheduleService = new ScheduleService(
+				new CollectCalendarData((timeMin, timeMax) -> {
+					fetches.incrementAndGet();
+					return List.of();
+				}, vilnius),
+				new CalendarCalculations(), new ScheduleCache(10, Duration.ofMinutes(1)), new WorkSlotPlacer());
+		LocalDate submissionDate = LocalDate.now(vilnius).plusDays(5);
+
+		Schedule first = scheduleService.computeSchedule(submissionDate, true, 20);
+		Schedule second = scheduleService.computeSchedule(submissionDate, true, 20);
+
+		assertEquals(1, fetches.get());
+		assertEquals(first, second);
+	}
+
+	private Event event(String id, LocalDate date, int hour, int hours) {
+		long start = date.atTime(hour, 0).atZone(vilnius).toInstant().toEpochMilli();
+		return new Event().setId(id).setSummary(id)
+				.setStart(new EventDateTime().setDateTime(new DateTime(start)))
+				.setEnd(new EventDateTime().setDateTime(new DateTime(start + hours * 3_600_000L)));
+	}
+}
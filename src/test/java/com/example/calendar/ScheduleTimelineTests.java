@@ -0,0 +1,60 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleTimelineTests {
+
+	// Friday, two days before a Sunday which ends the year
+	private final LocalDate friday = LocalDate.of(2023, 12, 29);
+
+	@Test
+	void derivesDatesAndDaysOfWeekAcrossTheYearBoundary() {
+		ScheduleTimeline timeline = new ScheduleTimeline(friday, new double[10], true);
+
+		for (int day = 0; day < timeline.size(); day++) {
+			assertEquals(friday.plusDays(day), timeline.date(day));
+			assertEquals(friday.plusDays(day).getDayOfWeek(), timeline.dayOfWeek(day));
+		}
+		assertEquals(LocalDate.of(2024, 1, 1), timeline.date(3));
+		assertEquals(DayOfWeek.SUNDAY, timeline.dayOfWeek(2));
+		assertEquals(DayOfWeek.MONDAY, timeline.dayOfWeek(3));
+	}
+
+	@Test
+	void sundaysAreWorkDaysOnlyWhenWorkOnSundayIsAllowed() {
+		ScheduleTimeline withSundays = new ScheduleTimeline(friday, new double[10], true);
+		ScheduleTimeline withoutSundays = new ScheduleTimeline(friday, new double[10], false);
+
+		for (int day = 0; day < 10; day++) {
+			assertTrue(withSundays.isWorkDay(day));
+			assertEquals(withoutSundays.dayOfWeek(day) != DayOfWeek.SUNDAY, withoutSundays.isWorkDay(day));
+		}
+		assertFalse(withoutSundays.isWorkDay(2));
+		assertFalse(withoutSundays.isWorkDay(9));
+		assertEquals(10, withSundays.workDays());
+		assertEquals(8, withoutSundays.workDays());
+		assertEquals(8, withoutSundays.toCalendarWithPlans().size());
+		assertTrue(withoutSundays.toCalendarWithPlans().stream()
+				.map(CalendarWithPlans::getDayOfWeek).noneMatch(DayOfWeek.SUNDAY::equals));
+	}
+
+	@Test
+	void derivesDaysOfWeekBeforeTheEpoch() {
+		LocalDate sunday = LocalDate.of(1969, 12, 28);
+		ScheduleTimeline timeline = new ScheduleTimeline(sunday, new double[7], false);
+
+		assertEquals(DayOfWeek.SUNDAY, timeline.dayOfWeek(0));
+		assertEquals(DayOfWeek.THURSDAY, timeline.dayOfWeek(4));
+		assertEquals(LocalDate.EPOCH, timeline.date(4));
+		assertFalse(timeline.isWorkDay(0));
+		assertEquals(6, timeline.workDays());
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.CalendarWithPlans;
+import com.example.calendar.dto.WorkBlock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotBitmapTests {
+
+	private final ZoneId vilnius = ZoneId.of("Europe/Vilnius");
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+	private final Duration quarter = Duration.ofMinutes(15);
+
+	@Test
+	void marksTouchedSlotsAcrossMidnight() {
+		SlotBitmap bitmap = new SlotBitmap(monday, monday.plusDays(2), quarter, vilnius);
+		bitmap.markBusy(millis(monday, 22, 10), millis(monday.plusDays(1), 1, 0));
+		bitmap.markBusy(millis(monday.plusDays(1), 9, 0), millis(monday.plusDays(1), 9, 30));
+
+		assertEquals(2, bitmap.busyHours(0), 1e-9);
+		assertEquals(1.5, bitmap.busyHours(1), 1e-9);
+		assertEquals(0, bitmap.busyHours(2), 1e-9);
+		assertTrue(bitmap.isOccupied(bitmap.slot(0, 88)));
+		assertFalse(bitmap.isOccupied(bitmap.slot(0, 87)));
+		assertEquals(96 - 6, bitmap.freeSlots(bitmap.slot(1, 0), bitmap.slot(2, 0)));
+		assertEquals(bitmap.slot(1, 4), bitmap.findFreeRun(bitmap.slot(1, 0), bitmap.size(), 4));
+		assertEquals(bitmap.slot(1, 38), bitmap.findFreeRun(bitmap.slot(1, 36), bitmap.size(), 4));
+		assertEquals(-1, bitmap.findFreeRun(bitmap.slot(1, 0), bitmap.slot(1, 4), 1));
+		assertEquals(2, bitmap.toPlans().size());
+	}
+
+	@Test
+	void occupiesSlotsSkippedByTheClocksGoingForward() {
+		LocalDate changeDay = LocalDate.of(2023, 3, 26);
+		SlotBitmap bitmap = new SlotBitmap(changeDay, changeDay, quarter, vilnius);
+
+		assertEquals(0, bitmap.busyHours(0), 1e-9);
+		assertEquals(92, bitmap.freeSlots(0, bitmap.size()));
+		assertTrue(bitmap.isOccupied(bitmap.slot(0, 12)));
+		assertEquals(millis(changeDay, 4, 0), bitmap.slotStartMillis(bitmap.slot(0, 16)));
+
+		bitmap.markBusy(millis(changeDay, 2, 0), millis(changeDay, 5, 0));
+
+		assertEquals(2, bitmap.busyHours(0), 1e-9);
+	}
+
+	@Test
+	void placesWorkIntoLongFreeRunsFirst() {
+		SlotBitmap bitmap = new SlotBitmap(monday, monday.plusDays(1), quarter, vilnius);
+		bitmap.markBusy(millis(monday, 8, 30), millis(monday, 12, 0));
+		bitmap.markBusy(millis(monday, 13, 0), millis(monday, 21, 0));
+		WorkSlotPlacer placer = new WorkSlotPlacer(quarter, LocalTime.of(8, 0), LocalTime.of(22, 0), Duration.ofHours(1));
+
+		List<WorkBlock> blocks = placer.place(bitmap, List.of(
+				new CalendarWithPlans(monday, 11.5, 2.5, monday.getDayOfWeek()),
+				new CalendarWithPlans(monday.plusDays(1), 0, 0, monday.plusDays(1).getDayOfWeek())));
+
+		assertEquals(3, blocks.size());
+		assertEquals(monday.atTime(8, 0), blocks.get(0).getStart());
+		assertEquals(monday.atTime(8, 30), blocks.get(0).getEnd());
+		assertEquals(monday.atTime(12, 0), blocks.get(1).getStart());
+		assertEquals(1, blocks.get(1).getHours(), 1e-9);
+		assertEquals(monday.atTime(21, 0), blocks.get(2).getStart());
+		assertEquals(1, blocks.get(2).getHours(), 1e-9);
+		assertEquals(0, bitmap.freeSlots(bitmap.slot(0, 32), bitmap.slot(0, 88)));
+	}
+
+	private long millis(LocalDate date, int hour, int minute) {
+		return ZonedDateTime.of(date.atTime(hour, minute), vilnius).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkBlock;
+import com.example.calendar.dto.WriteBackReport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkBlockWriterTests {
+	private static final ZoneId ZONE = ZoneId.of("Europe/Vilnius");
+	private static final LocalDate FIRST_DAY = LocalDate.of(2023, 6, 5);
+
+	@Test
+	void createsBlocksInBatchesOfFifty() throws IOException {
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			server.setRecording(true);
+			WriteBackReport report = writer(server).write("work", FIRST_DAY, blocks(60));
+
+			assertEquals(new WriteBackReport(120, 0, 0, 0, 0, 3), report);
+			assertEquals(List.of(50, 50, 20), server.batchSizes());
+			Event second = server.events().stream()
+					.filter(event -> "2023-06-05#2".equals(event.getExtendedProperties().getPrivate().get(WorkBlockWriter.BLOCK_ID_PROPERTY)))
+					.findFirst().orElseThrow();
+			assertEquals("Work 1 h", second.getSummary());
+			assertEquals(FIRST_DAY.atTime(13, 0).atZone(ZONE).toInstant().toEpochMilli(), second.getStart().getDateTime().getValue());
+			assertEquals(FIRST_DAY.atTime(14, 0).atZone(ZONE).toInstant().toEpochMilli(), second.getEnd().getDateTime().getValue());
+		}
+	}
+
+	@Test
+	void rerunOnlyTouchesChangedBlocks() throws IOException {
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			server.setRecording(true);
+			WorkBlockWriter writer = writer(server);
+			List<WorkBlock> blocks = blocks(5);
+			writer.write("work", FIRST_DAY, blocks);
+			server.batchSizes().clear();
+			server.writes().clear();
+
+			assertEquals(new WriteBackReport(0, 0, 0, 10, 0, 0), writer.write("work", FIRST_DAY, blocks));
+			assertTrue(server.batchSizes().isEmpty());
+
+			WorkBlock moved = blocks.get(3);
+			moved.setEnd(moved.getEnd().plusHours(1));
+			moved.setHours(2);
+			List<WorkBlock> changed = new ArrayList<>(blocks.subList(0, 9));
+			changed.remove(5);
+			WriteBackReport report = writer.write("work", FIRST_DAY, changed);
+
+			assertEquals(new WriteBackReport(0, 1, 2, 7, 0, 1), report);
+			assertEquals(List.of(3), server.batchSizes());
+			assertEquals(8, server.events().size());
+			assertTrue(server.events().stream().anyMatch(event -> "Work 2 h".equals(event.getSummary())));
+		}
+	}
+
+	@Test
+	void retriesRateLimitedOperations() throws IOException {
+		try (FakeCalendarServer server = new FakeCalendarServer()) {
+			server.setOperationRateLimitRate(0.3);
+
+			WriteBackReport report = writer(server).write("work", FIRST_DAY, blocks(60));
+
+			assertEquals(120, report.getCreated());
+			assertEquals(0, report.getFailed());
+			assertTrue(report.getBatches() > 3);
+			assertTrue(server.getRateLimitsServed() > 0);
+			assertEquals(120, server.events().size());
+			assertTrue(server.getRequestCount() > 120);
+			assertTrue(server.requests().isEmpty());
+		}
+	}
+
+	private static WorkBlockWriter writer(FakeCalendarServer server) {
+		Calendar service = new Calendar.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), null)
+				.setRootUrl(server.rootUrl())
+				.setApplicationName("test")
+				.build();
+		return new WorkBlockWriter(service, new PagedEventFetcher(), ZONE, WorkBlockWriter.MAX_BATCH_SIZE, Duration.ofMillis(1));
+	}
+
+	/**
+	 * Two blocks a day around a meeting, 08:00-09:30 and 13:00-14:00.
+	 */
+	private static List<WorkBlock> blocks(int days) {
+		List<WorkBlock> blocks = new ArrayList<>();
+		for (int day = 0; day < days; day++) {
+			LocalDate date = FIRST_DAY.plusDays(day);
+			blocks.add(new WorkBlock(date, date.atTime(8, 0), date.atTime(9, 30), 1.5));
+			blocks.add(new WorkBlock(date, date.atTime(13, 0), date.atTime(14, 0), 1));
+		}
+		return blocks;
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.calendar;
+
+import com.example.calendar.dto.WorkDistribution;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkDistributorTests {
+
+	private final LocalDate monday = LocalDate.of(2023, 6, 5);
+	private final double[] equalWeights = {1, 1, 1, 1, 1, 1, 1};
+
+	@Test
+	void fillsTheFreeTimeEvenly() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[]{14, 0, 0, 0}, true);
+
+		WorkDistribution distribution = new WorkDistributor().distribute(timeline, 16, 20);
+
+		assertEquals(20, distribution.getScheduledHours());
+		assertEquals(0, distribution.getShortfallHours());
+		assertEquals(2, timeline.hoursToWork(0));
+		assertEquals(6, timeline.hoursToWork(1));
+		assertEquals(6, timeline.hoursToWork(2));
+		assertEquals(6, timeline.hoursToWork(3));
+	}
+
+	@Test
+	void keepsWithinTheGivenFreeHoursOfEachDay() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[]{14, 0, 0}, true);
+
+		WorkDistribution distribution = new WorkDistributor().distribute(timeline, new double[]{1.5, 14, 3}, 20);
+
+		assertEquals(18, distribution.getScheduledHours());
+		assertEquals(2, distribution.getShortfallHours());
+		assertEquals(1, timeline.hoursToWork(0));
+		assertEquals(14, timeline.hoursToWork(1));
+		assertEquals(3, timeline.hoursToWork(2));
+	}
+
+	@Test
+	void handsOutSlotsOfTheGranularity() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[3], true);
+
+		new WorkDistributor(Duration.ofMinutes(15), 0, 16, equalWeights).distribute(timeline, 16, 10);
+
+		assertEquals(3.5, timeline.hoursToWork(0));
+		assertEquals(3.25, timeline.hoursToWork(1));
+		assertEquals(3.25, timeline.hoursToWork(2));
+	}
+
+	@Test
+	void followsWeekdayWeightsAndDailyLimits() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[7], false);
+		double[] lightWeekend = {2, 2, 2, 2, 2, 1, 1};
+
+		WorkDistribution distribution = new WorkDistributor(Duration.ofHours(1), 1, 5, lightWeekend).distribute(timeline, 16, 22);
+
+		assertEquals(22, distribution.getScheduledHours());
+		assertEquals(4, timeline.hoursToWork(0));
+		assertEquals(2, timeline.hoursToWork(5));
+		assertEquals(0, timeline.hoursToWork(6));
+	}
+
+	@Test
+	void reportsTheShortfallOfOverloadedSchedules() {
+		ScheduleTimeline timeline = new ScheduleTimeline(monday, new double[]{10, 20}, true);
+
+		WorkDistribution distribution = new WorkDistributor().distribute(timeline, 16, 10);
+
+		assertEquals(6, distribution.getScheduledHours());
+		assertEquals(4, distribution.getShortfallHours());
+		assertEquals(0, timeline.hoursToWork(1));
+	}
+}